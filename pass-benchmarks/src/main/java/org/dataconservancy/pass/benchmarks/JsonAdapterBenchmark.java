@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.benchmarks;
+
+import java.io.ByteArrayInputStream;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dataconservancy.pass.client.PassJsonAdapter;
+import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converts each type of PASS entity to JSON and back with {@link PassJsonAdapter}, for an entity with only an ID 
+ * ({@code small}) and one with the fields set in {@code pass-test-data} ({@code typical}). Run with 
+ * {@code -prof gc} to report the allocation rate.
+ * @author Karen Hanson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonAdapterBenchmark {
+
+    @Param({"CONTRIBUTOR", "DEPOSIT", "FILE", "FUNDER", "GRANT", "JOURNAL", "POLICY", "PUBLICATION", "PUBLISHER",
+            "REPOSITORY", "REPOSITORY_COPY", "SUBMISSION", "SUBMISSION_EVENT", "USER"})
+    private PassEntityType type;
+
+    @Param({"small", "typical"})
+    private String payload;
+
+    private final PassJsonAdapter adapter = new PassJsonAdapterBasic();
+
+    private Class<? extends PassEntity> modelClass;
+
+    private PassEntity entity;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() {
+        modelClass = Payloads.modelClass(type);
+        entity = "small".equals(payload) ? Payloads.small(type) : Payloads.typical(type);
+        json = adapter.toJson(entity, false);
+    }
+
+    @Benchmark
+    public byte[] toJson() {
+        return adapter.toJson(entity, true);
+    }
+
+    @Benchmark
+    public PassEntity toModel() {
+        return adapter.toModel(json, modelClass);
+    }
+
+    @Benchmark
+    public PassEntity toModelFromStream() {
+        return adapter.toModel(new ByteArrayInputStream(json), modelClass);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+import org.dataconservancy.pass.model.Submission;
+import org.dataconservancy.pass.model.TestValues;
+
+/**
+ * PASS entities of each type to benchmark with, built from the JSON in {@code pass-test-data}
+ * @author Karen Hanson
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * @param type PASS entity type
+     * @return the model class for the type
+     */
+    @SuppressWarnings("unchecked")
+    static Class<? extends PassEntity> modelClass(PassEntityType type) {
+        try {
+            return (Class<? extends PassEntity>) Class.forName(
+                    PassEntity.class.getPackage().getName() + "." + type.getName());
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("No model class for " + type, e);
+        }
+    }
+
+    /**
+     * @param type PASS entity type
+     * @return an entity of the type with only an ID
+     */
+    static PassEntity small(PassEntityType type) {
+        PassEntity entity = typical(type);
+        try {
+            PassEntity small = entity.getClass().newInstance();
+            small.setId(entity.getId());
+            return small;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Could not create " + type, e);
+        }
+    }
+
+    /**
+     * @param type PASS entity type
+     * @return an entity of the type with the fields set in the test data
+     */
+    static PassEntity typical(PassEntityType type) {
+        return new PassJsonAdapterBasic().toModel(json(type), modelClass(type));
+    }
+
+    /**
+     * @param metadataSize number of characters of metadata
+     * @return a typical Submission with a metadata string of the given size, made of repeated metadata records
+     */
+    static Submission largeSubmission(int metadataSize) {
+        Submission submission = (Submission) typical(PassEntityType.SUBMISSION);
+        StringBuilder metadata = new StringBuilder("[");
+        for (int i = 0; metadata.length() < metadataSize; i++) {
+            metadata.append(i > 0 ? "," : "")
+                    .append("{\"id\":\"common\",\"data\":{\"title\":\"A study of things, part ").append(i)
+                    .append("\",\"journal-title\":\"Journal of Things\",\"issns\":[{\"issn\":\"1234-5678\"}],")
+                    .append("\"authors\":[{\"author\":\"J Smith\",\"orcid\":\"https://orcid.org/0000-0000-0000-0000\"}],")
+                    .append("\"publisher\":\"").append(TestValues.PUBLISHER_ID_1).append("\",")
+                    .append("\"abstract\":\"Things were studied, with \\\"quotes\\\" and some Unicode: Schäfer.\"}}");
+        }
+        submission.setMetadata(metadata.append("]").toString());
+        return submission;
+    }
+
+    /**
+     * @param type PASS entity type
+     * @return the test data JSON for the type
+     */
+    static byte[] json(PassEntityType type) {
+        String resource = "/" + type.getName().toLowerCase() + ".json";
+        try (InputStream in = Payloads.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("No test data for " + type + " at " + resource);
+            }
+            return IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read " + resource, e);
+        }
+    }
+
+}
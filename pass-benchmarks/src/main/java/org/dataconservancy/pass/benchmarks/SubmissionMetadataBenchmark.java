@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.benchmarks;
+
+import java.io.ByteArrayInputStream;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dataconservancy.pass.client.PassJsonAdapter;
+import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.model.Submission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converts a Submission to JSON and back with {@link PassJsonAdapter} as the size of its {@code metadata} grows, up 
+ * to several MB. Run with {@code -prof gc} to report the allocation rate.
+ * @author Karen Hanson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class SubmissionMetadataBenchmark {
+
+    /** characters of metadata */
+    @Param({"8192", "1048576", "4194304"})
+    private int metadataSize;
+
+    private final PassJsonAdapter adapter = new PassJsonAdapterBasic();
+
+    private Submission submission;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() {
+        submission = Payloads.largeSubmission(metadataSize);
+        json = adapter.toJson(submission, false);
+    }
+
+    @Benchmark
+    public byte[] toJson() {
+        return adapter.toJson(submission, true);
+    }
+
+    @Benchmark
+    public Submission toModel() {
+        return adapter.toModel(json, Submission.class);
+    }
+
+    @Benchmark
+    public Submission toModelFromStream() {
+        return adapter.toModel(new ByteArrayInputStream(json), Submission.class);
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.benchmarks;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dataconservancy.pass.client.util.SubmissionStatusCalculator;
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.Deposit.DepositStatus;
+import org.dataconservancy.pass.model.RepositoryCopy;
+import org.dataconservancy.pass.model.RepositoryCopy.CopyStatus;
+import org.dataconservancy.pass.model.Submission.SubmissionStatus;
+import org.dataconservancy.pass.model.SubmissionEvent;
+import org.dataconservancy.pass.model.SubmissionEvent.EventType;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calculates Submission statuses with {@link SubmissionStatusCalculator} from synthetic Deposits, RepositoryCopies 
+ * and SubmissionEvents, as the number of each per Submission grows. Run with {@code -prof gc} to report the 
+ * allocation rate.
+ * @author Karen Hanson
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubmissionStatusCalculatorBenchmark {
+
+    private static final String REPOSITORY_BASE = "https://example.org/fedora/repositories/";
+
+    /**
+     * The repositories of a submitted Submission, with their Deposits and RepositoryCopies
+     */
+    @State(Scope.Benchmark)
+    public static class PostSubmission {
+
+        /** number of repositories the Submission is deposited to */
+        @Param({"1", "5", "50", "500"})
+        private int repositories;
+
+        /** number of Deposits, and of RepositoryCopies, for each repository, as when a deposit is retried */
+        @Param({"1", "4"})
+        private int perRepository;
+
+        /** 
+         * {@code complete} when every copy is complete, {@code in-progress} when half the repositories have a copy in 
+         * progress and the rest have only a Deposit
+         */
+        @Param({"complete", "in-progress"})
+        private String progress;
+
+        private List<URI> repositoryUris;
+
+        private List<Deposit> deposits;
+
+        private List<RepositoryCopy> repositoryCopies;
+
+        @Setup
+        public void setup() {
+            boolean complete = "complete".equals(progress);
+            repositoryUris = new ArrayList<>(repositories);
+            deposits = new ArrayList<>(repositories * perRepository);
+            repositoryCopies = new ArrayList<>(repositories * perRepository);
+
+            for (int i = 0; i < repositories; i++) {
+                URI repository = URI.create(REPOSITORY_BASE + i);
+                repositoryUris.add(repository);
+                for (int n = 0; n < perRepository; n++) {
+                    // earlier attempts were rejected, the last one went through
+                    boolean last = n == perRepository - 1;
+                    Deposit deposit = new Deposit();
+                    deposit.setRepository(repository);
+                    deposit.setDepositStatus(!last ? DepositStatus.REJECTED 
+                            : complete ? DepositStatus.ACCEPTED : DepositStatus.SUBMITTED);
+                    deposits.add(deposit);
+
+                    if (complete || i % 2 == 0) {
+                        RepositoryCopy copy = new RepositoryCopy();
+                        copy.setRepository(repository);
+                        copy.setCopyStatus(!last ? CopyStatus.STALLED 
+                                : complete ? CopyStatus.COMPLETE : CopyStatus.IN_PROGRESS);
+                        repositoryCopies.add(copy);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The events of a Submission that has not been submitted
+     */
+    @State(Scope.Benchmark)
+    public static class PreSubmission {
+
+        /** number of SubmissionEvents */
+        @Param({"1", "10", "100", "1000"})
+        private int events;
+
+        private List<SubmissionEvent> submissionEvents;
+
+        @Setup
+        public void setup() {
+            EventType[] types = {EventType.APPROVAL_REQUESTED, EventType.CHANGES_REQUESTED};
+            DateTime start = new DateTime(2018, 1, 1, 0, 0, DateTimeZone.UTC);
+            submissionEvents = new ArrayList<>(events);
+            for (int i = 0; i < events; i++) {
+                SubmissionEvent event = new SubmissionEvent();
+                event.setEventType(types[i % types.length]);
+                // out of order, so the most recent is not simply the last
+                event.setPerformedDate(start.plusMinutes((i * 7919) % events));
+                submissionEvents.add(event);
+            }
+        }
+    }
+
+    @Benchmark
+    public SubmissionStatus calculatePostSubmissionStatus(PostSubmission state) {
+        return SubmissionStatusCalculator.calculatePostSubmissionStatus(state.repositoryUris, state.deposits, 
+                state.repositoryCopies);
+    }
+
+    @Benchmark
+    public SubmissionStatus calculatePreSubmissionStatus(PreSubmission state) {
+        return SubmissionStatusCalculator.calculatePreSubmissionStatus(state.submissionEvents);
+    }
+
+}
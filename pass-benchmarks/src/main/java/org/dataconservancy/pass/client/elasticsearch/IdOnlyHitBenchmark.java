@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.search.SearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads the IDs from a page of search results, comparing fetching each record's full source and parsing it into a 
+ * map with fetching only the ID and scanning for it, for Submissions whose {@code metadata} field grows in size. 
+ * Each benchmark reads one response of {@code hits} hits. Run with {@code -prof gc} to report the allocation rate. 
+ * This is in the client's package, as it reads hits with the client's own package-private method.
+ * @author Karen Hanson
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdOnlyHitBenchmark {
+
+    @Param({"200"})
+    private int hits;
+
+    @Param({"0", "8000", "64000"})
+    private int metadataSize;
+
+    private byte[] fullResponse;
+
+    private byte[] idResponse;
+
+    @Setup
+    public void setup() {
+        fullResponse = response(hits, metadataSize, true);
+        idResponse = response(hits, metadataSize, false);
+    }
+
+    /* Previous behaviour, the whole source of each hit is parsed into a map to read its ID */
+    @Benchmark
+    public int readFullSource() throws Exception {
+        int count = 0;
+        for (SearchHit hit : parse(fullResponse).getHits()) {
+            count += new URI(hit.getSourceAsMap().get("@id").toString()).hashCode() != 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /* Current behaviour, the ID alone is fetched and read with a streaming parser */
+    @Benchmark
+    public int readIdOnly() throws Exception {
+        int count = 0;
+        for (SearchHit hit : parse(idResponse).getHits()) {
+            count += ElasticsearchPassClient.entityUri(hit).hashCode() != 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static SearchResponse parse(byte[] response) throws Exception {
+        try (XContentParser parser = JsonXContent.jsonXContent.createParser(NamedXContentRegistry.EMPTY, response)) {
+            return SearchResponse.fromXContent(parser);
+        }
+    }
+
+    /* A search response as returned by elasticsearch, with the full source of Submissions or just their IDs */
+    private static byte[] response(int hits, int metadataSize, boolean fullSource) {
+        StringBuilder metadata = new StringBuilder();
+        while (metadata.length() < metadataSize) {
+            metadata.append("{\\\"title\\\":\\\"A study of things\\\",\\\"journal-NLMTA-ID\\\":\\\"J Things\\\"},");
+        }
+
+        StringBuilder json = new StringBuilder("{\"took\":3,\"timed_out\":false,")
+                .append("\"_shards\":{\"total\":5,\"successful\":5,\"skipped\":0,\"failed\":0},")
+                .append("\"hits\":{\"total\":").append(hits).append(",\"max_score\":0.0,\"hits\":[");
+        for (int i = 0; i < hits; i++) {
+            String id = "http://localhost:8080/fcrepo/rest/submissions/" + i;
+            json.append(i > 0 ? "," : "")
+                    .append("{\"_index\":\"pass\",\"_type\":\"_doc\",\"_id\":\"").append(id)
+                    .append("\",\"_score\":0.0,\"_source\":{\"@id\":\"").append(id).append("\"");
+            if (fullSource) {
+                json.append(",\"@type\":\"Submission\",\"aggregatedDepositStatus\":\"not-started\",")
+                        .append("\"submissionStatus\":\"submitted\",\"submitted\":true,")
+                        .append("\"submittedDate\":\"2018-06-01T00:00:00.000Z\",\"source\":\"pass\",")
+                        .append("\"submitter\":\"http://localhost:8080/fcrepo/rest/users/1\",")
+                        .append("\"publication\":\"http://localhost:8080/fcrepo/rest/publications/").append(i)
+                        .append("\",\"repositories\":[\"http://localhost:8080/fcrepo/rest/repositories/1\",")
+                        .append("\"http://localhost:8080/fcrepo/rest/repositories/2\"],")
+                        .append("\"grants\":[\"http://localhost:8080/fcrepo/rest/grants/").append(i).append("\"],")
+                        .append("\"metadata\":\"[").append(metadata).append("]\"");
+            }
+            json.append("}}");
+        }
+        json.append("]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
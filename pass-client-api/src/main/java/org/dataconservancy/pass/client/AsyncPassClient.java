@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.io.InputStream;
+
+import java.net.URI;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * Non-blocking interface for interactions with PASS database.
+ * <p>
+ * Each method mirrors the equivalent method on {@link PassClient}, but returns immediately with a
+ * {@link CompletableFuture} rather than blocking the calling thread until the request is complete. Failures that
+ * would be thrown by the {@link PassClient} are instead used to complete the future exceptionally.
+ * </p>
+ * <p>
+ * Futures are completed on the HTTP client's own I/O threads. Callers doing significant work when a future
+ * completes should use the {@code *Async} variants of the {@link CompletableFuture} methods (e.g.
+ * {@code thenApplyAsync}) so that the I/O threads are not tied up.
+ * </p>
+ *
+ * @author Karen Hanson
+ */
+public interface AsyncPassClient extends AutoCloseable {
+
+    /**
+     * @see PassClient#createResource(PassEntity)
+     * @param modelObj The entity to be created
+     * @return future URI of new record
+     */
+    public CompletableFuture<URI> createResource(PassEntity modelObj);
+
+    /**
+     * @see PassClient#createAndReadResource(PassEntity, Class)
+     * @param modelObj the object to be created.
+     * @param modelClass The class of PASS entity.
+     * @return future updated version of the resource
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<T> createAndReadResource(T modelObj, Class<T> modelClass);
+
+    /**
+     * @see PassClient#updateResource(PassEntity)
+     * @param modelObj The object to be updated
+     * @return future that completes when the update is done
+     */
+    public CompletableFuture<Void> updateResource(PassEntity modelObj);
+
+    /**
+     * @see PassClient#updateAndReadResource(PassEntity, Class)
+     * @param modelObj The entity to be updated
+     * @param modelClass The class of the PASS entity.
+     * @return future updated version of the resource
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<T> updateAndReadResource(T modelObj, Class<T> modelClass);
+
+    /**
+     * @see PassClient#deleteResource(URI)
+     * @param uri the URI of the resource to be deleted.
+     * @return future that completes when the resource is deleted
+     */
+    public CompletableFuture<Void> deleteResource(URI uri);
+
+    /**
+     * @see PassClient#readResource(URI, Class)
+     * @param uri The URI of the resource to be read.
+     * @param modelClass The class of PASS entity.
+     * @return future pass entity.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<T> readResource(URI uri, Class<T> modelClass);
+
+    /**
+     * @see PassClient#findByAttribute(Class, String, Object)
+     * @param modelClass The PASS entity class.
+     * @param attribute JSON attribute name.
+     * @param value value of the attribute.
+     * @return future matching PASS entity URI, completed with {@code null} if there is no match
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<URI> findByAttribute(Class<T> modelClass, String attribute, Object value);
+
+    /**
+     * @see PassClient#findAllByAttribute(Class, String, Object)
+     * @param modelClass The class of PASS entity.
+     * @param attribute JSON attribute name.
+     * @param value The value of the PASS attribute.
+     * @return future Set of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttribute(Class<T> modelClass, String attribute, Object value);
+
+    /**
+     * @see PassClient#findAllByAttribute(Class, String, Object, int, int)
+     * @param modelClass The class of PASS entity.
+     * @param attribute JSON attribute name.
+     * @param value The value of the PASS attribute.
+     * @param limit Maximum number of results.
+     * @param offset Result offset.
+     * @return future Set of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttribute(Class<T> modelClass, String attribute, Object value, int limit, int offset);
+
+    /**
+     * @see PassClient#findAllByAttributes(Class, Map)
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attributes to values.
+     * @return future Set of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+    /**
+     * @see PassClient#findAllByAttributes(Class, Map, int, int)
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values.
+     * @param limit Maximum number of results.
+     * @param offset Result offset.
+     * @return future Set of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset);
+
+    /**
+     * @see PassClient#getIncoming(URI)
+     * @param passEntity the URI of a repository resource
+     * @return future {@code Map} keyed by predicate, may be empty but never {@code null}
+     */
+    public CompletableFuture<Map<String, Collection<URI>>> getIncoming(URI passEntity);
+
+    /**
+     * @see PassClient#upload(URI, InputStream)
+     * @param entityUri a URI identifying an existing resource in the repository
+     * @param content the content to {@code POST} to the resource
+     * @return future {@code URI} used to retrieve the uploaded content
+     */
+    public CompletableFuture<URI> upload(URI entityUri, InputStream content);
+
+    /**
+     * @see PassClient#upload(URI, InputStream, Map)
+     * @param entityUri an existing entity in the repository
+     * @param content the content to {@code POST} to the entity
+     * @param params optional parameters to the {@code POST}, <em>i.e.</em> HTTP header values
+     * @return future {@code URI} used to retrieve the uploaded content
+     */
+    public CompletableFuture<URI> upload(URI entityUri, InputStream content, Map<String, ?> params);
+
+    /**
+     * @see PassClient#close()
+     */
+    @Override
+    public void close();
+
+}
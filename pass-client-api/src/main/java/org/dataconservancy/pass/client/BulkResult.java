@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk operation, reported per item so that one failure does not abort the whole batch.
+ * <p>
+ * Each item submitted to the operation appears exactly once, either as a success, a conflict or a failure. A 
+ * conflict is an update that was rejected because the resource changed since it was read (an HTTP 412 response),
+ * all other problems are reported as failures. Each map preserves the order in which the items were submitted.
+ * </p>
+ *
+ * @param <K> the key identifying each item, e.g. a resource URI
+ * @param <V> the value produced for each successful item, e.g. the PASS entity that was read
+ * @author Karen Hanson
+ */
+public class BulkResult<K, V> {
+
+    private final Map<K, V> successes = new LinkedHashMap<>();
+
+    private final Map<K, Exception> conflicts = new LinkedHashMap<>();
+
+    private final Map<K, Exception> failures = new LinkedHashMap<>();
+
+    /**
+     * Record a successful item
+     * @param key item key
+     * @param value item value
+     */
+    public void addSuccess(K key, V value) {
+        successes.put(key, value);
+    }
+
+    /**
+     * Record an item that failed because the resource changed since it was read
+     * @param key item key
+     * @param conflict the exception reporting the conflict
+     */
+    public void addConflict(K key, Exception conflict) {
+        conflicts.put(key, conflict);
+    }
+
+    /**
+     * Record a failed item
+     * @param key item key
+     * @param failure the exception that caused the item to fail
+     */
+    public void addFailure(K key, Exception failure) {
+        failures.put(key, failure);
+    }
+
+    /**
+     * Items that succeeded, and the value produced for each.
+     * @return unmodifiable map of key to value, may be empty but never {@code null}
+     */
+    public Map<K, V> getSuccesses() {
+        return Collections.unmodifiableMap(successes);
+    }
+
+    /**
+     * Items that were rejected because the resource changed since it was read, and the exception reporting each
+     * conflict. Typically these should be re-read, reapplied and retried.
+     * @return unmodifiable map of key to exception, may be empty but never {@code null}
+     */
+    public Map<K, Exception> getConflicts() {
+        return Collections.unmodifiableMap(conflicts);
+    }
+
+    /**
+     * Items that failed for reasons other than a conflict, and the exception that caused each failure.
+     * @return unmodifiable map of key to exception, may be empty but never {@code null}
+     */
+    public Map<K, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return true if any item failed, including conflicts
+     */
+    public boolean hasFailures() {
+        return !failures.isEmpty() || !conflicts.isEmpty();
+    }
+
+    /**
+     * @return total number of items in the result, successful, conflicted and failed
+     */
+    public int size() {
+        return successes.size() + conflicts.size() + failures.size();
+    }
+
+}
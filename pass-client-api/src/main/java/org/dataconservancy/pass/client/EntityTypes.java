@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Caches the {@link PassEntityType} of each class of PASS entity, for {@link PassClientMetrics#entityType(Class)}
+ * @author Karen Hanson
+ */
+final class EntityTypes {
+
+    static final ClassValue<PassEntityType> BY_CLASS = new ClassValue<PassEntityType>() {
+        @Override
+        protected PassEntityType computeValue(Class<?> type) {
+            for (PassEntityType entityType : PassEntityType.values()) {
+                if (entityType.getName().equals(type.getSimpleName())) {
+                    return entityType;
+                }
+            }
+            return null;
+        }
+    };
+
+    private EntityTypes() {
+    }
+
+}
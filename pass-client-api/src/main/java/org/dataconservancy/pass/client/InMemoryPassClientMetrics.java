@@ -0,0 +1,228 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Keeps a count, total and maximum time in memory for each combination of backend, operation, entity type and HTTP
+ * status recorded, e.g. for tests, or to be read periodically and published to a monitoring system.
+ * <p>
+ * Each combination gets a {@link Timer} the first time it is recorded. After that, recording only updates
+ * {@link LongAdder}s found by array index, so allocates nothing and scales with the number of threads recording.
+ * Statuses above {@value #MAX_STATUS} are recorded as {@value #MAX_STATUS}.
+ * </p>
+ * @author Karen Hanson
+ */
+public class InMemoryPassClientMetrics implements PassClientMetrics {
+
+    /** Highest HTTP status kept apart */
+    public static final int MAX_STATUS = 599;
+
+    private static final Backend[] BACKENDS = Backend.values();
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private static final PassEntityType[] TYPES = PassEntityType.values();
+
+    /** Slot for each backend, operation and type, with a last slot for no type, holding a timer for each status */
+    private final AtomicReferenceArray<AtomicReferenceArray<Timer>> timers =
+            new AtomicReferenceArray<>(BACKENDS.length * OPERATIONS.length * (TYPES.length + 1));
+
+    @Override
+    public void record(Backend backend, Operation operation, PassEntityType type, int status, long nanos) {
+        timer(backend, operation, type, status).record(nanos);
+    }
+
+    /**
+     * Get the timings recorded so far, in order of backend, operation, type and status
+     * @return a timer for each combination recorded
+     */
+    public List<Timer> getTimers() {
+        List<Timer> recorded = new ArrayList<>();
+        for (int slot = 0; slot < timers.length(); slot++) {
+            AtomicReferenceArray<Timer> byStatus = timers.get(slot);
+            for (int status = 0; byStatus != null && status <= MAX_STATUS; status++) {
+                if (byStatus.get(status) != null) {
+                    recorded.add(byStatus.get(status));
+                }
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Get the timer for a combination, creating it if it has not been recorded
+     * @param backend backend
+     * @param operation operation
+     * @param type entity type, may be {@code null}
+     * @param status HTTP status
+     * @return timer
+     */
+    public Timer getTimer(Backend backend, Operation operation, PassEntityType type, int status) {
+        return timer(backend, operation, type, status);
+    }
+
+    /**
+     * Count the requests recorded for an operation, whatever their type or status
+     * @param backend backend
+     * @param operation operation
+     * @return number of requests
+     */
+    public long getCount(Backend backend, Operation operation) {
+        long count = 0;
+        for (Timer timer : getTimers()) {
+            if (timer.backend == backend && timer.operation == operation) {
+                count += timer.getCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the requests recorded for an operation that failed without a response, or with a status of 400 or more
+     * @param backend backend
+     * @param operation operation
+     * @return number of failed requests
+     */
+    public long getErrorCount(Backend backend, Operation operation) {
+        long count = 0;
+        for (Timer timer : getTimers()) {
+            if (timer.backend == backend && timer.operation == operation
+                    && (timer.status == NO_STATUS || timer.status >= 400)) {
+                count += timer.getCount();
+            }
+        }
+        return count;
+    }
+
+    private Timer timer(Backend backend, Operation operation, PassEntityType type, int status) {
+        int slot = (backend.ordinal() * OPERATIONS.length + operation.ordinal()) * (TYPES.length + 1)
+                + (type != null ? type.ordinal() : TYPES.length);
+        AtomicReferenceArray<Timer> byStatus = timers.get(slot);
+        if (byStatus == null) {
+            timers.compareAndSet(slot, null, new AtomicReferenceArray<>(MAX_STATUS + 1));
+            byStatus = timers.get(slot);
+        }
+
+        int code = status < 0 ? NO_STATUS : Math.min(status, MAX_STATUS);
+        Timer timer = byStatus.get(code);
+        if (timer == null) {
+            byStatus.compareAndSet(code, null, new Timer(backend, operation, type, code));
+            timer = byStatus.get(code);
+        }
+        return timer;
+    }
+
+    /**
+     * Count, total and maximum time of the requests recorded for a combination of backend, operation, entity type
+     * and HTTP status
+     */
+    public static class Timer {
+
+        private final Backend backend;
+        private final Operation operation;
+        private final PassEntityType type;
+        private final int status;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Timer(Backend backend, Operation operation, PassEntityType type, int status) {
+            this.backend = backend;
+            this.operation = operation;
+            this.type = type;
+            this.status = status;
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        /**
+         * @return backend
+         */
+        public Backend getBackend() {
+            return backend;
+        }
+
+        /**
+         * @return operation
+         */
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return entity type, or {@code null} if the requests had no type
+         */
+        public PassEntityType getType() {
+            return type;
+        }
+
+        /**
+         * @return HTTP status, or {@link PassClientMetrics#NO_STATUS}
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return number of requests
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return total time of the requests, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * @return longest time of a request, in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * @return mean time of a request, in nanoseconds, 0 if there were none
+         */
+        public double getMeanNanos() {
+            long n = getCount();
+            return n > 0 ? (double) getTotalNanos() / n : 0;
+        }
+
+        @Override
+        public String toString() {
+            return backend + " " + operation + " " + (type != null ? type.getName() : "-") + " " + status
+                    + ": count " + getCount() + ", mean " + getMeanNanos() / 1e6 + " ms, max "
+                    + getMaxNanos() / 1e6 + " ms";
+        }
+    }
+
+}
@@ -20,21 +20,29 @@ import java.io.InputStream;
 import java.net.URI;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.Grant;
 import org.dataconservancy.pass.model.PassEntity;
 
 /**
- * Interface for interactions with PASS database
+ * Interface for interactions with PASS database.
+ * <p>
+ * Implementations may hold connection pools and threads that are shared between requests, so a client should be
+ * reused rather than created per request, and closed once it is no longer needed.
+ * </p>
  * 
  * @author Karen Hanson
  */
 
-public interface PassClient {
+public interface PassClient extends AutoCloseable {
 
     /**
      * Takes any {@link PassEntity} and persists it in the database, returns the URI if successful 
@@ -92,6 +100,74 @@ public interface PassClient {
      */
     public <T extends PassEntity> T readResource(URI uri, Class<T> modelClass);
     
+    /**
+     * Retrieves the entities matching the URIs provided, populating the appropriate Java class with their values.
+     * <p>
+     * Resources are fetched in parallel, up to a concurrency limit set by the implementation. A resource that 
+     * cannot be read does not fail the whole call; it is instead listed in {@link BulkResult#getFailures()} 
+     * along with the reason it failed.
+     * </p>
+     * @param uris The URIs of the resources to be read.
+     * @param modelClass The class of PASS entity.
+     * @return Result containing a map of URI to PASS entity for each resource read, and any failures
+     * @param <T> PASS entity type
+     * @throws IllegalArgumentException if a URI is {@code null} or appears more than once
+     */
+    public <T extends PassEntity> BulkResult<URI, T> readResources(Collection<URI> uris, Class<T> modelClass);
+
+    /**
+     * Retrieves the entities matching the URIs provided, where the resources may be of different types.
+     * <p>
+     * Behaves as {@link #readResources(Collection, Class)}, but the PASS entity class is given for each URI.
+     * </p>
+     * @param uriClasses Map of the URI of each resource to be read to its PASS entity class.
+     * @return Result containing a map of URI to PASS entity for each resource read, and any failures
+     * @throws IllegalArgumentException if a URI is {@code null}
+     */
+    public BulkResult<URI, PassEntity> readResources(Map<URI, Class<? extends PassEntity>> uriClasses);
+    
+    /**
+     * Creates new repository resources for each of the entities provided.
+     * <p>
+     * Requests are pipelined, with a limited number in flight at once as configured by the implementation. An 
+     * entity that cannot be created does not fail the whole call; it is instead listed in 
+     * {@link BulkResult#getFailures()} along with the reason it failed.
+     * </p>
+     * @param modelObjs The entities to be created
+     * @return Result keyed by the position of each entity in {@code modelObjs}, with the URI of the new record
+     *         for each success
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<Integer, URI> createResources(List<T> modelObjs);
+
+    /**
+     * Updates each of the entities provided, as described in {@link #updateResource(PassEntity)}.
+     * <p>
+     * Requests are pipelined, with a limited number in flight at once as configured by the implementation. An 
+     * entity that was modified by another process since it was read is listed in 
+     * {@link BulkResult#getConflicts()}, any other entity that cannot be updated is listed in 
+     * {@link BulkResult#getFailures()}. Neither aborts the rest of the batch.
+     * </p>
+     * @param modelObjs The entities to be updated
+     * @return Result keyed by the URI of each entity
+     * @param <T> PASS entity type
+     * @throws IllegalArgumentException if an entity has no ID, or two entities have the same ID
+     */
+    public <T extends PassEntity> BulkResult<URI, Void> updateResources(List<T> modelObjs);
+
+    /**
+     * Deletes each of the resources provided.
+     * <p>
+     * Requests are pipelined, with a limited number in flight at once as configured by the implementation. A 
+     * resource that cannot be deleted does not fail the whole call; it is instead listed in 
+     * {@link BulkResult#getFailures()} along with the reason it failed.
+     * </p>
+     * @param uris The URIs of the resources to be deleted
+     * @return Result keyed by the URI of each resource
+     * @throws IllegalArgumentException if a URI is {@code null} or appears more than once
+     */
+    public BulkResult<URI, Void> deleteResources(Collection<URI> uris);
+    
     /**
      * Retrieves URI for a SINGLE RECORD by matching the entity type and filtering by the field
      * specified using the value provided. For example, to find the {@link Grant} using the {@code awardNumber}:
@@ -248,6 +324,235 @@ public interface PassClient {
      */
     public <T extends PassEntity> Set<URI> findAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset);
 
+    /**
+     * Count the PASS entities of a given class that match the attribute provided, without retrieving them.
+     * <p>
+     * Values are matched as for {@link #findAllByAttribute(Class, String, Object)}, but the count is not limited by 
+     * the number of results the find methods return, and costs a single request however many entities match.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attribute The JSON attribute name.
+     * @param value The value to match, or {@code null} to count entities where the attribute does not exist.
+     * @return Number of matching PASS entities.
+     * @param <T> PASS entity type
+     */
+    public default <T extends PassEntity> long countByAttribute(Class<T> modelClass, String attribute, Object value) {
+        return countByAttributes(modelClass, Collections.singletonMap(attribute, value));
+    }
+
+    /**
+     * Count the PASS entities of a given class that match all of the attributes provided, without retrieving them.
+     * <p>
+     * Values are matched as for {@link #findAllByAttributes(Class, Map)}, but the count is not limited by the number
+     * of results the find methods return, and costs a single request however many entities match.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values.
+     * @return Number of matching PASS entities.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> long countByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+    /**
+     * Count the PASS entities of a given class that match a structured query, without retrieving them.
+     * @param modelClass The class of PASS entity.
+     * @param query Clauses the entities must match, see {@link PassQuery}.
+     * @return Number of matching PASS entities.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> long countByQuery(Class<T> modelClass, PassQuery query);
+
+    /**
+     * Run a batch of independent index lookups together, for example resolving the journal, funders and PI of a 
+     * submission, in a single request to the index rather than one per lookup.
+     * <p>
+     * Each lookup is matched as by {@link #findAllByAttributes(Class, Map, int, int)} or 
+     * {@link #findAllByQuery(Class, PassQuery, int, int)}. A lookup that is invalid or fails does not affect the 
+     * others.
+     * </p>
+     * @param lookups The lookups to run.
+     * @return For each lookup, keyed by its position in the list, either the Set of matching PASS entity URIs, or 
+     *         the exception that caused it to fail. Successes are in list order.
+     */
+    public BulkResult<Integer, Set<URI>> findAll(List<PassLookup> lookups);
+
+    /**
+     * Retrieves URIs for PASS entities of a given class where an attribute matches any of a number of values, 
+     * reporting which entities matched each value.
+     * <p>
+     * This resolves a large batch of lookups, such as finding Grants for thousands of {@code localKey} values, in a 
+     * few requests to the index rather than one per value. Values are matched as for 
+     * {@link #findAllByAttribute(Class, String, Object)}, and there is no limit on the number of results. Where the 
+     * attribute is multi-valued, an entity is reported against every requested value it holds. Values are compared 
+     * by their string form, so distinct values with the same string form, such as {@code 1} and {@code "1"}, are 
+     * each reported with the same matches.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attribute The JSON attribute name.
+     * @param values The values to match, cannot be empty, and cannot contain {@code null} or Collections.
+     * @return Map of each distinct requested value, in the order provided, to the URIs of the entities that match it.
+     *         Values that match nothing are mapped to an empty Set.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Map<Object, Set<URI>> findAllByAttributeIn(Class<T> modelClass, String attribute, Collection<?> values);
+
+    /**
+     * Retrieves URI for a SINGLE PASS entity of a given class that matches a structured query.
+     * <p>
+     * As for {@link #findByAttribute(Class, String, Object)}, a {@code RuntimeException} is thrown if more than one 
+     * entity matches, and {@code null} is returned if none do.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param query Clauses the entity must match, see {@link PassQuery}.
+     * @return URI of matching PASS entity, or {@code null} if there is no match.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> URI findByQuery(Class<T> modelClass, PassQuery query);
+
+    /**
+     * Retrieves URIs for PASS entities of a given class that match a structured query.
+     * <p>
+     * By default this will return a maximum of 200 matching records, unless the pass.elasticsearch.limit
+     * environment variable is set. If there are no matches, it will return an empty list.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param query Clauses the entities must match, see {@link PassQuery}.
+     * @return Set of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Set<URI> findAllByQuery(Class<T> modelClass, PassQuery query);
+
+    /**
+     * Retrieves URIs for PASS entities of a given class that match a structured query, using the limit and offset 
+     * provided.
+     * @param modelClass The class of PASS entity.
+     * @param query Clauses the entities must match, see {@link PassQuery}.
+     * @param limit Maximum number of results.
+     * @param offset Result offset.
+     * @return Set of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Set<URI> findAllByQuery(Class<T> modelClass, PassQuery query, int limit, int offset);
+
+    /**
+     * Lazily stream the URIs of all PASS entities of a given class that match a structured query, fetching them from
+     * the index a page at a time as described for {@link #streamAllByAttributes(Class, Map)}.
+     * @param modelClass The class of PASS entity.
+     * @param query Clauses the entities must match, see {@link PassQuery}.
+     * @return Stream of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllByQuery(Class<T> modelClass, PassQuery query);
+
+    /**
+     * Lazily stream the URIs of all PASS entities of a given class that match all of the attributes provided.
+     * <p>
+     * Unlike {@link #findAllByAttributes(Class, Map, int, int)}, the results are not limited in number. They are 
+     * fetched from the index a page at a time as the stream is consumed, so a stream that is short-circuited, for 
+     * example with {@code limit()} or {@code findFirst()}, only fetches the pages it needs. The page size is set by 
+     * the implementation, independently of any limit on the number of results returned by the find methods. 
+     * Attribute values are matched as for {@link #findAllByAttributes(Class, Map)}, and a {@code null} value matches 
+     * entities where the attribute does not exist. The stream is sequential, and entities indexed or removed while 
+     * it is being consumed may or may not be included.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values.
+     * @return Stream of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+    /**
+     * Lazily stream the URIs of all PASS entities of a given class that match the attribute provided.
+     * <p>
+     * Single attribute equivalent of {@link #streamAllByAttributes(Class, Map)}.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attribute The JSON attribute name.
+     * @param value The value to match, or {@code null} to match entities where the attribute does not exist.
+     * @return Stream of all matching PASS entity URIs.
+     * @param <T> PASS entity type
+     */
+    public default <T extends PassEntity> Stream<URI> streamAllByAttribute(Class<T> modelClass, String attribute, Object value) {
+        return streamAllByAttributes(modelClass, Collections.singletonMap(attribute, value));
+    }
+
+    /**
+     * Retrieves PASS entities of a given class that match all of the attributes provided, built from the copies held
+     * in the index rather than read from the repository.
+     * <p>
+     * This replaces a call to {@link #findAllByAttributes(Class, Map, int, int)} followed by a 
+     * {@link #readResource(URI, Class)} for each result with a single request to the index. <strong>The entities are 
+     * possibly index-stale:</strong> they are as they were when last indexed, so may not reflect recent changes, and 
+     * may include entities since deleted from the repository. They have no version tag, so should be read from the 
+     * repository before being updated. Use {@link #findAllEntitiesByAttributes(Class, Map, int, int, boolean)} to 
+     * verify them against the repository. Each call fetches one page, selected by offset, which is not a stable 
+     * way to page through many results; use {@link #streamAllEntitiesByAttributes(Class, Map)} to retrieve them all.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values.
+     * @param limit Maximum number of results.
+     * @param offset Result offset.
+     * @return List of matching PASS entities, possibly index-stale.
+     * @param <T> PASS entity type
+     */
+    public default <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset) {
+        return findAllEntitiesByAttributes(modelClass, attributeValuesMap, limit, offset, false);
+    }
+
+    /**
+     * Retrieves PASS entities of a given class that match all of the attributes provided, built from the copies held
+     * in the index, optionally verifying them against the repository.
+     * <p>
+     * Without verification, this behaves as {@link #findAllEntitiesByAttributes(Class, Map, int, int)}. With 
+     * verification, the matching entities are re-read from the repository in bulk as by 
+     * {@link #readResources(Collection, Class)}, revalidating any cached copy by its ETag, so each entity returned 
+     * is current and has a version tag. Entities since deleted from the repository are left out. Which entities 
+     * match is still decided by the index.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values.
+     * @param limit Maximum number of results.
+     * @param offset Result offset.
+     * @param verify {@code true} to verify the entities against the repository.
+     * @return List of matching PASS entities.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset, boolean verify);
+
+    /**
+     * Lazily stream all PASS entities of a given class that match all of the attributes provided, built from the 
+     * copies held in the index rather than read from the repository.
+     * <p>
+     * The results are fetched a page at a time in ID order as the stream is consumed, as described for 
+     * {@link #streamAllByAttributes(Class, Map)}, so they are not limited in number, and no entity is skipped or 
+     * repeated between pages. The entities are possibly index-stale, as described for 
+     * {@link #findAllEntitiesByAttributes(Class, Map, int, int)}.
+     * </p>
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values.
+     * @return Stream of all matching PASS entities, possibly index-stale.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<T> streamAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+    /**
+     * Retrieves the entities matching the URIs provided, built from the copies held in the index rather than read 
+     * from the repository.
+     * <p>
+     * The entities are fetched in a few requests to the index rather than one request to the repository each. 
+     * <strong>The entities are possibly index-stale</strong>, as described for 
+     * {@link #findAllEntitiesByAttributes(Class, Map, int, int)}. A URI that is not in the index is listed in 
+     * {@link BulkResult#getFailures()}. To verify entities against the repository, read them with 
+     * {@link #readResources(Collection, Class)}.
+     * </p>
+     * @param uris The URIs of the entities to be read.
+     * @param modelClass The class of PASS entity.
+     * @return Result containing a map of URI to PASS entity for each entity found, and any failures
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<URI, T> readResourcesFromIndex(Collection<URI> uris, Class<T> modelClass);
+
     /**
      * Retrieve inbound links to the repository resource identified by {@link PassEntity}.
      * <p>
@@ -260,6 +565,44 @@ public interface PassClient {
      */
     public Map<String, Collection<URI>> getIncoming(URI passEntity);
 
+    /**
+     * Retrieve the URIs of the resources that link to the repository resource identified by {@link PassEntity} 
+     * through one predicate, for example the Deposits whose {@code submission} is a given Submission.
+     * <p>
+     * Only the links through {@code field} are kept, so this uses less memory than {@link #getIncoming(URI)} for 
+     * resources that are linked to by many others through other predicates.
+     * </p>
+     *
+     * @param passEntity the URI of a repository resource
+     * @param field the predicate, as it would be keyed in the map returned by {@link #getIncoming(URI)}
+     * @return the incoming URIs, may be empty but never {@code null}
+     */
+    public default Collection<URI> getIncoming(URI passEntity, String field) {
+        Collection<URI> links = getIncoming(passEntity).get(field);
+        return links != null ? links : Collections.emptySet();
+    }
+
+    /**
+     * Visit the URIs of the resources that link to the repository resource identified by {@link PassEntity} 
+     * through one predicate.
+     * <p>
+     * Implementations may pass each URI to the {@code processor} as it is read from the repository response, 
+     * without holding the incoming links in memory, so that resources linked to by a very large number of others, 
+     * such as a Repository, can be handled. A URI may be visited more than once if it links through {@code field} 
+     * more than once.
+     * </p>
+     *
+     * @param passEntity the URI of a repository resource
+     * @param field the predicate, as it would be keyed in the map returned by {@link #getIncoming(URI)}
+     * @param processor {@link Consumer} that is given each incoming URI
+     * @return the number of incoming URIs visited
+     */
+    public default int processIncoming(URI passEntity, String field, Consumer<URI> processor) {
+        Collection<URI> links = getIncoming(passEntity, field);
+        links.forEach(processor);
+        return links.size();
+    }
+
     /**
      * {@code POST}s the {@code content} to {@code entityUri}.
      * <p>
@@ -308,7 +651,8 @@ public interface PassClient {
      * Visit all PASS entities in the repository of a given class.
      * <p>
      * The search space for resources is set by the implementation. For example, all resources underneath a base URI
-     * in Fedora.
+     * in Fedora. Implementations may crawl the repository in parallel, in which case the order resources are visited
+     * in is not defined.
      * </p>
      *
      * @param processor {@link Consumer} that is given a URI for every resource visited.
@@ -333,4 +677,40 @@ public interface PassClient {
         return processAllEntities(processor, null);
     }
 
+    /**
+     * Lazily stream the URIs of all PASS entities in the repository of a given class.
+     * <p>
+     * The search space for resources is the same as for {@link #processAllEntities(Consumer, Class)}, but resources
+     * are only listed from the repository as the stream is consumed, so a stream that is short-circuited, for example
+     * with {@code limit()}, {@code findFirst()} or {@code anyMatch()}, does not scan the whole repository. The stream
+     * is sequential.
+     * </p>
+     *
+     * @param modelClass Class of PASS entity to stream. If {@code null}, will stream all classes.
+     * @return stream of entity URIs
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllEntities(Class<T> modelClass);
+
+    /**
+     * Lazily iterate over the URIs of all PASS entities in the repository of a given class.
+     * <p>
+     * Iterator equivalent of {@link #streamAllEntities(Class)}; resources are only listed from the repository as the
+     * iterator is advanced.
+     * </p>
+     *
+     * @param modelClass Class of PASS entity to iterate over. If {@code null}, will iterate over all classes.
+     * @return iterator of entity URIs
+     * @param <T> PASS entity type
+     */
+    public default <T extends PassEntity> Iterator<URI> iterateAllEntities(Class<T> modelClass) {
+        return streamAllEntities(modelClass).iterator();
+    }
+
+    /**
+     * Releases any connections and threads held by the client. The client cannot be used once closed.
+     */
+    @Override
+    public void close();
+
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Receives the timing of each request the PASS client makes to Fedora or Elasticsearch, tagged by the kind of
+ * operation, the type of PASS entity and the HTTP status.
+ * <p>
+ * {@link #record} is called on the thread that completes the request, including OkHttp and Elasticsearch I/O threads
+ * for asynchronous requests, so implementations must be thread safe and should not block. The arguments are enums and
+ * primitives so that the client allocates nothing to report a request; implementations should do the same. Lookups
+ * answered by a cache are not requests, so are not recorded. A bulk operation records each of the requests it makes.
+ * </p>
+ * <p>
+ * Set an implementation with {@code PassClientDefault.metrics(...)}, by default nothing is recorded.
+ * </p>
+ * @see InMemoryPassClientMetrics
+ * @author Karen Hanson
+ */
+public interface PassClientMetrics {
+
+    /** Status recorded for a request that failed without a response, e.g. because the connection failed */
+    public static final int NO_STATUS = 0;
+
+    /** Records nothing */
+    public static final PassClientMetrics NOOP = (backend, operation, type, status, nanos) -> { };
+
+    /**
+     * Service a request was made to
+     */
+    public enum Backend {
+        /** Fedora repository */
+        FEDORA,
+        /** Elasticsearch index */
+        ELASTICSEARCH
+    }
+
+    /**
+     * Kind of client operation a request was made for
+     */
+    public enum Operation {
+        /** Create an entity */
+        CREATE,
+        /** Read an entity */
+        READ,
+        /** Update an entity */
+        UPDATE,
+        /** Delete an entity */
+        DELETE,
+        /** Upload a binary */
+        UPLOAD,
+        /** Get the incoming links of an entity */
+        INCOMING,
+        /** Search or count in the index */
+        FIND,
+        /** List the children of a container while crawling the repository */
+        CRAWL
+    }
+
+    /**
+     * Record a completed request
+     * @param backend service the request was made to
+     * @param operation kind of operation
+     * @param type type of PASS entity, {@code null} if unknown or if a request covers several types
+     * @param status HTTP status of the response, or {@link #NO_STATUS}
+     * @param nanos time from sending the request to handling the response, in nanoseconds
+     */
+    public void record(Backend backend, Operation operation, PassEntityType type, int status, long nanos);
+
+    /**
+     * Get the type of a class of PASS entity, without allocating once the class has been seen
+     * @param modelClass class of PASS entity, may be {@code null}
+     * @return type, or {@code null} if the class is {@code null} or not a PASS entity type
+     */
+    public static PassEntityType entityType(Class<? extends PassEntity> modelClass) {
+        return modelClass != null ? EntityTypes.BY_CLASS.get(modelClass) : null;
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * A single index lookup to be run as part of a batch, see {@link PassClient#findAll(java.util.List)}.
+ * <p>
+ * A lookup is for a class of PASS entity, and matches either a map of attributes to values, as for
+ * {@link PassClient#findAllByAttributes(Class, Map, int, int)}, or a {@link PassQuery}, as for
+ * {@link PassClient#findAllByQuery(Class, PassQuery, int, int)}. Unless a limit is set, the limit used by the find
+ * methods applies. For example:
+ * </p>
+ * <pre>
+ * List&lt;PassLookup&gt; lookups = Arrays.asList(
+ *         new PassLookup(Journal.class, "issns", issn),
+ *         new PassLookup(Funder.class, "localKey", funderKey),
+ *         new PassLookup(User.class, "locatorIds", locatorId).limit(2));
+ * </pre>
+ * @author Karen Hanson
+ */
+public class PassLookup {
+
+    private final Class<? extends PassEntity> modelClass;
+
+    private final Map<String, Object> attributes;
+
+    private final PassQuery query;
+
+    private Integer limit = null;
+
+    private int offset = 0;
+
+    /**
+     * Look up entities where an attribute has a value
+     * @param modelClass The class of PASS entity.
+     * @param attribute The JSON attribute name.
+     * @param value The value to match, or {@code null} to match entities where the attribute does not exist.
+     */
+    public PassLookup(Class<? extends PassEntity> modelClass, String attribute, Object value) {
+        this(modelClass, Collections.singletonMap(attribute, value));
+    }
+
+    /**
+     * Look up entities that match all of the attributes provided
+     * @param modelClass The class of PASS entity.
+     * @param attributeValuesMap Map of JSON attribute name to values, {@code null} values match entities where the
+     *        attribute does not exist.
+     */
+    public PassLookup(Class<? extends PassEntity> modelClass, Map<String, Object> attributeValuesMap) {
+        this.modelClass = modelClass;
+        this.attributes = attributeValuesMap != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(attributeValuesMap)) : null;
+        this.query = null;
+    }
+
+    /**
+     * Look up entities that match a structured query
+     * @param modelClass The class of PASS entity.
+     * @param query Clauses the entities must match.
+     */
+    public PassLookup(Class<? extends PassEntity> modelClass, PassQuery query) {
+        this.modelClass = modelClass;
+        this.attributes = null;
+        this.query = query;
+    }
+
+    /**
+     * Set the maximum number of results
+     * @param limit Maximum number of results.
+     * @return this lookup
+     */
+    public PassLookup limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Set the result offset
+     * @param offset Result offset.
+     * @return this lookup
+     */
+    public PassLookup offset(int offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * @return The class of PASS entity.
+     */
+    public Class<? extends PassEntity> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * @return Map of JSON attribute name to values, or {@code null} if this lookup uses a query.
+     */
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return Structured query, or {@code null} if this lookup uses attributes.
+     */
+    public PassQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * @return Maximum number of results, or {@code null} to use the default limit.
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Result offset.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        String type = modelClass != null ? modelClass.getSimpleName() : "null";
+        return type + (query != null ? query : attributes) + " limit " + limit + " offset " + offset;
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Structured query for PASS entities in the index, used with the {@code findAllByQuery} methods of
+ * {@link PassClient}.
+ * <p>
+ * A query is built up from clauses, all of which must match. Each clause applies to a JSON attribute of the entity,
+ * and compares values in their string form, as {@link PassClient#findAllByAttributes(Class, java.util.Map)} does.
+ * Values are matched exactly as indexed, with no query syntax, so they may contain quotes or other special
+ * characters. For example:
+ * </p>
+ * <pre>
+ * PassQuery query = new PassQuery()
+ *         .term("submitter", userUri)
+ *         .terms("submissionStatus", Arrays.asList(SubmissionStatus.DRAFT, SubmissionStatus.SUBMITTED))
+ *         .range("submittedDate", start, null)
+ *         .notExists("source");
+ * </pre>
+ * @author Karen Hanson
+ */
+public class PassQuery {
+
+    private final List<Clause> clauses = new ArrayList<>();
+
+    /**
+     * Match entities where an attribute has a value. Where the attribute is multi-valued, it matches if any of its
+     * values is equal.
+     * @param attribute JSON attribute name
+     * @param value value to match, cannot be {@code null}, use {@link #notExists(String)} instead
+     * @return this query
+     */
+    public PassQuery term(String attribute, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value for attribute " + attribute + " cannot be null");
+        }
+        return add(new Clause(Clause.Type.TERM, attribute, Collections.singletonList(value.toString()), null, null));
+    }
+
+    /**
+     * Match entities where an attribute has any one of a number of values.
+     * @param attribute JSON attribute name
+     * @param values values to match, cannot be empty or contain {@code null}
+     * @return this query
+     */
+    public PassQuery terms(String attribute, Collection<?> values) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("Values for attribute " + attribute + " cannot be empty");
+        }
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Values for attribute " + attribute + " cannot contain null");
+            }
+            strings.add(value.toString());
+        }
+        return add(new Clause(Clause.Type.TERMS, attribute, strings, null, null));
+    }
+
+    /**
+     * Match entities where an attribute lies within a range, bounds included.
+     * @param attribute JSON attribute name
+     * @param from lowest value to match, or {@code null} for no lower bound
+     * @param to highest value to match, or {@code null} for no upper bound
+     * @return this query
+     */
+    public PassQuery range(String attribute, Object from, Object to) {
+        if (from == null && to == null) {
+            throw new IllegalArgumentException("Range for attribute " + attribute + " needs at least one bound");
+        }
+        return add(new Clause(Clause.Type.RANGE, attribute, Collections.emptyList(),
+                from != null ? from.toString() : null, to != null ? to.toString() : null));
+    }
+
+    /**
+     * Match entities where an attribute has a value
+     * @param attribute JSON attribute name
+     * @return this query
+     */
+    public PassQuery exists(String attribute) {
+        return add(new Clause(Clause.Type.EXISTS, attribute, Collections.emptyList(), null, null));
+    }
+
+    /**
+     * Match entities where an attribute has no value
+     * @param attribute JSON attribute name
+     * @return this query
+     */
+    public PassQuery notExists(String attribute) {
+        return add(new Clause(Clause.Type.NOT_EXISTS, attribute, Collections.emptyList(), null, null));
+    }
+
+    /**
+     * @return the clauses of this query, in the order they were added
+     */
+    public List<Clause> getClauses() {
+        return Collections.unmodifiableList(clauses);
+    }
+
+    private PassQuery add(Clause clause) {
+        clauses.add(clause);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return clauses.equals(((PassQuery) o).clauses);
+    }
+
+    @Override
+    public int hashCode() {
+        return clauses.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return clauses.toString();
+    }
+
+    /**
+     * A single condition of a {@link PassQuery}. Values are held in their string form.
+     */
+    public static final class Clause {
+
+        /**
+         * Kinds of clause
+         */
+        public enum Type {
+            /** attribute equals a value */
+            TERM,
+            /** attribute equals one of several values */
+            TERMS,
+            /** attribute lies within a range, bounds included */
+            RANGE,
+            /** attribute has a value */
+            EXISTS,
+            /** attribute has no value */
+            NOT_EXISTS
+        }
+
+        private final Type type;
+
+        private final String attribute;
+
+        private final List<String> values;
+
+        private final String from;
+
+        private final String to;
+
+        private Clause(Type type, String attribute, List<String> values, String from, String to) {
+            if (attribute == null || attribute.length() == 0) {
+                throw new IllegalArgumentException("attribute cannot be null or empty");
+            }
+            this.type = type;
+            this.attribute = attribute;
+            this.values = Collections.unmodifiableList(values);
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return kind of clause
+         */
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return JSON attribute name
+         */
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * @return values to match for {@link Type#TERM} and {@link Type#TERMS} clauses, otherwise empty
+         */
+        public List<String> getValues() {
+            return values;
+        }
+
+        /**
+         * @return lower bound of a {@link Type#RANGE} clause, or {@code null} if there is none
+         */
+        public String getFrom() {
+            return from;
+        }
+
+        /**
+         * @return upper bound of a {@link Type#RANGE} clause, or {@code null} if there is none
+         */
+        public String getTo() {
+            return to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Clause that = (Clause) o;
+            return type == that.type && attribute.equals(that.attribute) && values.equals(that.values)
+                    && Objects.equals(from, that.from) && Objects.equals(to, that.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, attribute, values, from, to);
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+            case TERM:
+                return attribute + "=" + values.get(0);
+            case TERMS:
+                return attribute + " in " + values;
+            case RANGE:
+                return attribute + " in [" + (from != null ? from : "*") + " TO " + (to != null ? to : "*") + "]";
+            case EXISTS:
+                return attribute + " exists";
+            default:
+                return attribute + " not exists";
+            }
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import org.dataconservancy.pass.client.AsyncPassClient;
+import org.dataconservancy.pass.client.PassClientFactory;
+import org.dataconservancy.pass.client.fedora.UpdateConflictException;
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.Submission;
+import org.junit.After;
+import org.junit.Test;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
+
+/**
+ * Tests the {@link AsyncPassClient} against Fedora and Elasticsearch
+ *
+ * @author Karen Hanson
+ */
+public class AsyncPassClientIT extends ClientITBase {
+
+    private final AsyncPassClient asyncClient = PassClientFactory.getAsyncPassClient();
+
+    @After
+    public void closeAsyncClient() {
+        asyncClient.close();
+    }
+
+    /* Create all types concurrently, then read them back concurrently */
+    @Test
+    public void roundTripTest() {
+        List<PassEntity> deposited = PASS_TYPES.stream()
+                .map(cls -> random(cls, 2))
+                .collect(Collectors.toList());
+
+        List<CompletableFuture<URI>> created = deposited.stream()
+                .map(asyncClient::createResource)
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < deposited.size(); i++) {
+            PassEntity asDeposited = deposited.get(i);
+            URI uri = created.get(i).join();
+            createdUris.put(uri, asDeposited.getClass());
+            PassEntity retrieved = asyncClient.readResource(uri, asDeposited.getClass()).join();
+            assertReflectionEquals(normalized(asDeposited), normalized(retrieved),
+                    ReflectionComparatorMode.LENIENT_ORDER);
+        }
+    }
+
+    /* Update then read, and make sure a stale version tag fails the future with an UpdateConflictException */
+    @Test
+    public void updateTest() {
+        Grant grant = asyncClient.createAndReadResource(random(Grant.class, 1), Grant.class).join();
+        createdUris.put(grant.getId(), Grant.class);
+        String staleTag = grant.getVersionTag();
+
+        grant.setAwardNumber("async-award");
+        Grant updated = asyncClient.updateAndReadResource(grant, Grant.class).join();
+        assertEquals("async-award", updated.getAwardNumber());
+
+        grant.setVersionTag(staleTag);
+        try {
+            asyncClient.updateResource(grant).join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof UpdateConflictException);
+            return;
+        }
+        throw new AssertionError("Expected an UpdateConflictException");
+    }
+
+    /* Invalid arguments fail the future rather than being thrown to the caller */
+    @Test
+    public void invalidArgumentsTest() {
+        assertFailsWith(NullPointerException.class, asyncClient.updateResource(new Grant()));
+        assertFailsWith(IllegalArgumentException.class, asyncClient.findByAttribute(Grant.class, null, "value"));
+        assertFailsWith(IllegalArgumentException.class, 
+                asyncClient.findAllByAttribute(Grant.class, "localKey", "value", -1, 0));
+    }
+
+    /* Incoming links, upload and find should all complete asynchronously */
+    @Test
+    public void incomingUploadAndFindTest() {
+        Submission submission = asyncClient.createAndReadResource(new Submission(), Submission.class).join();
+        createdUris.put(submission.getId(), Submission.class);
+
+        Deposit deposit = new Deposit();
+        deposit.setSubmission(submission.getId());
+        URI depositUri = asyncClient.createResource(deposit).join();
+        createdUris.put(depositUri, Deposit.class);
+
+        Map<String, Collection<URI>> incoming = asyncClient.getIncoming(submission.getId()).join();
+        assertTrue(incoming.get("submission").contains(depositUri));
+
+        URI binary = asyncClient.upload(submission.getId(), new ByteArrayInputStream("content".getBytes())).join();
+        assertNotNull(binary);
+
+        URI found = attempt(RETRIES, () -> {
+            URI uri = asyncClient.findByAttribute(Deposit.class, "submission", submission.getId()).join();
+            assertNotNull(uri);
+            return uri;
+        });
+        assertEquals(depositUri, found);
+
+        asyncClient.deleteResource(depositUri).join();
+        createdUris.remove(depositUri);
+    }
+
+    private static void assertFailsWith(Class<? extends Exception> expected, CompletableFuture<?> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            assertTrue(expected.isInstance(e.getCause()));
+            return;
+        }
+        throw new AssertionError("Expected the future to fail with " + expected.getSimpleName());
+    }
+
+}
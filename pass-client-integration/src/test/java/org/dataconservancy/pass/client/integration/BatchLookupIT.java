@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.dataconservancy.pass.client.BulkResult;
+import org.dataconservancy.pass.client.PassClientDefault;
+import org.dataconservancy.pass.client.PassLookup;
+import org.dataconservancy.pass.client.PassQuery;
+import org.dataconservancy.pass.client.elasticsearch.InMemoryIndexResultCache;
+import org.dataconservancy.pass.model.Funder;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Journal;
+import org.dataconservancy.pass.model.PassEntity;
+import org.junit.Test;
+
+/**
+ * Tests for running several index lookups in one request with PassClient.findAll
+ * @author Karen Hanson
+ */
+public class BatchLookupIT extends ClientITBase {
+
+    /**
+     * Ensures lookups of different types are answered in order, and that a bad lookup fails on its own
+     */
+    @Test
+    public void testMixedLookups() {
+        Journal journal = random(Journal.class, 1);
+        URI journalId = create(journal);
+        Funder funder = random(Funder.class, 1);
+        URI funderId = create(funder);
+        Grant grant = random(Grant.class, 1);
+        grant.setPrimaryFunder(funderId);
+        URI grantId = create(grant);
+
+        attempt(RETRIES, () -> {
+            assertEquals(grantId, client.findByAttribute(Grant.class, "@id", grantId));
+            assertEquals(funderId, client.findByAttribute(Funder.class, "@id", funderId));
+            assertEquals(journalId, client.findByAttribute(Journal.class, "@id", journalId));
+        });
+
+        Map<String, Object> grantAttributes = new HashMap<String, Object>();
+        grantAttributes.put("localKey", grant.getLocalKey());
+        grantAttributes.put("primaryFunder", funderId);
+
+        BulkResult<Integer, Set<URI>> result = client.findAll(asList(
+                new PassLookup(Journal.class, "issns", journal.getIssns().get(0)),
+                new PassLookup(PassEntity.class, "localKey", "anything"),
+                new PassLookup(Grant.class, grantAttributes),
+                new PassLookup(Funder.class, new PassQuery().term("localKey", funder.getLocalKey()).exists("name")),
+                new PassLookup(Grant.class, "localKey", "no-such-grant-" + System.currentTimeMillis()).limit(1)));
+
+        assertEquals(5, result.size());
+        assertEquals(asList(0, 2, 3, 4), asList(result.getSuccesses().keySet().toArray()));
+        assertEquals(singleton(journalId), result.getSuccesses().get(0));
+        assertEquals(singleton(grantId), result.getSuccesses().get(2));
+        assertEquals(singleton(funderId), result.getSuccesses().get(3));
+        assertEquals(emptySet(), result.getSuccesses().get(4));
+        assertTrue(result.getFailures().get(1) instanceof IllegalArgumentException);
+    }
+
+    /**
+     * Ensures lookups answered by the result cache give the same results as those sent to the index
+     */
+    @Test
+    public void testCachedLookups() {
+        Funder funder = random(Funder.class, 1);
+        URI funderId = create(funder);
+
+        attempt(RETRIES, () -> {
+            assertEquals(funderId, client.findByAttribute(Funder.class, "@id", funderId));
+        });
+
+        try (PassClientDefault cachingClient = new PassClientDefault()) {
+            InMemoryIndexResultCache cache = new InMemoryIndexResultCache(10, 60000, 0);
+            cachingClient.resultCache(cache);
+
+            assertEquals(funderId, cachingClient.findByAttribute(Funder.class, "localKey", funder.getLocalKey()));
+            BulkResult<Integer, Set<URI>> result = cachingClient.findAll(asList(
+                    new PassLookup(Funder.class, "localKey", funder.getLocalKey()).limit(2),
+                    new PassLookup(Funder.class, "name", funder.getName())));
+
+            assertEquals(singleton(funderId), result.getSuccesses().get(0));
+            assertEquals(singleton(funderId), result.getSuccesses().get(1));
+            assertEquals(1, cache.getHits());
+            assertEquals(2, cache.size());
+        }
+    }
+
+    private URI create(PassEntity entity) {
+        URI uri = client.createResource(entity);
+        createdUris.put(uri, entity.getClass());
+        return uri;
+    }
+
+}
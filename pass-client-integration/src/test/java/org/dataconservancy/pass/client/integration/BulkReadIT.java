@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.client.BulkResult;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.PassEntity;
+import org.junit.Test;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
+
+/**
+ * Tests bulk reads with {@code readResources}
+ *
+ * @author Karen Hanson
+ */
+public class BulkReadIT extends ClientITBase {
+
+    /* Read several grants at once, one of which does not exist */
+    @Test
+    public void readResourcesTest() {
+        List<URI> uris = new ArrayList<>();
+        Map<URI, Grant> deposited = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            Grant grant = random(Grant.class, 1);
+            URI uri = client.createResource(grant);
+            createdUris.put(uri, Grant.class);
+            uris.add(uri);
+            deposited.put(uri, grant);
+        }
+        URI missing = URI.create(uris.get(0).toString() + "-missing");
+        uris.add(missing);
+
+        BulkResult<URI, Grant> result = client.readResources(uris, Grant.class);
+
+        assertEquals(11, result.size());
+        assertEquals(10, result.getSuccesses().size());
+        assertTrue(result.hasFailures());
+        assertTrue(result.getFailures().containsKey(missing));
+        assertEquals(new ArrayList<>(deposited.keySet()), new ArrayList<>(result.getSuccesses().keySet()));
+
+        for (Map.Entry<URI, Grant> entry : deposited.entrySet()) {
+            assertReflectionEquals(normalized(entry.getValue()), normalized(result.getSuccesses().get(entry.getKey())),
+                    ReflectionComparatorMode.LENIENT_ORDER);
+        }
+    }
+
+    /* Read one of each type of entity in a single call */
+    @Test
+    public void readMixedResourcesTest() {
+        Map<URI, Class<? extends PassEntity>> uriClasses = new LinkedHashMap<>();
+        Map<URI, PassEntity> deposited = new LinkedHashMap<>();
+        for (Class<? extends PassEntity> cls : PASS_TYPES) {
+            PassEntity entity = random(cls, 1);
+            URI uri = client.createResource(entity);
+            createdUris.put(uri, cls);
+            uriClasses.put(uri, cls);
+            deposited.put(uri, entity);
+        }
+
+        BulkResult<URI, PassEntity> result = client.readResources(uriClasses);
+
+        assertFalse(result.hasFailures());
+        for (Map.Entry<URI, PassEntity> entry : deposited.entrySet()) {
+            PassEntity retrieved = result.getSuccesses().get(entry.getKey());
+            assertEquals(entry.getValue().getClass(), retrieved.getClass());
+            assertReflectionEquals(normalized(entry.getValue()), normalized(retrieved),
+                    ReflectionComparatorMode.LENIENT_ORDER);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dataconservancy.pass.client.BulkResult;
+import org.dataconservancy.pass.client.fedora.UpdateConflictException;
+import org.dataconservancy.pass.model.Grant;
+import org.junit.Test;
+
+/**
+ * Tests bulk writes with {@code createResources}, {@code updateResources} and {@code deleteResources}
+ *
+ * @author Karen Hanson
+ */
+public class BulkWriteIT extends ClientITBase {
+
+    /* Create a batch, update it with one stale record, then delete it */
+    @Test
+    public void createUpdateDeleteTest() {
+        List<Grant> grants = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            grants.add(random(Grant.class, 1));
+        }
+
+        BulkResult<Integer, URI> created = client.createResources(grants);
+        created.getSuccesses().values().forEach(uri -> createdUris.put(uri, Grant.class));
+        assertFalse(created.hasFailures());
+        assertEquals(20, created.getSuccesses().size());
+
+        List<Grant> toUpdate = new ArrayList<>();
+        for (URI uri : created.getSuccesses().values()) {
+            Grant grant = client.readResource(uri, Grant.class);
+            grant.setAwardNumber("bulk-" + uri.hashCode());
+            toUpdate.add(grant);
+        }
+
+        Grant stale = toUpdate.get(0);
+        Grant changed = client.readResource(stale.getId(), Grant.class);
+        changed.setAwardNumber("changed-elsewhere");
+        client.updateResource(changed);
+
+        BulkResult<URI, Void> updated = client.updateResources(toUpdate);
+        assertEquals(19, updated.getSuccesses().size());
+        assertEquals(1, updated.getConflicts().size());
+        assertTrue(updated.getConflicts().get(stale.getId()) instanceof UpdateConflictException);
+        assertTrue(updated.getFailures().isEmpty());
+
+        for (Grant grant : toUpdate.subList(1, toUpdate.size())) {
+            assertEquals(grant.getAwardNumber(), client.readResource(grant.getId(), Grant.class).getAwardNumber());
+        }
+
+        URI missing = URI.create(stale.getId().toString() + "-missing");
+        List<URI> toDelete = new ArrayList<>(created.getSuccesses().values());
+        toDelete.add(missing);
+
+        BulkResult<URI, Void> deleted = client.deleteResources(toDelete);
+        assertEquals(20, deleted.getSuccesses().size());
+        assertTrue(deleted.getFailures().containsKey(missing));
+        deleted.getSuccesses().keySet().forEach(createdUris::remove);
+    }
+
+}
@@ -130,7 +130,8 @@ public abstract class ClientITBase {
     }
 
     /**
-     * Deletes resources listed in createdUris map, then waits for confirmation from indexer that they are processed
+     * Deletes resources listed in createdUris map, then waits for confirmation from indexer that they are processed,
+     * then closes the client
      * @throws InterruptedException
      */
     @After
@@ -152,6 +153,8 @@ public abstract class ClientITBase {
             }
         } catch (Exception ex) {
             fail("Could not clean up from test, this may interfere with results of other tests");
+        } finally {
+            client.close();
         }
     }
     
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.dataconservancy.pass.client.PassClient;
+import org.dataconservancy.pass.client.PassClientFactory;
+import org.dataconservancy.pass.model.Grant;
+import org.junit.Test;
+
+/**
+ * Tests that a single client, sharing its index connection pool, can be used concurrently and then closed
+ *
+ * @author Karen Hanson
+ */
+public class ClientLifecycleIT extends ClientITBase {
+
+    /* Many concurrent lookups through one client should all succeed */
+    @Test
+    public void concurrentFindTest() throws Exception {
+        Grant grant = random(Grant.class, 1);
+        URI uri = client.createResource(grant);
+        createdUris.put(uri, Grant.class);
+
+        attempt(RETRIES, () -> assertNotNull(client.findByAttribute(Grant.class, "@id", uri)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Callable<URI>> lookups = IntStream.range(0, 100)
+                    .mapToObj(i -> (Callable<URI>) () -> client.findByAttribute(Grant.class, "@id", uri))
+                    .collect(Collectors.toList());
+            for (Future<URI> found : executor.invokeAll(lookups)) {
+                assertEquals(uri, found.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /* A closed client should refuse further lookups */
+    @Test(expected = IllegalStateException.class)
+    public void closedClientTest() {
+        try (PassClient closeable = PassClientFactory.getPassClient()) {
+            closeable.findAllByAttribute(Grant.class, "awardNumber", "closed-client");
+            closeable.close();
+            closeable.findAllByAttribute(Grant.class, "awardNumber", "closed-client");
+        }
+    }
+
+}
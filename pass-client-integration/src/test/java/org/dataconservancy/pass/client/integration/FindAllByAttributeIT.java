@@ -17,9 +17,16 @@ package org.dataconservancy.pass.client.integration;
 
 import java.net.URI;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
 import org.dataconservancy.pass.model.Deposit;
 import org.junit.Test;
 
@@ -176,4 +183,50 @@ public class FindAllByAttributeIT extends ClientITBase {
         fail ("Test should have thrown exception");
     }
     
+    /**
+     * Resolves several values in one lookup, using a small chunk size so that more than one query is needed, and
+     * checks each value is mapped to the records holding it, including on a multi-valued field
+     */
+    @Test
+    public void testFindAllByAttributeIn() throws Exception {
+        String prefix = "in-" + System.currentTimeMillis() + "-";
+        List<String> localKeys = new ArrayList<String>();
+        Map<String, URI> grants = new HashMap<String, URI>();
+        for (int i = 0; i < 5; i++) {
+            Grant grant = random(Grant.class, 1);
+            grant.setLocalKey(prefix + i);
+            URI uri = client.createResource(grant);
+            createdUris.put(uri, Grant.class);
+            localKeys.add(prefix + i);
+            grants.put(prefix + i, uri);
+        }
+        
+        User user = random(User.class, 1);
+        user.setLocatorIds(Arrays.asList(prefix + "jhed", prefix + "employeeid"));
+        URI userId = client.createResource(user);
+        createdUris.put(userId, User.class);
+
+        attempt(RETRIES, () -> {
+            assertEquals(userId, client.findByAttribute(User.class, "@id", userId));
+            assertEquals(grants.get(prefix + 4), client.findByAttribute(Grant.class, "localKey", prefix + 4));
+        });
+
+        List<String> requested = new ArrayList<String>(localKeys);
+        requested.add(prefix + "nomatch");
+        try (ElasticsearchPassClient indexClient = new ElasticsearchPassClient()) {
+            Map<Object, Set<URI>> matches = indexClient.findAllByAttributeIn(Grant.class, "localKey", requested, 2);
+            assertEquals(requested, new ArrayList<Object>(matches.keySet()));
+            for (String localKey : localKeys) {
+                assertEquals(Collections.singleton(grants.get(localKey)), matches.get(localKey));
+            }
+            assertTrue(matches.get(prefix + "nomatch").isEmpty());
+        }
+
+        Map<Object, Set<URI>> users = client.findAllByAttributeIn(User.class, "locatorIds", 
+                Arrays.asList(prefix + "jhed", prefix + "employeeid", prefix + "hopkinsid"));
+        assertEquals(Collections.singleton(userId), users.get(prefix + "jhed"));
+        assertEquals(Collections.singleton(userId), users.get(prefix + "employeeid"));
+        assertTrue(users.get(prefix + "hopkinsid").isEmpty());
+    }
+    
 }
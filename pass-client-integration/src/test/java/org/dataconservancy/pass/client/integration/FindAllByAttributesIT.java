@@ -19,12 +19,16 @@ import java.net.URI;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
+
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.Deposit.DepositStatus;
 import org.dataconservancy.pass.model.Grant;
@@ -188,6 +192,50 @@ public class FindAllByAttributesIT extends ClientITBase {
         matches = client.findAllByAttributes(Deposit.class, attribs, 4, 8);
         assertEquals(2, matches.size());
 
+        assertEquals(10, client.countByAttributes(Deposit.class, attribs));
+        assertEquals(10, client.countByAttribute(Deposit.class, "repository", repoUri));
+        assertEquals(0, client.countByAttribute(Deposit.class, "repository", new URI("fake:norepo")));
+
+    }
+    
+    
+    /**
+     * Adds 10 records, then streams them a few at a time to verify paging returns each record exactly once
+     * @throws Exception
+     */
+    @Test
+    public void testStreamAllByAttributes() throws Exception {
+        URI repoUri = new URI("fake:streamrepo");
+        
+        Map<String, Object> attribs = new HashMap<String, Object>();
+        attribs.put("depositStatus", DepositStatus.ACCEPTED);
+        attribs.put("repository", repoUri);
+        
+        Set<URI> created = new HashSet<URI>();
+        for(int i = 0; i < 10; i++){
+            Deposit deposit = random(Deposit.class, 2);
+            deposit.setDepositStatus(DepositStatus.ACCEPTED);
+            deposit.setRepository(repoUri);
+            URI uri = client.createResource(deposit);
+            createdUris.put(uri, Deposit.class);
+            created.add(uri);
+        }
+        
+        attempt(RETRIES, () -> { //make sure all are in the index
+            assertEquals(10, client.findAllByAttributes(Deposit.class, attribs).size());
+        }); 
+
+        try (ElasticsearchPassClient indexClient = new ElasticsearchPassClient()) {
+            List<URI> streamed = indexClient.streamAllByAttributes(Deposit.class, attribs, 3)
+                    .collect(Collectors.toList());
+            assertEquals(10, streamed.size());
+            assertEquals(created, new HashSet<URI>(streamed));
+
+            assertEquals(4, indexClient.streamAllByAttributes(Deposit.class, attribs, 3).limit(4).count());
+        }
+
+        assertEquals(created, client.streamAllByAttribute(Deposit.class, "repository", repoUri)
+                .collect(Collectors.toSet()));
     }
     
     
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import java.util.Set;
+
+import org.dataconservancy.pass.client.PassQuery;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Grant.AwardStatus;
+import org.dataconservancy.pass.model.User;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+/**
+ * Tests for PassClient find methods that take a {@link PassQuery}
+ * @author Karen Hanson
+ */
+public class FindByQueryIT extends ClientITBase {
+
+    /**
+     * Ensures that term, terms, range, exists and not-exists clauses combine to match only the expected records
+     */
+    @Test
+    public void testClauses() {
+        String localKey = "query-" + System.currentTimeMillis();
+
+        Grant active = grant(localKey, AwardStatus.ACTIVE, new DateTime(2017, 6, 1, 0, 0, DateTimeZone.UTC));
+        Grant preAward = grant(localKey, AwardStatus.PRE_AWARD, new DateTime(2018, 6, 1, 0, 0, DateTimeZone.UTC));
+        Grant terminated = grant(localKey, AwardStatus.TERMINATED, new DateTime(2019, 6, 1, 0, 0, DateTimeZone.UTC));
+        Grant noStatus = grant(localKey, null, new DateTime(2018, 6, 1, 0, 0, DateTimeZone.UTC));
+
+        URI activeId = create(active);
+        URI preAwardId = create(preAward);
+        URI terminatedId = create(terminated);
+        URI noStatusId = create(noStatus);
+
+        attempt(RETRIES, () -> {
+            assertEquals(4, client.findAllByQuery(Grant.class, new PassQuery().term("localKey", localKey)).size());
+        });
+
+        Set<URI> uris = client.findAllByQuery(Grant.class, new PassQuery()
+                .term("localKey", localKey)
+                .terms("awardStatus", asList(AwardStatus.ACTIVE, AwardStatus.PRE_AWARD)));
+        assertEquals(2, uris.size());
+        assertTrue(uris.containsAll(asList(activeId, preAwardId)));
+
+        uris = client.findAllByQuery(Grant.class, new PassQuery()
+                .term("localKey", localKey)
+                .range("startDate", new DateTime(2018, 1, 1, 0, 0, DateTimeZone.UTC), null));
+        assertEquals(3, uris.size());
+        assertTrue(uris.containsAll(asList(preAwardId, terminatedId, noStatusId)));
+
+        uris = client.findAllByQuery(Grant.class, new PassQuery()
+                .term("localKey", localKey)
+                .range("startDate", new DateTime(2018, 1, 1, 0, 0, DateTimeZone.UTC),
+                        new DateTime(2018, 12, 31, 0, 0, DateTimeZone.UTC))
+                .exists("awardStatus"));
+        assertEquals(1, uris.size());
+        assertTrue(uris.contains(preAwardId));
+
+        assertEquals(noStatusId, client.findByQuery(Grant.class, new PassQuery()
+                .term("localKey", localKey)
+                .notExists("awardStatus")));
+
+        assertEquals(2, client.findAllByQuery(Grant.class, new PassQuery().term("localKey", localKey), 2, 0).size());
+        assertEquals(4, client.streamAllByQuery(Grant.class, new PassQuery().term("localKey", localKey)).count());
+        assertEquals(3, client.countByQuery(Grant.class, new PassQuery().term("localKey", localKey).exists("awardStatus")));
+    }
+
+    /**
+     * Ensures that values are matched exactly, so quotes and query syntax need no escaping
+     */
+    @Test
+    public void testSpecialCharacters() {
+        User user = new User();
+        user.setFirstName("Mary-Ann");
+        user.setLastName("Schäfer");
+        user.setDisplayName("Mary \"The Shark\" Schäfer (AND) OR *");
+        user.setAffiliation("Lamar & Schäfer Laboratory, Nürnberg");
+        URI userId = create(user);
+
+        attempt(RETRIES, () -> {
+            assertEquals(userId, client.findByQuery(User.class, new PassQuery().term("@id", userId)));
+        });
+
+        assertEquals(userId, client.findByQuery(User.class, new PassQuery()
+                .term("displayName", user.getDisplayName())
+                .term("affiliation", user.getAffiliation())));
+
+        assertNull(client.findByQuery(User.class, new PassQuery()
+                .term("@id", userId)
+                .term("displayName", "Mary \"The Shark\"")));
+
+        assertEquals(singleton(userId), client.findAllByQuery(User.class, new PassQuery()
+                .term("lastName", user.getLastName())
+                .term("@id", userId)));
+    }
+
+    /**
+     * Ensures that invalid queries are rejected before reaching the index
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyQuery() {
+        client.findAllByQuery(Grant.class, new PassQuery());
+    }
+
+    private Grant grant(String localKey, AwardStatus status, DateTime startDate) {
+        Grant grant = random(Grant.class, 1);
+        grant.setLocalKey(localKey);
+        grant.setAwardStatus(status);
+        grant.setStartDate(startDate);
+        return grant;
+    }
+
+    private URI create(Grant grant) {
+        URI uri = client.createResource(grant);
+        createdUris.put(uri, Grant.class);
+        return uri;
+    }
+
+    private URI create(User user) {
+        URI uri = client.createResource(user);
+        createdUris.put(uri, User.class);
+        return uri;
+    }
+
+}
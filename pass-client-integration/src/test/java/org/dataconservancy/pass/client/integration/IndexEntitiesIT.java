@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.dataconservancy.pass.client.BulkResult;
+import org.dataconservancy.pass.model.Grant;
+import org.junit.Test;
+
+/**
+ * Tests for PassClient methods that build entities from the index
+ * @author Karen Hanson
+ */
+public class IndexEntitiesIT extends ClientITBase {
+
+    /**
+     * Ensures entities built from the index match those in the repository, and that verification against the
+     * repository picks up changes not yet indexed and drops deleted entities
+     */
+    @Test
+    public void testFindAllEntitiesByAttributes() throws Exception {
+        String localKey = "entities-" + System.currentTimeMillis();
+        Grant grant1 = grant(localKey);
+        Grant grant2 = grant(localKey);
+        Map<String, Object> attributes = singletonMap("localKey", localKey);
+
+        attempt(RETRIES, () -> {
+            assertEquals(2, client.findAllByAttributes(Grant.class, attributes).size());
+        });
+
+        List<Grant> entities = client.findAllEntitiesByAttributes(Grant.class, attributes, 10, 0);
+        assertEquals(2, entities.size());
+        for (Grant entity : entities) {
+            Grant expected = entity.getId().equals(grant1.getId()) ? grant1 : grant2;
+            assertEquals(expected, entity);
+            assertNull(entity.getVersionTag());
+        }
+
+        //changes are seen straight away when verified, whether or not they have been indexed
+        Grant updated = client.readResource(grant1.getId(), Grant.class);
+        updated.setAwardNumber("updated-" + localKey);
+        client.updateResource(updated);
+        client.deleteResource(grant2.getId());
+        createdUris.remove(grant2.getId());
+
+        List<Grant> verified = client.findAllEntitiesByAttributes(Grant.class, attributes, 10, 0, true);
+        assertEquals(1, verified.size());
+        for (Grant entity : verified) {
+            assertEquals(grant1.getId(), entity.getId());
+            assertEquals("updated-" + localKey, entity.getAwardNumber());
+            assertNotNull(entity.getVersionTag());
+        }
+    }
+
+    /**
+     * Ensures streaming entities from the index pages through every match exactly once
+     */
+    @Test
+    public void testStreamAllEntitiesByAttributes() throws Exception {
+        String localKey = "entities-" + System.currentTimeMillis();
+        Grant grant1 = grant(localKey);
+        Grant grant2 = grant(localKey);
+        Grant grant3 = grant(localKey);
+        Map<String, Object> attributes = singletonMap("localKey", localKey);
+
+        attempt(RETRIES, () -> {
+            assertEquals(3, client.findAllByAttributes(Grant.class, attributes).size());
+        });
+
+        List<Grant> entities = client.streamAllEntitiesByAttributes(Grant.class, attributes)
+                .collect(Collectors.toList());
+        assertEquals(3, entities.size());
+        assertTrue(entities.containsAll(asList(grant1, grant2, grant3)));
+    }
+
+    /**
+     * Ensures entities can be read from the index by URI, and URIs not in the index are reported as failures
+     */
+    @Test
+    public void testReadResourcesFromIndex() throws Exception {
+        Grant grant1 = grant("entities-" + System.currentTimeMillis());
+        Grant grant2 = grant("entities-" + System.currentTimeMillis());
+        URI missing = new URI(grant1.getId() + "-missing");
+
+        attempt(RETRIES, () -> {
+            assertEquals(2, client.readResourcesFromIndex(asList(grant1.getId(), grant2.getId()), Grant.class)
+                    .getSuccesses().size());
+        });
+
+        BulkResult<URI, Grant> result = client.readResourcesFromIndex(
+                asList(grant1.getId(), missing, grant2.getId()), Grant.class);
+        assertEquals(grant1, result.getSuccesses().get(grant1.getId()));
+        assertEquals(grant2, result.getSuccesses().get(grant2.getId()));
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().containsKey(missing));
+    }
+
+    private Grant grant(String localKey) {
+        Grant grant = random(Grant.class, 1);
+        grant.setLocalKey(localKey);
+        URI uri = client.createResource(grant);
+        createdUris.put(uri, Grant.class);
+        return client.readResource(uri, Grant.class);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.net.URI;
+
+import org.dataconservancy.pass.client.PassClientDefault;
+import org.dataconservancy.pass.client.elasticsearch.InMemoryIndexResultCache;
+import org.dataconservancy.pass.model.Grant;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests findBy lookups through an {@link InMemoryIndexResultCache}
+ *
+ * @author Karen Hanson
+ */
+public class IndexResultCacheIT extends ClientITBase {
+
+    private final InMemoryIndexResultCache cache = new InMemoryIndexResultCache(100, 60000, 0);
+
+    private final PassClientDefault cachingClient = new PassClientDefault().resultCache(cache);
+
+    @After
+    public void closeCachingClient() {
+        cachingClient.close();
+    }
+
+    /* Repeat lookups are answered from the cache until the client writes an entity of the same type */
+    @Test
+    public void lookupAndInvalidateTest() {
+        Grant grant = random(Grant.class, 1);
+        URI uri = cachingClient.createResource(grant);
+        createdUris.put(uri, Grant.class);
+
+        /* no match until indexed, and no match is not cached */
+        URI found = attempt(RETRIES, () -> {
+            URI match = cachingClient.findByAttribute(Grant.class, "localKey", grant.getLocalKey());
+            assertNotNull(match);
+            return match;
+        });
+        assertEquals(uri, found);
+        long misses = cache.getMisses();
+
+        assertEquals(uri, cachingClient.findByAttribute(Grant.class, "localKey", grant.getLocalKey()));
+        assertEquals(uri, cachingClient.findByAttribute(Grant.class, "localKey", grant.getLocalKey()));
+        assertEquals(2, cache.getHits());
+        assertEquals(misses, cache.getMisses());
+
+        Grant updated = cachingClient.readResource(uri, Grant.class);
+        updated.setAwardNumber("invalidates-grants");
+        cachingClient.updateResource(updated);
+
+        assertEquals(uri, cachingClient.findByAttribute(Grant.class, "localKey", grant.getLocalKey()));
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+
+import org.dataconservancy.pass.client.PassClientDefault;
+import org.dataconservancy.pass.client.fedora.EntityCache;
+import org.dataconservancy.pass.model.Grant;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests reads through an {@link EntityCache}, revalidated against Fedora
+ *
+ * @author Karen Hanson
+ */
+public class ReadCacheIT extends ClientITBase {
+
+    private final PassClientDefault cachingClient = new PassClientDefault().readCache(new EntityCache());
+
+    @After
+    public void closeCachingClient() {
+        cachingClient.close();
+    }
+
+    /* Repeat reads of an unchanged resource are answered from the cache, changes are picked up */
+    @Test
+    public void revalidationTest() {
+        Grant grant = random(Grant.class, 1);
+        URI uri = client.createResource(grant);
+        createdUris.put(uri, Grant.class);
+        EntityCache cache = cachingClient.getReadCache();
+
+        Grant first = cachingClient.readResource(uri, Grant.class);
+        Grant second = cachingClient.readResource(uri, Grant.class);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(first.getAwardNumber(), second.getAwardNumber());
+        assertEquals(first.getVersionTag(), second.getVersionTag());
+
+        /* changed by another client, so revalidation must fetch the new version */
+        Grant elsewhere = client.readResource(uri, Grant.class);
+        elsewhere.setAwardNumber("changed-elsewhere");
+        client.updateResource(elsewhere);
+
+        Grant third = cachingClient.readResource(uri, Grant.class);
+        assertEquals("changed-elsewhere", third.getAwardNumber());
+        assertEquals(2, cache.getRevalidations());
+        assertEquals(1, cache.getHits());
+
+        /* changed through the caching client, so the entry is dropped */
+        third.setAwardNumber("changed-here");
+        cachingClient.updateResource(third);
+        assertEquals(0, cache.size());
+        assertEquals("changed-here", cachingClient.readResource(uri, Grant.class).getAwardNumber());
+        assertEquals(2, cache.getMisses());
+    }
+
+}
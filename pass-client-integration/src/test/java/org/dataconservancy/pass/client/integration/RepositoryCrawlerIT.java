@@ -25,7 +25,12 @@ import static org.junit.Assert.assertTrue;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.dataconservancy.pass.client.PassClient;
@@ -76,6 +81,28 @@ public class RepositoryCrawlerIT extends ClientITBase {
         assertTrue(found.contains(submission));
     }
 
+    // A parallel crawl should find the same resources as a serial one
+    @Test
+    public void parallelCrawlTest() throws Exception {
+        final RepositoryCrawler serial = new RepositoryCrawler();
+        final RepositoryCrawler parallel = new RepositoryCrawler(new ForkJoinPool(4), true);
+
+        PASS_TYPES.stream()
+                .map(cls -> random(cls, 2))
+                .forEach(e -> add(e, client));
+
+        final List<URI> serialFound = new ArrayList<>();
+        final int serialCount = serial.visit(URI.create(FedoraConfig.getBaseUrl()), serialFound::add,
+                IGNORE_CONTAINERS, depth(2).or(SKIP_ACLS));
+
+        final Set<URI> parallelFound = ConcurrentHashMap.newKeySet();
+        final int parallelCount = parallel.visit(URI.create(FedoraConfig.getBaseUrl()), parallelFound::add,
+                IGNORE_CONTAINERS, depth(2).or(SKIP_ACLS));
+
+        assertEquals(serialCount, parallelCount);
+        assertEquals(new HashSet<>(serialFound), parallelFound);
+    }
+
     // Verifies that the high-level client API for processing all resources works.
     @Test
     public void processAllTest() {
@@ -117,6 +144,33 @@ public class RepositoryCrawlerIT extends ClientITBase {
         assertEquals(1, visited.size() - preExisting.size());
     }
 
+    // Verifies that streaming all resources finds the same resources as processing them, and can stop early.
+    @Test
+    public void streamAllTest() {
+        final PassClient client = PassClientFactory.getPassClient();
+
+        final List<URI> created = PASS_TYPES.stream()
+                .map(cls -> random(cls, 2))
+                .map(e -> add(e, client))
+                .collect(Collectors.toList());
+
+        final List<URI> visited = new ArrayList<>();
+        client.processAllEntities(visited::add);
+
+        final List<URI> streamed = client.streamAllEntities(null).collect(Collectors.toList());
+        assertEquals(visited, streamed);
+        assertTrue(streamed.containsAll(created));
+
+        assertEquals(2, client.streamAllEntities(null).limit(2).count());
+
+        final Iterator<URI> submissions = client.iterateAllEntities(Submission.class);
+        final Set<URI> iterated = new HashSet<>();
+        submissions.forEachRemaining(iterated::add);
+        assertTrue(iterated.stream().allMatch(uri -> uri.getPath().contains("/submissions/")));
+        assertEquals(new HashSet<>(client.streamAllEntities(Submission.class).collect(Collectors.toList())),
+                iterated);
+    }
+
     private <T extends PassEntity> URI add(T entity, PassClient client) {
         final URI added = client.createResource(entity);
         createdUris.put(added, entity.getClass());
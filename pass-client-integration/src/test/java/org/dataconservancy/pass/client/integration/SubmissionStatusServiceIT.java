@@ -90,7 +90,7 @@ public class SubmissionStatusServiceIT extends ClientITBase {
         URI subEvent2Id = client.createResource(subEvent2);
         this.createdUris.put(subEvent2Id, SubmissionEvent.class);
 
-        SubmissionStatusService service = new SubmissionStatusService();
+        SubmissionStatusService service = new SubmissionStatusService(client);
         SubmissionStatus newStatus = service.calculateAndUpdateSubmissionStatus(submissionId);
         //check correct value returned
         assertEquals(SubmissionStatus.CANCELLED, newStatus);
@@ -135,7 +135,7 @@ public class SubmissionStatusServiceIT extends ClientITBase {
         final URI subEvent2Id = client.createResource(subEvent2);
         this.createdUris.put(subEvent2Id, SubmissionEvent.class);
 
-        SubmissionStatusService service = new SubmissionStatusService();
+        SubmissionStatusService service = new SubmissionStatusService(client);
         SubmissionStatus newStatus = service.calculateAndUpdateSubmissionStatus(submissionId);
         //check correct value returned
         assertEquals(SubmissionStatus.APPROVAL_REQUESTED, newStatus);
@@ -182,7 +182,7 @@ public class SubmissionStatusServiceIT extends ClientITBase {
         URI subEvent2Id = client.createResource(subEvent2);
         this.createdUris.put(subEvent2Id, SubmissionEvent.class);
         
-        SubmissionStatusService service = new SubmissionStatusService();
+        SubmissionStatusService service = new SubmissionStatusService(client);
         //this time we set override to true
         SubmissionStatus newStatus = service.calculateAndUpdateSubmissionStatus(submissionId, true);
         //check correct value returned
@@ -229,7 +229,7 @@ public class SubmissionStatusServiceIT extends ClientITBase {
         URI deposit2Id = client.createResource(deposit1);
         this.createdUris.put(deposit2Id, Deposit.class);
         
-        SubmissionStatusService service = new SubmissionStatusService();
+        SubmissionStatusService service = new SubmissionStatusService(client);
         //this time we set override to true
         SubmissionStatus newStatus = service.calculateAndUpdateSubmissionStatus(submissionId);
         //check correct value returned
@@ -293,7 +293,7 @@ public class SubmissionStatusServiceIT extends ClientITBase {
         URI repoCopy2Id = client.createResource(repoCopy2);
         this.createdUris.put(repoCopy2Id, RepositoryCopy.class);
         
-        SubmissionStatusService service = new SubmissionStatusService();
+        SubmissionStatusService service = new SubmissionStatusService(client);
         //this time we won't update Submission record, just return the value
         SubmissionStatus newStatus = service.calculateSubmissionStatus(submissionId);
         assertEquals(SubmissionStatus.COMPLETE, newStatus);
@@ -350,7 +350,7 @@ public class SubmissionStatusServiceIT extends ClientITBase {
         URI repoCopy1Id = client.createResource(repoCopy1);
         this.createdUris.put(repoCopy1Id, RepositoryCopy.class);
 
-        SubmissionStatusService service = new SubmissionStatusService();
+        SubmissionStatusService service = new SubmissionStatusService(client);
         SubmissionStatus newStatus = service.calculateAndUpdateSubmissionStatus(submissionId);
         assertEquals(SubmissionStatus.NEEDS_ATTENTION, newStatus);
         
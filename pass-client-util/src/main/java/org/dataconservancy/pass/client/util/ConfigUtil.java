@@ -16,11 +16,16 @@
 
 package org.dataconservancy.pass.client.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * @author Karen Hanson
  */
 public class ConfigUtil {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigUtil.class);
+
     /**
      * Retrieve property from a system property or renvironment variable or set to default
      * <p>
@@ -41,6 +46,28 @@ public class ConfigUtil {
         return System.getProperty(key, System.getenv().getOrDefault(toEnvName(key), defaultValue));
     }
 
+    /**
+     * Retrieve an integer setting that must be greater than zero, as {@link #getSystemProperty(String, String)}
+     * does, falling back to the default if the value is missing or invalid
+     * @param key property key
+     * @param defaultValue value to use if the property is not set or invalid
+     * @return the integer value
+     */
+    public static Integer getPositiveInteger(String key, Integer defaultValue) {
+        Integer value = defaultValue;
+        try {
+            value = Integer.parseInt(getSystemProperty(key, defaultValue.toString()));
+            if (value < 1) {
+                LOG.warn("Value of {} must be greater than zero, using default of {}", key, defaultValue);
+                value = defaultValue;
+            }
+        } catch (NumberFormatException e) {
+            LOG.warn("Value of {} could not be converted to an Integer, using default of {}", key, defaultValue);
+        }
+        LOG.debug("Using {} of: {}", key, value);
+        return value;
+    }
+
     static String toEnvName(String name) {
         return name.toUpperCase().replace('.', '_');
     }
@@ -60,4 +60,20 @@ public class ConfigUtilTest {
 
         assertEquals(VALUE, ConfigUtil.getSystemProperty(KEY, null));
     }
+
+    @Test
+    public void getPositiveIntegerTest() {
+        final String KEY = "test" + "." + testName.getMethodName();
+
+        assertEquals(Integer.valueOf(5), ConfigUtil.getPositiveInteger(KEY, 5));
+
+        System.setProperty(KEY, "12");
+        assertEquals(Integer.valueOf(12), ConfigUtil.getPositiveInteger(KEY, 5));
+
+        System.setProperty(KEY, "0");
+        assertEquals(Integer.valueOf(5), ConfigUtil.getPositiveInteger(KEY, 5));
+
+        System.setProperty(KEY, "twelve");
+        assertEquals(Integer.valueOf(5), ConfigUtil.getPositiveInteger(KEY, 5));
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.io.InputStream;
+
+import java.net.URI;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchConfig;
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
+import org.dataconservancy.pass.client.fedora.FedoraPassCrudClient;
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * Creates instances of objects needed to perform AsyncPassClient requirements, and redirects to appropriate
+ * service (Index client or CRUD client)
+ * @author Karen Hanson
+ */
+public class AsyncPassClientDefault implements AsyncPassClient {
+
+    /**
+     * Client that interacts with Fedora repo to carry out CRUD operations
+     */
+    private FedoraPassCrudClient crudClient;
+
+    /**
+     * Client that interacts with Index repo to do lookups and searches
+     */
+    private ElasticsearchPassClient indexClient;
+
+    /**
+     * Create a default async pass client, with default configuration.
+     */
+    public AsyncPassClientDefault() {
+        crudClient = new FedoraPassCrudClient();
+        indexClient = new ElasticsearchPassClient();
+    }
+
+    /**
+     * Sets option to overwrite (PUT) when updating instead of the default PATCH.
+     * @param overwriteOnUpdate - set to true to use PUT as update type
+     * @return this client
+     */
+    public AsyncPassClientDefault overWriteOnUpdate(boolean overwriteOnUpdate) {
+        this.crudClient.overwriteOnUpdate(overwriteOnUpdate);
+        return this;
+    }
+
+    /**
+     * Sets the metrics every request to the repository and the index is timed and counted in, tagged by operation,
+     * entity type and HTTP status. By default nothing is recorded.
+     * @param metrics - the metrics, e.g. an {@link InMemoryPassClientMetrics}, or {@code null} to record nothing
+     * @return this client
+     */
+    public AsyncPassClientDefault metrics(PassClientMetrics metrics) {
+        this.crudClient.metrics(metrics);
+        this.indexClient.metrics(metrics);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<URI> createResource(PassEntity modelObj) {
+        return crudClient.createResourceAsync(modelObj);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<T> createAndReadResource(T modelObj, Class<T> modelClass) {
+        return crudClient.createAndReadResourceAsync(modelObj, modelClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> updateResource(PassEntity modelObj) {
+        return crudClient.updateResourceAsync(modelObj);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<T> updateAndReadResource(T modelObj, Class<T> modelClass) {
+        return crudClient.updateAndReadResourceAsync(modelObj, modelClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Void> deleteResource(URI uri) {
+        return crudClient.deleteResourceAsync(uri);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<T> readResource(URI uri, Class<T> modelClass) {
+        return crudClient.readResourceAsync(uri, modelClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<URI> findByAttribute(Class<T> modelClass, String attribute, Object value) {
+        return indexClient.findByAttributeAsync(modelClass, attribute, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttribute(Class<T> modelClass, String attribute, Object value) {
+        return findAllByAttribute(modelClass, attribute, value, ElasticsearchConfig.getIndexerLimit(), 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttribute(Class<T> modelClass, String attribute, Object value, int limit, int offset) {
+        return indexClient.findAllByAttributeAsync(modelClass, attribute, value, limit, offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return findAllByAttributes(modelClass, valueAttributesMap, ElasticsearchConfig.getIndexerLimit(), 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        return indexClient.findAllByAttributesAsync(modelClass, valueAttributesMap, limit, offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Map<String, Collection<URI>>> getIncoming(URI passEntity) {
+        return crudClient.getIncomingAsync(passEntity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<URI> upload(URI entityUri, InputStream content) {
+        return upload(entityUri, content, Collections.emptyMap());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<URI> upload(URI entityUri, InputStream content, Map<String, ?> params) {
+        return crudClient.uploadAsync(entityUri, content, params);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        try {
+            indexClient.close();
+        } finally {
+            crudClient.close();
+        }
+    }
+
+}
@@ -19,15 +19,24 @@ import java.io.InputStream;
 
 import java.net.URI;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
+import org.dataconservancy.pass.client.elasticsearch.IndexResultCache;
+import org.dataconservancy.pass.client.fedora.ContainerTypes;
+import org.dataconservancy.pass.client.fedora.EntityCache;
+import org.dataconservancy.pass.client.fedora.FedoraConfig;
 import org.dataconservancy.pass.client.fedora.FedoraPassCrudClient;
 import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+import org.fcrepo.client.FcrepoOperationFailedException;
 
 /**
  * Creates instances of objects needed to perform PassClient requirements, and redirects to appropriate
@@ -45,7 +54,12 @@ public class PassClientDefault implements PassClient {
      * Client that interacts with Index repo to do lookups and searches 
      */
     private ElasticsearchPassClient indexClient;
-        
+
+    /**
+     * Works out the type of a resource deleted by URI, so that cached index results of that type are invalidated
+     */
+    private final ContainerTypes containerTypes = new ContainerTypes(FedoraConfig.getBaseUrl());
+
     /** 
      * Create a default pass client, with default configuration.
      */
@@ -53,6 +67,16 @@ public class PassClientDefault implements PassClient {
         crudClient = new FedoraPassCrudClient();
         indexClient = new ElasticsearchPassClient();
     }
+
+    /**
+     * Create a pass client from the clients provided, e.g. so that tests can supply a stand-in for either
+     * @param crudClient client for the repository
+     * @param indexClient client for the index
+     */
+    PassClientDefault(FedoraPassCrudClient crudClient, ElasticsearchPassClient indexClient) {
+        this.crudClient = crudClient;
+        this.indexClient = indexClient;
+    }
     
     /**
      * Sets option to overwrite (PUT) when updating instead of the default PATCH.
@@ -64,17 +88,87 @@ public class PassClientDefault implements PassClient {
         return this;
     }
     
+    /**
+     * Sets the maximum number of requests a bulk operation, such as {@code readResources} or 
+     * {@code createResources}, will have in flight at once. Defaults to the {@code pass.fedora.bulk.concurrency} setting.
+     * @param concurrency - maximum number of concurrent requests, must be greater than zero
+     * @return this client
+     */
+    public PassClientDefault bulkConcurrency(int concurrency) {
+        this.crudClient.bulkConcurrency(concurrency);
+        return this;
+    }
+    
+    /**
+     * Sets the cache used when reading resources, replacing any cache configured by the {@code pass.fedora.cache.*}
+     * settings. Cached entities are revalidated against the repository on every read.
+     * @param cache - the cache, or {@code null} to turn caching off
+     * @return this client
+     */
+    public PassClientDefault readCache(EntityCache cache) {
+        this.crudClient.readCache(cache);
+        return this;
+    }
+
+    /**
+     * Gets the cache used when reading resources, e.g. to inspect its hit and miss counts.
+     * @return the cache, or {@code null} if caching is off
+     */
+    public EntityCache getReadCache() {
+        return this.crudClient.getReadCache();
+    }
+    
+    /**
+     * Sets the cache used for {@code findByAttribute}, {@code findAllByAttribute} and {@code findAllByAttributes} 
+     * lookups, replacing any cache configured by the {@code pass.elasticsearch.cache.*} settings. Cached results 
+     * for a type are dropped whenever this client creates, updates or deletes an entity of that type.
+     * @param cache - the cache, or {@code null} to turn caching off
+     * @return this client
+     */
+    public PassClientDefault resultCache(IndexResultCache cache) {
+        this.indexClient.resultCache(cache);
+        return this;
+    }
+
+    /**
+     * Gets the cache used for index lookups.
+     * @return the cache, or {@code null} if caching is off
+     */
+    public IndexResultCache getResultCache() {
+        return this.indexClient.getResultCache();
+    }
+
+    /**
+     * Sets the metrics every request to the repository and the index is timed and counted in, tagged by operation,
+     * entity type and HTTP status. By default nothing is recorded.
+     * @param metrics - the metrics, e.g. an {@link InMemoryPassClientMetrics}, or {@code null} to record nothing
+     * @return this client
+     */
+    public PassClientDefault metrics(PassClientMetrics metrics) {
+        this.crudClient.metrics(metrics);
+        this.indexClient.metrics(metrics);
+        return this;
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public URI createResource(PassEntity modelObj) {
-        return crudClient.createResource(modelObj);
+        try {
+            return crudClient.createResource(modelObj);
+        } finally {
+            indexClient.invalidate(modelObj.getClass());
+        }
     }
 
     @Override
     public <T extends PassEntity> T createAndReadResource(T modelObj, Class<T> modelClass) {
-        return crudClient.createAndReadResource(modelObj, modelClass);
+        try {
+            return crudClient.createAndReadResource(modelObj, modelClass);
+        } finally {
+            indexClient.invalidate(modelObj.getClass());
+        }
     }
 
     /**
@@ -82,12 +176,20 @@ public class PassClientDefault implements PassClient {
      */
     @Override
     public void updateResource(PassEntity modelObj) {
-        crudClient.updateResource(modelObj);
+        try {
+            crudClient.updateResource(modelObj);
+        } finally {
+            indexClient.invalidate(modelObj.getClass());
+        }
     }
 
     @Override
     public <T extends PassEntity> T updateAndReadResource(T modelObj, Class<T> modelClass) {
-        return crudClient.updateAndReadResource(modelObj, modelClass);
+        try {
+            return crudClient.updateAndReadResource(modelObj, modelClass);
+        } finally {
+            indexClient.invalidate(modelObj.getClass());
+        }
     }
 
     /**
@@ -95,7 +197,11 @@ public class PassClientDefault implements PassClient {
      */
     @Override
     public void deleteResource(URI modelObj) {
-        crudClient.deleteResource(modelObj);
+        try {
+            crudClient.deleteResource(modelObj);
+        } finally {
+            indexClient.invalidate(entityClass(modelObj));
+        }
     }
 
     /**
@@ -106,11 +212,73 @@ public class PassClientDefault implements PassClient {
         return crudClient.readResource(uri, modelClass);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> BulkResult<URI, T> readResources(Collection<URI> uris, Class<T> modelClass) {
+        return crudClient.readResources(uris, modelClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<URI, PassEntity> readResources(Map<URI, Class<? extends PassEntity>> uriClasses) {
+        return crudClient.readResources(uriClasses);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> BulkResult<Integer, URI> createResources(List<T> modelObjs) {
+        try {
+            return crudClient.createResources(modelObjs);
+        } finally {
+            modelObjs.stream().map(PassEntity::getClass).distinct().forEach(indexClient::invalidate);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> BulkResult<URI, Void> updateResources(List<T> modelObjs) {
+        try {
+            return crudClient.updateResources(modelObjs);
+        } finally {
+            modelObjs.stream().map(PassEntity::getClass).distinct().forEach(indexClient::invalidate);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<URI, Void> deleteResources(Collection<URI> uris) {
+        try {
+            return crudClient.deleteResources(uris);
+        } finally {
+            uris.stream().map(this::entityClass).distinct().forEach(indexClient::invalidate);
+        }
+    }
+
     @Override
     public Map<String, Collection<URI>> getIncoming(URI passEntity) {
         return crudClient.getIncoming(passEntity);
     }
 
+    @Override
+    public Collection<URI> getIncoming(URI passEntity, String field) {
+        return crudClient.getIncoming(passEntity, field);
+    }
+
+    @Override
+    public int processIncoming(URI passEntity, String field, Consumer<URI> processor) {
+        return crudClient.processIncoming(passEntity, field, processor);
+    }
+
     @Override
     public URI upload(URI entityUri, InputStream content) {
         return upload(entityUri, content, Collections.emptyMap());
@@ -164,6 +332,121 @@ public class PassClientDefault implements PassClient {
         return indexClient.findAllByAttributes(modelClass, valueAttributesMap, limit, offset);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Stream<URI> streamAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap) {
+        return indexClient.streamAllByAttributes(modelClass, attributeValuesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> long countByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap) {
+        return indexClient.countByAttributes(modelClass, attributeValuesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> long countByQuery(Class<T> modelClass, PassQuery query) {
+        return indexClient.countByQuery(modelClass, query);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Integer, Set<URI>> findAll(List<PassLookup> lookups) {
+        return indexClient.findAll(lookups);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Map<Object, Set<URI>> findAllByAttributeIn(Class<T> modelClass, String attribute, Collection<?> values) {
+        return indexClient.findAllByAttributeIn(modelClass, attribute, values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset, boolean verify) {
+        List<T> entities = indexClient.findAllEntitiesByAttributes(modelClass, attributeValuesMap, limit, offset);
+        if (!verify || entities.isEmpty()) {
+            return entities;
+        }
+
+        List<URI> uris = new ArrayList<>(entities.size());
+        entities.forEach(entity -> uris.add(entity.getId()));
+        BulkResult<URI, T> current = crudClient.readResources(uris, modelClass);
+
+        List<T> verified = new ArrayList<>(entities.size());
+        for (URI uri : uris) {
+            T entity = current.getSuccesses().get(uri);
+            if (entity != null) {
+                verified.add(entity);
+            } else if (!isGone(current.getFailures().get(uri))) {
+                throw new RuntimeException(String.format("Could not verify %s against the repository", uri), 
+                        current.getFailures().get(uri));
+            }
+        }
+        return verified;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Stream<T> streamAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap) {
+        return indexClient.streamAllEntitiesByAttributes(modelClass, attributeValuesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> BulkResult<URI, T> readResourcesFromIndex(Collection<URI> uris, Class<T> modelClass) {
+        return indexClient.readResourcesFromIndex(uris, modelClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> URI findByQuery(Class<T> modelClass, PassQuery query) {
+        return indexClient.findByQuery(modelClass, query);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Set<URI> findAllByQuery(Class<T> modelClass, PassQuery query) {
+        return indexClient.findAllByQuery(modelClass, query);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Set<URI> findAllByQuery(Class<T> modelClass, PassQuery query, int limit, int offset) {
+        return indexClient.findAllByQuery(modelClass, query, limit, offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Stream<URI> streamAllByQuery(Class<T> modelClass, PassQuery query) {
+        return indexClient.streamAllByQuery(modelClass, query);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -171,4 +454,59 @@ public class PassClientDefault implements PassClient {
     public <T extends PassEntity> int processAllEntities(Consumer<URI> processor, Class<T> modelClass) {
         return crudClient.processAllEntities(processor, modelClass);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Stream<URI> streamAllEntities(Class<T> modelClass) {
+        return crudClient.streamAllEntities(modelClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        try {
+            indexClient.close();
+        } finally {
+            crudClient.close();
+        }
+    }
+
+    /**
+     * Determine whether a read failed because the resource is no longer in the repository
+     * @param failure cause of the failed read
+     * @return {@code true} if the repository reported the resource as not found or gone
+     */
+    private static boolean isGone(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FcrepoOperationFailedException) {
+                int status = ((FcrepoOperationFailedException) cause).getStatusCode();
+                return status == 404 || status == 410;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determine the type of a resource from the container its URI is in
+     * @param uri resource URI
+     * @return the PASS entity class, or {@code null} if the URI is not in a known container
+     */
+    @SuppressWarnings("unchecked")
+    private Class<? extends PassEntity> entityClass(URI uri) {
+        PassEntityType type = containerTypes.typeOf(uri);
+        if (type == null) {
+            return null;
+        }
+        try {
+            return (Class<? extends PassEntity>) Class.forName(
+                    PassEntity.class.getPackage().getName() + "." + type.getName());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
 }
@@ -52,4 +52,29 @@ public class PassClientFactory {
         return new PassClientDefault().overWriteOnUpdate(overwriteOnUpdate);
     }
 
+    /**
+     * Provide an instance of an AsyncPassClient, whose methods return immediately with a
+     * {@link java.util.concurrent.CompletableFuture} rather than blocking until the request completes.
+     * <p>
+     * Defaults to overwriteOnUpdate = false.
+     * </p>
+     *
+     * @return async PASS client
+     */
+    public static AsyncPassClient getAsyncPassClient() {
+        return new AsyncPassClientDefault();
+    }
+
+    /**
+     * Provide an instance of an AsyncPassClient, using a provided update policy.
+     *
+     * @see #getPassClient(boolean)
+     * @param overwriteOnUpdate - true if you would like updates to completely overwrite the record, false if you
+     *        would like only fields that have changed to be updated
+     * @return async PASS client
+     */
+    public static AsyncPassClient getAsyncPassClient(boolean overwriteOnUpdate) {
+        return new AsyncPassClientDefault().overWriteOnUpdate(overwriteOnUpdate);
+    }
+
 }
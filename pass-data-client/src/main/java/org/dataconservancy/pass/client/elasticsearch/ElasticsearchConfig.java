@@ -39,6 +39,42 @@ public class ElasticsearchConfig {
     private static final String INDEXER_LIMIT_KEY = "pass.elasticsearch.limit";
     private static final Integer DEFAULT_INDEXER_LIMIT = 200;
 
+    private static final String PAGE_SIZE_KEY = "pass.elasticsearch.pagesize";
+    private static final Integer DEFAULT_PAGE_SIZE = 500;
+
+    private static final String TERMS_CHUNK_SIZE_KEY = "pass.elasticsearch.terms.chunksize";
+    private static final Integer DEFAULT_TERMS_CHUNK_SIZE = 1000;
+
+    private static final String MAX_CONNECTIONS_KEY = "pass.elasticsearch.http.maxconnections";
+    private static final Integer DEFAULT_MAX_CONNECTIONS = 30;
+
+    private static final String MAX_CONNECTIONS_PER_ROUTE_KEY = "pass.elasticsearch.http.maxconnectionsperroute";
+    private static final Integer DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    private static final String CONNECT_TIMEOUT_KEY = "pass.elasticsearch.http.connecttimeout";
+    private static final Integer DEFAULT_CONNECT_TIMEOUT = 1000;
+
+    private static final String SOCKET_TIMEOUT_KEY = "pass.elasticsearch.http.sockettimeout";
+    private static final Integer DEFAULT_SOCKET_TIMEOUT = 30000;
+
+    private static final String KEEP_ALIVE_KEY = "pass.elasticsearch.http.keepalive";
+    private static final Integer DEFAULT_KEEP_ALIVE = 60000;
+
+    private static final String CACHE_ENABLED_KEY = "pass.elasticsearch.cache.enabled";
+    private static final String DEFAULT_CACHE_ENABLED = "false";
+
+    private static final String CACHE_MAX_ENTRIES_KEY = "pass.elasticsearch.cache.maxentries";
+    private static final Integer DEFAULT_CACHE_MAX_ENTRIES = 10000;
+
+    private static final String CACHE_TTL_KEY = "pass.elasticsearch.cache.ttl";
+    private static final Integer DEFAULT_CACHE_TTL = 5 * 60 * 1000;
+
+    private static final String CACHE_NEGATIVE_TTL_KEY = "pass.elasticsearch.cache.negativettl";
+    private static final Integer DEFAULT_CACHE_NEGATIVE_TTL = 0;
+
+    private static final String CACHE_SETTLE_KEY = "pass.elasticsearch.cache.settle";
+    private static final Integer DEFAULT_CACHE_SETTLE = 1000;
+
     
     /**
      * Get indexer URL(s), defaults to DEFAULT_INDEXER_URL if one not set
@@ -85,5 +121,122 @@ public class ElasticsearchConfig {
         return limit;
     }
 
-    
+    /**
+     * Number of records fetched per request when streaming search results, defaults to DEFAULT_PAGE_SIZE. This is 
+     * independent of the indexer limit, as a stream is not limited in length.
+     * @return page size
+     */
+    public static Integer getPageSize() {
+        return ConfigUtil.getPositiveInteger(PAGE_SIZE_KEY, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Maximum number of values sent in each query of a multi-value lookup, defaults to DEFAULT_TERMS_CHUNK_SIZE
+     * @return terms chunk size
+     */
+    public static Integer getTermsChunkSize() {
+        return ConfigUtil.getPositiveInteger(TERMS_CHUNK_SIZE_KEY, DEFAULT_TERMS_CHUNK_SIZE);
+    }
+
+    /**
+     * Maximum number of pooled connections to the indexer across all hosts, defaults to DEFAULT_MAX_CONNECTIONS
+     * @return max connections
+     */
+    public static Integer getMaxConnections() {
+        return ConfigUtil.getPositiveInteger(MAX_CONNECTIONS_KEY, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * Maximum number of pooled connections to each indexer host, defaults to DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+     * @return max connections per host
+     */
+    public static Integer getMaxConnectionsPerRoute() {
+        return ConfigUtil.getPositiveInteger(MAX_CONNECTIONS_PER_ROUTE_KEY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    /**
+     * Time in milliseconds allowed to establish a connection to the indexer, defaults to DEFAULT_CONNECT_TIMEOUT
+     * @return connect timeout in milliseconds
+     */
+    public static Integer getConnectTimeout() {
+        return ConfigUtil.getPositiveInteger(CONNECT_TIMEOUT_KEY, DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Time in milliseconds allowed between packets of a response from the indexer, defaults to 
+     * DEFAULT_SOCKET_TIMEOUT
+     * @return socket timeout in milliseconds
+     */
+    public static Integer getSocketTimeout() {
+        return ConfigUtil.getPositiveInteger(SOCKET_TIMEOUT_KEY, DEFAULT_SOCKET_TIMEOUT);
+    }
+
+    /**
+     * Time in milliseconds an idle pooled connection to the indexer is kept open, defaults to DEFAULT_KEEP_ALIVE
+     * @return keep-alive in milliseconds
+     */
+    public static Integer getKeepAlive() {
+        return ConfigUtil.getPositiveInteger(KEEP_ALIVE_KEY, DEFAULT_KEEP_ALIVE);
+    }
+
+    /**
+     * Whether index lookup results should be held in an {@link InMemoryIndexResultCache}, defaults to false
+     * @return true if the result cache is enabled
+     */
+    public static boolean getCacheEnabled() {
+        boolean enabled = Boolean.parseBoolean(ConfigUtil.getSystemProperty(CACHE_ENABLED_KEY, DEFAULT_CACHE_ENABLED));
+        LOG.debug("Index result cache enabled: {}", enabled);
+        return enabled;
+    }
+
+    /**
+     * Maximum number of lookup results held in the result cache, defaults to DEFAULT_CACHE_MAX_ENTRIES
+     * @return max cache entries
+     */
+    public static Integer getCacheMaxEntries() {
+        return ConfigUtil.getPositiveInteger(CACHE_MAX_ENTRIES_KEY, DEFAULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * Time in milliseconds a lookup result is held in the result cache, defaults to DEFAULT_CACHE_TTL
+     * @return cache time-to-live in milliseconds
+     */
+    public static Integer getCacheTtl() {
+        return ConfigUtil.getPositiveInteger(CACHE_TTL_KEY, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * Time in milliseconds a lookup that matched nothing is held in the result cache, defaults to 
+     * DEFAULT_CACHE_NEGATIVE_TTL. 0 means lookups that matched nothing are not cached.
+     * @return negative cache time-to-live in milliseconds
+     */
+    public static Integer getCacheNegativeTtl() {
+        return getNonNegativeInteger(CACHE_NEGATIVE_TTL_KEY, DEFAULT_CACHE_NEGATIVE_TTL);
+    }
+
+    /**
+     * Time in milliseconds after an entity type is written during which lookups of that type are not cached, 
+     * defaults to DEFAULT_CACHE_SETTLE. Should be at least the index's refresh interval. 0 means lookups are cached 
+     * straight after a write.
+     * @return settle window in milliseconds
+     */
+    public static Integer getCacheSettle() {
+        return getNonNegativeInteger(CACHE_SETTLE_KEY, DEFAULT_CACHE_SETTLE);
+    }
+
+    private static Integer getNonNegativeInteger(String key, Integer defaultValue) {
+        Integer value = defaultValue;
+        try {
+            value = Integer.parseInt(ConfigUtil.getSystemProperty(key, defaultValue.toString()));
+            if (value < 0) {
+                LOG.warn("Value of {} cannot be negative, using default of {}", key, defaultValue);
+                value = defaultValue;
+            }
+        } catch (NumberFormatException e) {
+            LOG.warn("Value of {} could not be converted to an Integer, using default of {}", key, defaultValue);
+        }
+        LOG.debug("Using {} of: {}", key, value);
+        return value;
+    }
+
 }
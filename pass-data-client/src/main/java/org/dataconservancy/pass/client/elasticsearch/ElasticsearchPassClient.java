@@ -17,67 +17,123 @@ package org.dataconservancy.pass.client.elasticsearch;
 
 import static java.lang.String.format;
 import static java.lang.String.join;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 
+import java.io.IOException;
+
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import org.apache.http.HttpHost;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.lucene.util.BytesRef;
 
+import org.dataconservancy.pass.client.BulkResult;
+import org.dataconservancy.pass.client.PassClientMetrics;
+import org.dataconservancy.pass.client.PassClientMetrics.Backend;
+import org.dataconservancy.pass.client.PassClientMetrics.Operation;
+import org.dataconservancy.pass.client.PassLookup;
+import org.dataconservancy.pass.client.PassJsonAdapter;
+import org.dataconservancy.pass.client.PassQuery;
+import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.client.util.DaemonThreadFactory;
 import org.dataconservancy.pass.model.PassEntity;
 import org.dataconservancy.pass.model.PassEntityType;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
-import org.elasticsearch.index.query.Operator;
-import org.elasticsearch.index.query.QueryStringQueryBuilder;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Communicates with elasticsearch
+ * Communicates with elasticsearch.
+ * <p>
+ * A single underlying {@link RestHighLevelClient}, with its connection pool and I/O threads, is created on first 
+ * use and shared by all requests made through this client. It is thread-safe, and should be closed once it is no 
+ * longer needed.
+ * </p>
  * @author Karen Hanson
  */
-public class ElasticsearchPassClient {
+public class ElasticsearchPassClient implements AutoCloseable {
 
 
     private static final Logger LOG = LoggerFactory.getLogger(ElasticsearchPassClient.class);
     
+    private static final String TYPE_FIELDNAME = "@type";
+    
+    private static final String ID_FIELDNAME = "@id";
+
+    private static final String[] ID_FIELDS = {ID_FIELDNAME};
+
+    private static final JsonFactory JSON = new JsonFactory();
+
     /**
-     * Template for a search attribute e.g. AND fldname:"something"
+     * URL(s) of indexer
      */
-    private static final String QS_ATTRIB_TEMPLATE  = " AND %s:\"%s\"";
-    
+    private final HttpHost[] hosts;
+
     /**
-     * Template for a query string e.g. (@type:Submission AND fldname:"something")
-     * where the second %s could be one or more QS_ATTRIB_TEMPLATES
+     * Shared client, created on first use
      */
-    private static final String QS_TEMPLATE = "(@type:%s %s)";
+    private volatile RestHighLevelClient client;
 
-    private static final String EXISTS_TEMPLATE = "_exists_:%s";
+    private boolean closed = false;
 
-    private static final String NOT_EXISTS_TEMPLATE = "-" + EXISTS_TEMPLATE;
+    /**
+     * Converts the source of index records to PASS entities
+     */
+    private final PassJsonAdapter adapter = new PassJsonAdapterBasic();
 
-    private static final String QS_ATTRIB_NOT_EXISTS_TEMPLATE = "AND " + NOT_EXISTS_TEMPLATE;
-    
-    private static final String ID_FIELDNAME = "@id";
+    /**
+     * Optional cache of lookup results, {@code null} if caching is off
+     */
+    private volatile IndexResultCache cache = ElasticsearchConfig.getCacheEnabled() 
+            ? new InMemoryIndexResultCache() : null;
 
     /**
-     * URL(s) of indexer
+     * Receives the timing of each request made to the index
      */
-    private final HttpHost[] hosts;
+    private volatile PassClientMetrics metrics = PassClientMetrics.NOOP;
         
     /** 
      * Default constructor for PASS client
@@ -93,6 +149,83 @@ public class ElasticsearchPassClient {
         }
         
     }
+
+    /**
+     * Support passing in of an existing elasticsearch client, which will be closed when this client is closed
+     * @param client elasticsearch client
+     */
+    public ElasticsearchPassClient(RestHighLevelClient client) {
+        if (client == null) {
+            throw new IllegalArgumentException("client parameter cannot be null");
+        }
+        this.hosts = new HttpHost[0];
+        this.client = client;
+    }
+
+    /**
+     * Set the cache used for synchronous lookups, replacing any cache configured by 
+     * {@code pass.elasticsearch.cache.*}
+     * @param cache the cache, or {@code null} to turn caching off
+     * @return this client
+     */
+    public ElasticsearchPassClient resultCache(IndexResultCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Set the metrics each request to the index is recorded in
+     * @param metrics the metrics, or {@code null} to record nothing
+     * @return this client
+     */
+    public ElasticsearchPassClient metrics(PassClientMetrics metrics) {
+        this.metrics = metrics != null ? metrics : PassClientMetrics.NOOP;
+        return this;
+    }
+
+    /**
+     * Get the cache used for synchronous lookups
+     * @return the cache, or {@code null} if caching is off
+     */
+    public IndexResultCache getResultCache() {
+        return cache;
+    }
+
+    /**
+     * Drop any cached lookup results for a type, because an entity of that type was written
+     * @param modelClass the PASS entity class, or {@code null} if the type is unknown, in which case all cached 
+     *        results are dropped and every type is invalidated
+     */
+    public void invalidate(Class<? extends PassEntity> modelClass) {
+        IndexResultCache cache = this.cache;
+        if (cache != null) {
+            if (modelClass != null) {
+                cache.invalidate(modelClass);
+            } else {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Close the underlying elasticsearch client, releasing its connections and threads. The client cannot be used 
+     * once closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (client != null) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close index client", e);
+            }
+            client = null;
+        }
+    }
     
     /**
      * @see org.dataconservancy.pass.client.PassClient#findByAttribute(Class, String, Object)
@@ -104,39 +237,32 @@ public class ElasticsearchPassClient {
      * @param <T> PASS entity type
      */
     public <T extends PassEntity> URI findByAttribute(Class<T> modelClass, String attribute, Object value) {
-        validateModelParam(modelClass);
-        validateAttribValParams(attribute, value, true);
-                
-        String indexType = null;
-        
-        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
-            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
-        }
+        Map<String, Object> attributes = singletonMap(attribute, value);
+        QueryBuilder query = toQuery(modelClass, attributesQuery(attributes));
+        //get 2 so we can check only one result matched
+        Set<URI> passEntityUris = getIndexerResults(new IndexResultCache.Key(modelClass, attributes, 2, 0), type(modelClass), query, 2, 0);
+        return singleResult(attribute + " = " + value, passEntityUris);
+    }
 
-        String attribs = null;
-        if (value != null) {
-            attribs = String.format(QS_ATTRIB_TEMPLATE, attribute, value.toString());
-        } else {
-            attribs = String.format(QS_ATTRIB_NOT_EXISTS_TEMPLATE, attribute);
-        }
-        String querystring = String.format(QS_TEMPLATE, indexType, attribs);
-             
-        Set<URI> passEntityUris = getIndexerResults(querystring, 2, 0); //get 2 so we can check only one result matched
-        if (passEntityUris.size()>1) {
-            throw new RuntimeException(
-                    format("More than one results was returned by this query (%s = %s). " + 
-                            "findByAttribute() searches should match only one result.  Instead found:\n %s", 
-                            attribute, value, 
-                            join("\n", passEntityUris.stream().map(URI::toString).collect(toList()))));
-        }
-        URI passEntityUri = null;
-        if (passEntityUris.size()>0) {
-            passEntityUri = passEntityUris.iterator().next();
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#findByAttribute(Class, String, Object)
+     *
+     * @param modelClass modelClass
+     * @param attribute attribute
+     * @param value value
+     * @return future URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<URI> findByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        try {
+            QueryBuilder query = toQuery(modelClass, attributesQuery(singletonMap(attribute, value)));
+            return getIndexerResultsAsync(type(modelClass), query, 2, 0)
+                    .thenApply(passEntityUris -> singleResult(attribute + " = " + value, passEntityUris));
+        } catch (RuntimeException e) {
+            return failed(e);
         }
-        return passEntityUri;
     }
 
-        
     /**
      * @see org.dataconservancy.pass.client.PassClient#findAllByAttribute(Class, String, Object)
      * 
@@ -163,26 +289,23 @@ public class ElasticsearchPassClient {
      * @param <T> PASS entity type
      */
     public <T extends PassEntity> Set<URI> findAllByAttribute(Class<T> modelClass, String attribute, Object value, int limit, int offset) {
-        validateModelParam(modelClass);
-        validateAttribValParams(attribute, value, true);
         validLimitOffsetParams(limit, offset);
-                
-        String indexType = null;
-        
-        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
-            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
-        }
+        return findAllByAttributes(modelClass, singletonMap(attribute, value), limit, offset);
+    }
 
-        String attribs = null;
-        if (value != null) {
-            attribs = String.format(QS_ATTRIB_TEMPLATE, attribute, value.toString());
-        } else {
-            attribs = String.format(NOT_EXISTS_TEMPLATE, attribute);
-        }
-        String querystring = String.format(QS_TEMPLATE, indexType, attribs);                
-        Set<URI> passEntityUris = getIndexerResults(querystring, limit, offset);
-        
-        return passEntityUris;
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#findAllByAttribute(Class, String, Object, int, int)
+     *
+     * @param modelClass modelClass
+     * @param attribute attribute
+     * @param value value
+     * @param limit limit
+     * @param offset offset
+     * @return future Set of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value, int limit, int offset) {
+        return findAllByAttributesAsync(modelClass, singletonMap(attribute, value), limit, offset);
     }
 
     
@@ -210,76 +333,918 @@ public class ElasticsearchPassClient {
      * @param <T> PASS entity type
      */
     public <T extends PassEntity> Set<URI> findAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
-        validateModelParam(modelClass);
-        validateAttribMapParam(valueAttributesMap);
         validLimitOffsetParams(limit, offset);
-        
-        LOG.debug("Searching for {} using multiple filters", modelClass.getSimpleName());
-        
-        String indexType = null;
-        
-        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
-            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
+        QueryBuilder query = toQuery(modelClass, attributesQuery(valueAttributesMap));
+        return getIndexerResults(new IndexResultCache.Key(modelClass, valueAttributesMap, limit, offset), type(modelClass), query,
+                limit, offset);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#findAllByAttributes(Class, Map, int, int)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @param limit limit
+     * @param offset offset
+     * @return future Set of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        try {
+            validLimitOffsetParams(limit, offset);
+            QueryBuilder query = toQuery(modelClass, attributesQuery(valueAttributesMap));
+            return getIndexerResultsAsync(type(modelClass), query, limit, offset);
+        } catch (RuntimeException e) {
+            return failed(e);
         }
-        
-        StringBuilder attribs = new StringBuilder("");
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#streamAllByAttributes(Class, Map)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @return Stream of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return streamAllByAttributes(modelClass, valueAttributesMap, ElasticsearchConfig.getPageSize());
+    }
+
+    /**
+     * Lazily stream all records matching the attributes provided, fetching {@code pageSize} records at a time. 
+     * Results are sorted by ID and paged using {@code search_after}, so each page costs the same regardless of how 
+     * deep into the results it is, and there is no limit on the number of results. A page is only requested once 
+     * the stream has consumed the previous one. Results are never cached.
+     * @see org.dataconservancy.pass.client.PassClient#streamAllByAttributes(Class, Map)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @param pageSize number of records to fetch per request
+     * @return Stream of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int pageSize) {
+        return streamAllByQuery(modelClass, attributesQuery(valueAttributesMap), pageSize);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findByQuery(Class, PassQuery)
+     *
+     * @param modelClass modelClass
+     * @param query query
+     * @return URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> URI findByQuery(Class<T> modelClass, PassQuery query) {
+        QueryBuilder compiled = toQuery(modelClass, query);
+        //get 2 so we can check only one result matched
+        Set<URI> passEntityUris = getIndexerResults(new IndexResultCache.Key(modelClass, query, 2, 0), type(modelClass), compiled, 2, 0);
+        return singleResult(query.toString(), passEntityUris);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByQuery(Class, PassQuery)
+     *
+     * @param modelClass modelClass
+     * @param query query
+     * @return Set of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Set<URI> findAllByQuery(Class<T> modelClass, PassQuery query) {
+        return findAllByQuery(modelClass, query, ElasticsearchConfig.getIndexerLimit(), 0);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByQuery(Class, PassQuery, int, int)
+     *
+     * @param modelClass modelClass
+     * @param query query
+     * @param limit limit
+     * @param offset offset
+     * @return Set of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Set<URI> findAllByQuery(Class<T> modelClass, PassQuery query, int limit, int offset) {
+        validLimitOffsetParams(limit, offset);
+        QueryBuilder compiled = toQuery(modelClass, query);
+        return getIndexerResults(new IndexResultCache.Key(modelClass, query, limit, offset), type(modelClass), compiled,
+                limit, offset);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#streamAllByQuery(Class, PassQuery)
+     *
+     * @param modelClass modelClass
+     * @param query query
+     * @return Stream of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllByQuery(Class<T> modelClass, PassQuery query) {
+        return streamAllByQuery(modelClass, query, ElasticsearchConfig.getPageSize());
+    }
+
+    /**
+     * Lazily stream all records matching the query, fetching {@code pageSize} records at a time, as described for 
+     * {@link #streamAllByAttributes(Class, Map, int)}
+     * @see org.dataconservancy.pass.client.PassClient#streamAllByQuery(Class, PassQuery)
+     *
+     * @param modelClass modelClass
+     * @param query query
+     * @param pageSize number of records to fetch per request
+     * @return Stream of URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllByQuery(Class<T> modelClass, PassQuery query, int pageSize) {
+        if (pageSize < 1) {throw new IllegalArgumentException("The page size must be greater than 0");}
+        QueryBuilder compiled = toQuery(modelClass, query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PagingIterator(type(modelClass), compiled, ID_FIELDS, pageSize),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .map(ElasticsearchPassClient::uncheckedEntityUri);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#countByAttributes(Class, Map)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @return number of matching records
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> long countByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return count(type(modelClass), toQuery(modelClass, attributesQuery(valueAttributesMap)));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#countByQuery(Class, PassQuery)
+     *
+     * @param modelClass modelClass
+     * @param query query
+     * @return number of matching records
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> long countByQuery(Class<T> modelClass, PassQuery query) {
+        return count(type(modelClass), toQuery(modelClass, query));
+    }
+
+    /**
+     * Retrieve one page of the entities matching the attributes provided, deserialized from the source of the 
+     * records in the index, with one request per call. Pages are selected by offset without a sort, so paging 
+     * through a large result set may skip or repeat records and cannot go past the index's result window; use 
+     * {@link #streamAllEntitiesByAttributes(Class, Map, int)} to walk all of the matches. Results are never cached. 
+     * The entities are as last indexed, so may be stale, and have no version tag.
+     * @see org.dataconservancy.pass.client.PassClient#findAllEntitiesByAttributes(Class, Map, int, int)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @param limit limit
+     * @param offset offset
+     * @return List of PASS entities
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        validLimitOffsetParams(limit, offset);
+        QueryBuilder query = toQuery(modelClass, attributesQuery(valueAttributesMap));
+
+        SearchHit[] hits;
+        try {
+            hits = search(type(modelClass), searchRequest(query, null, limit, offset)).getHits().getHits();
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing the query: %s", query), e);
+        }
+
+        List<T> entities = new ArrayList<>(hits.length);
+        for (SearchHit hit : hits) {
+            entities.add(entity(hit, modelClass));
+        }
+        return entities;
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#streamAllEntitiesByAttributes(Class, Map)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @return Stream of PASS entities
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<T> streamAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return streamAllEntitiesByAttributes(modelClass, valueAttributesMap, ElasticsearchConfig.getPageSize());
+    }
+
+    /**
+     * Lazily stream all entities matching the attributes provided, deserialized from the source of the records in 
+     * the index and fetched {@code pageSize} at a time. Results are sorted by ID and paged using 
+     * {@code search_after}, as described for {@link #streamAllByAttributes(Class, Map, int)}, so no record is 
+     * skipped or repeated between pages. Results are never cached. The entities are as last indexed, so may be 
+     * stale, and have no version tag.
+     * @see org.dataconservancy.pass.client.PassClient#streamAllEntitiesByAttributes(Class, Map)
+     *
+     * @param modelClass modelClass
+     * @param valueAttributesMap valueAttributesMap
+     * @param pageSize number of records to fetch per request
+     * @return Stream of PASS entities
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<T> streamAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int pageSize) {
+        if (pageSize < 1) {throw new IllegalArgumentException("The page size must be greater than 0");}
+        QueryBuilder query = toQuery(modelClass, attributesQuery(valueAttributesMap));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PagingIterator(type(modelClass), query, null, pageSize),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .map(hit -> entity(hit, modelClass));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#readResourcesFromIndex(Collection, Class)
+     *
+     * @param uris uris
+     * @param modelClass modelClass
+     * @return bulk result
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<URI, T> readResourcesFromIndex(Collection<URI> uris, Class<T> modelClass) {
+        return readResourcesFromIndex(uris, modelClass, ElasticsearchConfig.getTermsChunkSize());
+    }
+
+    /**
+     * Retrieve the entities with the URIs provided, deserialized from the source of the records in the index. The 
+     * URIs are sent {@code chunkSize} at a time as {@code terms} queries on the ID, and the results of each are paged
+     * using {@code search_after}. A chunk that fails does not fail the others. Results are never cached. The 
+     * entities are as last indexed, so may be stale, and have no version tag.
+     * @see org.dataconservancy.pass.client.PassClient#readResourcesFromIndex(Collection, Class)
+     *
+     * @param uris uris
+     * @param modelClass modelClass
+     * @param chunkSize maximum number of URIs per query
+     * @return bulk result
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<URI, T> readResourcesFromIndex(Collection<URI> uris, Class<T> modelClass, int chunkSize) {
+        validateModelParam(modelClass);
+        if (chunkSize < 1) {throw new IllegalArgumentException("The chunk size must be greater than 0");}
+        if (uris == null) {throw new IllegalArgumentException("uris cannot be null");}
+        if (uris.contains(null)) {throw new IllegalArgumentException("uris cannot contain null");}
+
+        Map<URI, Object> outcomes = new LinkedHashMap<>();
+        List<URI> ids = new ArrayList<>(new LinkedHashSet<>(uris));
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<URI> chunk = ids.subList(start, Math.min(ids.size(), start + chunkSize));
+            QueryBuilder query = toQuery(modelClass, new PassQuery().terms(ID_FIELDNAME, chunk));
+            LOG.debug("Reading {} {} records from the index", chunk.size(), modelClass.getSimpleName());
+            try {
+                Iterator<SearchHit> hits = new PagingIterator(type(modelClass), query, null, ElasticsearchConfig.getPageSize());
+                while (hits.hasNext()) {
+                    SearchHit hit = hits.next();
+                    URI uri = uncheckedEntityUri(hit);
+                    try {
+                        outcomes.put(uri, entity(hit, modelClass));
+                    } catch (Exception e) {
+                        outcomes.put(uri, e);
+                    }
+                }
+            } catch (Exception e) {
+                chunk.forEach(uri -> outcomes.putIfAbsent(uri, e));
+            }
+        }
+
+        BulkResult<URI, T> result = new BulkResult<>();
+        for (URI uri : ids) {
+            Object outcome = outcomes.get(uri);
+            if (outcome == null) {
+                result.addFailure(uri, new RuntimeException(
+                        String.format("No %s with ID %s was found in the index", modelClass.getSimpleName(), uri)));
+            } else if (outcome instanceof Exception) {
+                result.addFailure(uri, (Exception) outcome);
+            } else {
+                result.addSuccess(uri, modelClass.cast(outcome));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count the records matching a query with a search that returns no hits, only the total
+     */
+    private long count(PassEntityType type, QueryBuilder query) {
+        try {
+            return search(type, searchRequest(query, 0, 0)).getHits().getTotalHits();
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing the query: %s", query), e);
+        }
+    }
+
+    /**
+     * Run a batch of lookups as a single multi-search request. Lookups answered by the result cache are not sent,
+     * and the results of those that are sent are cached.
+     * @see org.dataconservancy.pass.client.PassClient#findAll(List)
+     *
+     * @param lookups lookups
+     * @return result of each lookup, keyed by its position in the list
+     */
+    public BulkResult<Integer, Set<URI>> findAll(List<PassLookup> lookups) {
+        if (lookups == null) {throw new IllegalArgumentException("lookups cannot be null");}
+
+        IndexResultCache cache = this.cache;
+        Object[] outcomes = new Object[lookups.size()];
+        IndexResultCache.Key[] keys = new IndexResultCache.Key[lookups.size()];
+        long[] tokens = new long[lookups.size()];
+        List<Integer> sent = new ArrayList<>();
+        MultiSearchRequest multiSearch = new MultiSearchRequest();
+
+        for (int i = 0; i < lookups.size(); i++) {
+            try {
+                PassLookup lookup = lookups.get(i);
+                if (lookup == null) {throw new IllegalArgumentException("lookup cannot be null");}
+                int limit = lookup.getLimit() != null ? lookup.getLimit() : ElasticsearchConfig.getIndexerLimit();
+                validLimitOffsetParams(limit, lookup.getOffset());
+                QueryBuilder query = lookup.getQuery() != null 
+                        ? toQuery(lookup.getModelClass(), lookup.getQuery()) 
+                        : toQuery(lookup.getModelClass(), attributesQuery(lookup.getAttributes()));
+
+                if (cache != null) {
+                    keys[i] = lookup.getQuery() != null 
+                            ? new IndexResultCache.Key(lookup.getModelClass(), lookup.getQuery(), limit, lookup.getOffset())
+                            : new IndexResultCache.Key(lookup.getModelClass(), lookup.getAttributes(), limit, lookup.getOffset());
+                    outcomes[i] = cache.get(keys[i]);
+                }
+                if (outcomes[i] == null) {
+                    if (cache != null) {
+                        tokens[i] = cache.begin(lookup.getModelClass());
+                    }
+                    multiSearch.add(searchRequest(query, limit, lookup.getOffset()));
+                    sent.add(i);
+                }
+            } catch (Exception e) {
+                outcomes[i] = e;
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            LOG.debug("Sending {} of {} lookups in one multi-search request", sent.size(), lookups.size());
+            RestHighLevelClient client = client();
+            MultiSearchResponse.Item[] items = null;
+            long start = System.nanoTime();
+            int status = PassClientMetrics.NO_STATUS;
+            try {
+                items = client.multiSearch(multiSearch).getResponses();
+                status = RestStatus.OK.getStatus();
+            } catch (Exception e) {
+                status = statusOf(e);
+                RuntimeException failure = new RuntimeException("An error occurred while processing a batch of lookups", e);
+                sent.forEach(i -> outcomes[i] = failure);
+            } finally {
+                //the lookups may be of several types
+                metrics.record(Backend.ELASTICSEARCH, Operation.FIND, null, status, System.nanoTime() - start);
+            }
+            for (int n = 0; items != null && n < sent.size(); n++) {
+                int i = sent.get(n);
+                if (items[n].isFailure()) {
+                    outcomes[i] = new RuntimeException(String.format("An error occurred while processing the lookup: %s", 
+                            lookups.get(i)), items[n].getFailure());
+                    continue;
+                }
+                try {
+                    Set<URI> passEntityUris = entityUris(items[n].getResponse());
+                    if (cache != null) {
+                        cache.put(keys[i], passEntityUris, tokens[i]);
+                    }
+                    outcomes[i] = passEntityUris;
+                } catch (URISyntaxException e) {
+                    outcomes[i] = new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
+                }
+            }
+        }
+
+        BulkResult<Integer, Set<URI>> result = new BulkResult<>();
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] instanceof Exception) {
+                result.addFailure(i, (Exception) outcomes[i]);
+            } else {
+                @SuppressWarnings("unchecked")
+                Set<URI> passEntityUris = (Set<URI>) outcomes[i];
+                result.addSuccess(i, passEntityUris);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByAttributeIn(Class, String, Collection)
+     *
+     * @param modelClass modelClass
+     * @param attribute attribute
+     * @param values values
+     * @return Map of each value to the URIs matching it
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Map<Object, Set<URI>> findAllByAttributeIn(Class<T> modelClass, String attribute, Collection<?> values) {
+        return findAllByAttributeIn(modelClass, attribute, values, ElasticsearchConfig.getTermsChunkSize());
+    }
+
+    /**
+     * Find records where an attribute matches any of a number of values, sending the values {@code chunkSize} at a 
+     * time as {@code terms} queries, and paging through the results of each using {@code search_after}. Results are
+     * never cached.
+     * @see org.dataconservancy.pass.client.PassClient#findAllByAttributeIn(Class, String, Collection)
+     *
+     * @param modelClass modelClass
+     * @param attribute attribute
+     * @param values values
+     * @param chunkSize maximum number of values per query
+     * @return Map of each value to the URIs matching it
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Map<Object, Set<URI>> findAllByAttributeIn(Class<T> modelClass, String attribute, Collection<?> values, int chunkSize) {
+        validateModelParam(modelClass);
+        if (chunkSize < 1) {throw new IllegalArgumentException("The chunk size must be greater than 0");}
+        if (values == null || values.isEmpty()) {throw new IllegalArgumentException("values cannot be empty");}
+        for (Object value : values) {
+            validateAttribValParams(attribute, value, false);
+        }
+
+        Map<Object, Set<URI>> matches = new LinkedHashMap<>();
+        Map<String, List<Object>> requested = new LinkedHashMap<>();
+        for (Object value : values) {
+            if (matches.put(value, new HashSet<>()) == null) {
+                requested.computeIfAbsent(value.toString(), string -> new ArrayList<>()).add(value);
+            }
+        }
+
+        String[] fields = {ID_FIELDNAME, attribute};
+        List<String> keys = new ArrayList<>(requested.keySet());
+        for (int start = 0; start < keys.size(); start += chunkSize) {
+            List<String> chunk = keys.subList(start, Math.min(keys.size(), start + chunkSize));
+            QueryBuilder query = toQuery(modelClass, new PassQuery().terms(attribute, chunk));
+            LOG.debug("Resolving {} values of {} for {}", chunk.size(), attribute, modelClass.getSimpleName());
+
+            Iterator<SearchHit> hits = new PagingIterator(type(modelClass), query, fields, ElasticsearchConfig.getPageSize());
+            while (hits.hasNext()) {
+                Map<String, Object> source = hits.next().getSourceAsMap();
+                URI uri = toUri(source.get(ID_FIELDNAME));
+                for (Object value : matchedValues(source.get(attribute), requested)) {
+                    matches.get(value).add(uri);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Convert an attribute lookup to a query, a {@code null} value matches records where the attribute does not exist
+     */
+    private PassQuery attributesQuery(Map<String, Object> valueAttributesMap) {
+        validateAttribMapParam(valueAttributesMap);
+        PassQuery query = new PassQuery();
         for(Entry<String,Object> attr : valueAttributesMap.entrySet()) {
             if (attr.getValue() != null) {
-                attribs.append(String.format(QS_ATTRIB_TEMPLATE, attr.getKey(), attr.getValue().toString()));
+                query.term(attr.getKey(), attr.getValue());
             } else {
-                attribs.append(String.format(QS_ATTRIB_NOT_EXISTS_TEMPLATE, attr.getKey()));
+                query.notExists(attr.getKey());
             }
         }
-        String querystring = String.format(QS_TEMPLATE, indexType, attribs);
-                
-        Set<URI> passEntityUris = getIndexerResults(querystring, limit, offset);
-        return passEntityUris;
+        return query;
+    }
+
+    /**
+     * Compile a query for a type to a bool query in filter context, so that it is neither scored nor parsed as 
+     * Lucene syntax, and its clauses can be cached by elasticsearch
+     */
+    private <T extends PassEntity> QueryBuilder toQuery(Class<T> modelClass, PassQuery query) {
+        validateModelParam(modelClass);
+        if (query == null || query.getClauses().isEmpty()) {
+            throw new IllegalArgumentException("query cannot be empty");
+        }
+
+        LOG.debug("Searching for {} matching {}", modelClass.getSimpleName(), query);
+
+        BoolQueryBuilder bool = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery(TYPE_FIELDNAME, indexType(modelClass)));
+        for (PassQuery.Clause clause : query.getClauses()) {
+            switch (clause.getType()) {
+            case TERM:
+                bool.filter(QueryBuilders.termQuery(clause.getAttribute(), clause.getValues().get(0)));
+                break;
+            case TERMS:
+                bool.filter(QueryBuilders.termsQuery(clause.getAttribute(), clause.getValues()));
+                break;
+            case RANGE:
+                bool.filter(QueryBuilders.rangeQuery(clause.getAttribute()).gte(clause.getFrom()).lte(clause.getTo()));
+                break;
+            case EXISTS:
+                bool.filter(QueryBuilders.existsQuery(clause.getAttribute()));
+                break;
+            case NOT_EXISTS:
+                bool.mustNot(QueryBuilders.existsQuery(clause.getAttribute()));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported query clause " + clause);
+            }
+        }
+        return bool;
+    }
+
+    private <T extends PassEntity> String indexType(Class<T> modelClass) {
+        String indexType = null;
+        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
+            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
+        }
+        return indexType;
+    }
+
+    /**
+     * Verify that a lookup matched at most one record, and return it
+     */
+    private URI singleResult(String query, Set<URI> passEntityUris) {
+        if (passEntityUris.size()>1) {
+            throw new RuntimeException(
+                    format("More than one results was returned by this query (%s). " + 
+                            "findByAttribute() searches should match only one result.  Instead found:\n %s", 
+                            query, 
+                            join("\n", passEntityUris.stream().map(URI::toString).collect(toList()))));
+        }
+        URI passEntityUri = null;
+        if (passEntityUris.size()>0) {
+            passEntityUri = passEntityUris.iterator().next();
+        }
+        return passEntityUri;
     }
     
     
+    /**
+     * Retrieve search results from the result cache, or from elasticsearch if they are not cached
+     * @param key
+     * @param query
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private Set<URI> getIndexerResults(IndexResultCache.Key key, PassEntityType type, QueryBuilder query, int limit,
+            int offset) {
+        IndexResultCache cache = this.cache;
+        if (cache == null) {
+            return getIndexerResults(type, query, limit, offset);
+        }
+
+        Set<URI> passEntityUris = cache.get(key);
+        if (passEntityUris == null) {
+            long token = cache.begin(key.getModelClass());
+            passEntityUris = getIndexerResults(type, query, limit, offset);
+            cache.put(key, passEntityUris, token);
+        } else {
+            LOG.debug("Using cached results for {}", key);
+        }
+        return passEntityUris;
+    }
+
     /**
      * Retrieve search results from elasticsearch
-     * @param querystring
+     * @param query
      * @param limit
      * @param offset
      * @return
      */
-    private Set<URI> getIndexerResults(String querystring, int limit, int offset) {
+    private Set<URI> getIndexerResults(PassEntityType type, QueryBuilder query, int limit, int offset) {
         
-        Set<URI> passEntityUris = new HashSet<URI>();
-        
-        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
-            
-            SearchRequest searchRequest = new SearchRequest(); 
-            SearchSourceBuilder sourceBuilder = new SearchSourceBuilder(); 
-            sourceBuilder.from(offset);
-            sourceBuilder.size(limit);
-
-            LOG.debug("Searching index using querystring: {}, with limit {} and offset {}", querystring,  limit, offset);
-            //(content:this OR name:this)
-            QueryStringQueryBuilder matchQueryBuilder = new QueryStringQueryBuilder(querystring);
-                        
-            matchQueryBuilder.defaultOperator(Operator.AND);
-            sourceBuilder.query(matchQueryBuilder);
-            searchRequest.source(sourceBuilder);
-            SearchResponse searchResponse = client.search(searchRequest);
-            SearchHits hits = searchResponse.getHits();
-            Iterator<SearchHit> hitsIt = hits.iterator();
-            
-            while (hitsIt.hasNext()){
-                String idField = hitsIt.next().getSourceAsMap().get(ID_FIELDNAME).toString();
-                passEntityUris.add(new URI(idField));
-            }
+        try {
+            SearchResponse searchResponse = search(type, searchRequest(query, limit, offset));
+            return entityUris(searchResponse);
         } catch (URISyntaxException e) {
             throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
         } catch (Exception e) {
-            throw new RuntimeException(String.format("An error occurred while processing the query: %s", querystring), e);
+            throw new RuntimeException(String.format("An error occurred while processing the query: %s", query), e);
         }
-            
-        return passEntityUris;
         
     }
+
+    /**
+     * Retrieve search results from elasticsearch without blocking the calling thread. 
+     * @param query
+     * @param limit
+     * @param offset
+     * @return future set of matching URIs
+     */
+    private CompletableFuture<Set<URI>> getIndexerResultsAsync(PassEntityType type, QueryBuilder query, int limit,
+            int offset) {
+        CompletableFuture<Set<URI>> future = new CompletableFuture<>();
+        long start = System.nanoTime();
+
+        client().searchAsync(searchRequest(query, limit, offset), new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(SearchResponse searchResponse) {
+                record(type, searchResponse.status().getStatus(), start);
+                try {
+                    future.complete(entityUris(searchResponse));
+                } catch (URISyntaxException e) {
+                    future.completeExceptionally(new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e));
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                record(type, statusOf(e), start);
+                future.completeExceptionally(new RuntimeException(String.format("An error occurred while processing the query: %s", query), e));
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Get a future already completed with a failure, so that an invalid lookup fails the future returned rather 
+     * than being thrown to the caller
+     * @param e the failure
+     * @return failed future
+     */
+    private static <R> CompletableFuture<R> failed(Exception e) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Run a search, recording its timing
+     * @param type entity type searched for, may be {@code null}
+     * @param searchRequest request
+     * @return response
+     * @throws IOException if the request fails
+     */
+    private SearchResponse search(PassEntityType type, SearchRequest searchRequest) throws IOException {
+        RestHighLevelClient client = client();
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
+        try {
+            SearchResponse response = client.search(searchRequest);
+            status = response.status().getStatus();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            status = statusOf(e);
+            throw e;
+        } finally {
+            record(type, status, start);
+        }
+    }
+
+    private void record(PassEntityType type, int status, long start) {
+        metrics.record(Backend.ELASTICSEARCH, Operation.FIND, type, status, System.nanoTime() - start);
+    }
+
+    /**
+     * Get the HTTP status of a failed request to the index
+     * @param e exception
+     * @return status, or {@link PassClientMetrics#NO_STATUS} if there was no response
+     */
+    private static int statusOf(Exception e) {
+        return e instanceof ElasticsearchStatusException
+                ? ((ElasticsearchStatusException) e).status().getStatus() : PassClientMetrics.NO_STATUS;
+    }
+
+    private static PassEntityType type(Class<? extends PassEntity> modelClass) {
+        return PassClientMetrics.entityType(modelClass);
+    }
+
+    /**
+     * Get the shared elasticsearch client, creating it if this is the first request
+     * @return client
+     */
+    private RestHighLevelClient client() {
+        RestHighLevelClient result = client;
+        if (result == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Index client has been closed");
+                }
+                result = client;
+                if (result == null) {
+                    client = result = new RestHighLevelClient(restClientBuilder(hosts));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Configure the low level REST client with the connection pool, timeouts and keep-alive from 
+     * {@link ElasticsearchConfig}. Its threads are daemon threads, so a client that is never closed does not keep 
+     * the JVM from exiting.
+     * @param hosts indexer hosts
+     * @return builder
+     */
+    private static RestClientBuilder restClientBuilder(HttpHost... hosts) {
+        int connectTimeout = ElasticsearchConfig.getConnectTimeout();
+        int socketTimeout = ElasticsearchConfig.getSocketTimeout();
+        int maxConnections = ElasticsearchConfig.getMaxConnections();
+        int maxConnectionsPerRoute = ElasticsearchConfig.getMaxConnectionsPerRoute();
+        long keepAlive = ElasticsearchConfig.getKeepAlive();
+
+        return RestClient.builder(hosts)
+                .setMaxRetryTimeoutMillis(socketTimeout)
+                .setRequestConfigCallback(requestConfig -> requestConfig
+                        .setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(socketTimeout))
+                .setHttpClientConfigCallback(httpClient -> httpClient
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setThreadFactory(new DaemonThreadFactory("pass-elasticsearch-"))
+                        .setKeepAliveStrategy((response, context) -> {
+                            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                                    .getKeepAliveDuration(response, context);
+                            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+                        }));
+    }
+
+    private SearchRequest searchRequest(QueryBuilder query, int limit, int offset) {
+        //only the ID is read from each hit, so don't transfer the rest of the record
+        return searchRequest(query, ID_FIELDS, limit, offset);
+    }
+
+    /**
+     * Request for results including only the fields given from the source of each record, or the whole source if 
+     * {@code fields} is {@code null}
+     */
+    private SearchRequest searchRequest(QueryBuilder query, String[] fields, int limit, int offset) {
+        SearchRequest searchRequest = new SearchRequest(); 
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder(); 
+        sourceBuilder.from(offset);
+        sourceBuilder.size(limit);
+        sourceBuilder.fetchSource(fields, null);
+
+        LOG.debug("Searching index using query: {}, with limit {} and offset {}", query,  limit, offset);
+        sourceBuilder.query(query);
+        searchRequest.source(sourceBuilder);
+        return searchRequest;
+    }
+
+    /**
+     * Request for one page of results sorted by ID, following on from the last record of the previous page, 
+     * including only the fields given from the source of each record, or the whole source if {@code fields} is 
+     * {@code null}
+     */
+    private SearchRequest pageRequest(QueryBuilder query, String[] fields, int pageSize, Object[] searchAfter) {
+        SearchRequest searchRequest = searchRequest(query, fields, pageSize, 0);
+        searchRequest.source().sort(ID_FIELDNAME, SortOrder.ASC);
+        if (searchAfter != null) {
+            searchRequest.source().searchAfter(searchAfter);
+        }
+        return searchRequest;
+    }
+
+    private Set<URI> entityUris(SearchResponse searchResponse) throws URISyntaxException {
+        Set<URI> passEntityUris = new HashSet<URI>();
+        SearchHits hits = searchResponse.getHits();
+        Iterator<SearchHit> hitsIt = hits.iterator();
+        
+        while (hitsIt.hasNext()){
+            passEntityUris.add(entityUri(hitsIt.next()));
+        }
+        return passEntityUris;
+    }
+
+    /**
+     * Read the ID of the record in a search hit. The hit's source is scanned with a streaming parser, stopping at the 
+     * ID field, rather than being parsed into a map
+     * @param hit search hit
+     * @return ID of the record
+     * @throws URISyntaxException if the record has no ID, or it is not a URI
+     */
+    static URI entityUri(SearchHit hit) throws URISyntaxException {
+        BytesReference source = hit.getSourceRef();
+        if (source != null) {
+            BytesRef bytes = source.toBytesRef();
+            try (JsonParser parser = JSON.createParser(bytes.bytes, bytes.offset, bytes.length)) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        parser.nextToken();
+                        if (ID_FIELDNAME.equals(field) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                            return new URI(parser.getText());
+                        }
+                        parser.skipChildren();
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not parse the record returned from the indexer", e);
+            }
+        }
+        throw new URISyntaxException(String.valueOf(hit.getId()), "Record has no " + ID_FIELDNAME);
+    }
     
+    /**
+     * Deserialize the source of a search hit to a PASS entity
+     */
+    private <T extends PassEntity> T entity(SearchHit hit, Class<T> modelClass) {
+        BytesReference source = hit.getSourceRef();
+        if (source == null) {
+            throw new RuntimeException(String.format("The record %s returned from the indexer has no source", hit.getId()));
+        }
+        return adapter.toModel(BytesReference.toBytes(source), modelClass);
+    }
+
+    /**
+     * Values requested in a terms lookup that a record's value for the attribute matches. Values are compared by 
+     * their string form, so every requested value with that form is matched. A record value that equals no 
+     * requested value exactly is compared ignoring case, as the index may normalize the case of a field it matched on
+     * @param sourceValue the record's value for the attribute, a list if it is multi-valued
+     * @param requested requested values, grouped by their string form
+     * @return requested values matched
+     */
+    static List<Object> matchedValues(Object sourceValue, Map<String, List<Object>> requested) {
+        List<Object> matched = new ArrayList<>();
+        Collection<?> sourceValues = sourceValue instanceof Collection<?> 
+                ? (Collection<?>) sourceValue : Collections.singletonList(sourceValue);
+        for (Object value : sourceValues) {
+            if (value == null) {
+                continue;
+            }
+            String string = value.toString();
+            List<Object> exact = requested.get(string);
+            if (exact != null) {
+                matched.addAll(exact);
+            } else {
+                requested.forEach((key, originals) -> {
+                    if (key.equalsIgnoreCase(string)) {
+                        matched.addAll(originals);
+                    }
+                });
+            }
+        }
+        return matched;
+    }
+
+    private static URI toUri(Object id) {
+        try {
+            if (id == null) {
+                throw new URISyntaxException("", "Record has no " + ID_FIELDNAME);
+            }
+            return new URI(id.toString());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
+        }
+    }
+
+    private static URI uncheckedEntityUri(SearchHit hit) {
+        try {
+            return entityUri(hit);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
+        }
+    }
+
+    /**
+     * Iterates over all hits of a query, fetching the next page of hits only when the current one has been consumed
+     */
+    private class PagingIterator implements Iterator<SearchHit> {
+
+        private final PassEntityType type;
+
+        private final QueryBuilder query;
+
+        private final String[] fields;
+
+        private final int pageSize;
+
+        private Iterator<SearchHit> page = Collections.emptyIterator();
+
+        private Object[] searchAfter = null;
+
+        private boolean lastPage = false;
+
+        PagingIterator(PassEntityType type, QueryBuilder query, String[] fields, int pageSize) {
+            this.type = type;
+            this.query = query;
+            this.fields = fields;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !lastPage) {
+                fetchPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public SearchHit next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SearchHit hit = page.next();
+            searchAfter = hit.getSortValues();
+            return hit;
+        }
+
+        private void fetchPage() {
+            SearchHit[] hits;
+            try {
+                hits = search(type, pageRequest(query, fields, pageSize, searchAfter)).getHits().getHits();
+            } catch (Exception e) {
+                throw new RuntimeException(String.format("An error occurred while processing the query: %s", query), e);
+            }
+            lastPage = hits.length < pageSize;
+            page = Arrays.asList(hits).iterator();
+        }
+    }
+
     private <T extends PassEntity> void validateAttribMapParam(Map<String,Object> valueAttributesMap) {
         if (valueAttributesMap==null || valueAttributesMap.size()==0) {throw new IllegalArgumentException("valueAttributesMap cannot be empty");}
         for (Entry<String,Object> entry : valueAttributesMap.entrySet()) {
@@ -299,7 +1264,7 @@ public class ElasticsearchPassClient {
     
     private void validateAttribValParams(String attribute, Object value, boolean allowNullValues) {
         if (attribute==null || attribute.length()==0) {throw new IllegalArgumentException("attribute cannot be null or empty");}
-        if (value instanceof Collection<?>) {throw new IllegalArgumentException("Value for attribute " + attribute + " cannot be a Collection");}
+        if (value instanceof Collection<?>) {throw new IllegalArgumentException("Value for attribute " + attribute + " cannot be a Collection, use findAllByAttributeIn() to match any of several values");}
         if (value==null && !allowNullValues) {throw new IllegalArgumentException("Value cannot be null or empty");}
     }
     
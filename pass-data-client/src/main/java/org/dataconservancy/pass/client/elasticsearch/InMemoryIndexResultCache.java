@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import java.net.URI;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * {@link IndexResultCache} held in memory, bounded by number of entries with least recently used entries evicted 
+ * first. Entries expire a fixed time after they were cached. Results that matched nothing are only cached if a 
+ * negative time-to-live is set, and then expire after that time instead.
+ * <p>
+ * Invalidating a type does not visit its entries; it moves the type on to a new generation, and entries cached 
+ * under an older generation are dropped when next looked up or evicted in turn. A result is only cached under the 
+ * generation its lookup began in, and lookups of a type that begin within the settle window after it was 
+ * invalidated are not cached at all, giving the index time to reflect the write.
+ * </p>
+ * @author Karen Hanson
+ */
+public class InMemoryIndexResultCache implements IndexResultCache {
+
+    /**
+     * Token returned by {@code begin} for a lookup whose result is not to be cached
+     */
+    private static final long UNSETTLED = -1;
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final long negativeTtlNanos;
+
+    private final long settleNanos;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final Map<Class<?>, Generation> generations = new HashMap<>();
+
+    /**
+     * Time in nanoseconds from which lookups of a type not yet seen may be cached, set when the cache is cleared
+     */
+    private long clearSettled;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Source of the current time in nanoseconds, for expiry and the settle window
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Create a cache using the limits set in {@link ElasticsearchConfig}
+     */
+    public InMemoryIndexResultCache() {
+        this(ElasticsearchConfig.getCacheMaxEntries(), ElasticsearchConfig.getCacheTtl(), 
+                ElasticsearchConfig.getCacheNegativeTtl(), ElasticsearchConfig.getCacheSettle());
+    }
+
+    /**
+     * Create a cache with the limits provided, and no settle window after a type is invalidated
+     * @param maxEntries maximum number of results held
+     * @param ttlMillis time in milliseconds a result is held
+     * @param negativeTtlMillis time in milliseconds a result that matched nothing is held, 0 to not cache them
+     */
+    public InMemoryIndexResultCache(int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this(maxEntries, ttlMillis, negativeTtlMillis, 0);
+    }
+
+    /**
+     * Create a cache with the limits provided
+     * @param maxEntries maximum number of results held
+     * @param ttlMillis time in milliseconds a result is held
+     * @param negativeTtlMillis time in milliseconds a result that matched nothing is held, 0 to not cache them
+     * @param settleMillis time in milliseconds after a type is invalidated during which lookups of that type are 
+     *        not cached, 0 for none
+     */
+    public InMemoryIndexResultCache(int maxEntries, long ttlMillis, long negativeTtlMillis, long settleMillis) {
+        this(maxEntries, ttlMillis, negativeTtlMillis, settleMillis, System::nanoTime);
+    }
+
+    /**
+     * Create a cache with the limits provided, reading the time from the clock given, e.g. so that tests can
+     * expire entries without waiting
+     * @param maxEntries maximum number of results held
+     * @param ttlMillis time in milliseconds a result is held
+     * @param negativeTtlMillis time in milliseconds a result that matched nothing is held, 0 to not cache them
+     * @param settleMillis time in milliseconds after a type is invalidated during which lookups of that type are 
+     *        not cached, 0 for none
+     * @param clock current time in nanoseconds, as {@link System#nanoTime()}
+     */
+    InMemoryIndexResultCache(int maxEntries, long ttlMillis, long negativeTtlMillis, long settleMillis, 
+            LongSupplier clock) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("maxEntries and ttlMillis must be greater than zero");
+        }
+        if (negativeTtlMillis < 0 || settleMillis < 0) {
+            throw new IllegalArgumentException("negativeTtlMillis and settleMillis cannot be less than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMillis);
+        this.clearSettled = clock.getAsLong();
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > InMemoryIndexResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Set<URI> get(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && (clock.getAsLong() > entry.expires 
+                    || entry.generation != generation(key.getModelClass()).count)) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new HashSet<>(entry.uris);
+    }
+
+    @Override
+    public synchronized long begin(Class<? extends PassEntity> modelClass) {
+        Generation generation = generation(modelClass);
+        if (clock.getAsLong() - generation.settled < 0) {
+            return UNSETTLED;
+        }
+        return generation.count;
+    }
+
+    @Override
+    public void put(Key key, Set<URI> result, long token) {
+        long ttl = result.isEmpty() ? negativeTtlNanos : ttlNanos;
+        if (ttl == 0 || token == UNSETTLED) {
+            return;
+        }
+        Set<URI> uris = Collections.unmodifiableSet(new HashSet<>(result));
+        synchronized (this) {
+            if (token == generation(key.getModelClass()).count) {
+                entries.put(key, new Entry(uris, clock.getAsLong() + ttl, token));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(Class<? extends PassEntity> modelClass) {
+        generation(modelClass).invalidate(clock.getAsLong() + settleNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every type seen so far is moved on to a new generation, and lookups of any type that begin within the settle 
+     * window are not cached.
+     * </p>
+     */
+    @Override
+    public synchronized void clear() {
+        long settled = clock.getAsLong() + settleNanos;
+        for (Generation generation : generations.values()) {
+            generation.invalidate(settled);
+        }
+        clearSettled = settled;
+        entries.clear();
+    }
+
+    /**
+     * @return number of results currently held, including any that have expired or been invalidated but not yet
+     *         dropped
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups that had to query the index
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Must be called holding the lock on this cache
+     */
+    private Generation generation(Class<?> modelClass) {
+        return generations.computeIfAbsent(modelClass, cls -> new Generation(clearSettled));
+    }
+
+    /**
+     * Invalidation state of a type
+     */
+    private static class Generation {
+
+        /**
+         * Number of times the type has been invalidated
+         */
+        long count;
+
+        /**
+         * Time in nanoseconds from which lookups of the type may be cached again
+         */
+        long settled;
+
+        Generation(long settled) {
+            this.settled = settled;
+        }
+
+        /**
+         * Move on to a new generation
+         * @param settled time in nanoseconds from which lookups of the type may be cached again
+         */
+        void invalidate(long settled) {
+            count++;
+            this.settled = settled;
+        }
+    }
+
+    /**
+     * A cached result
+     */
+    private static class Entry {
+
+        final Set<URI> uris;
+
+        final long expires;
+
+        final long generation;
+
+        Entry(Set<URI> uris, long expires, long generation) {
+            this.uris = uris;
+            this.expires = expires;
+            this.generation = generation;
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.dataconservancy.pass.client.PassQuery;
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * Cache of index lookup results, used by {@link ElasticsearchPassClient} to avoid repeating identical queries.
+ * <p>
+ * Results are keyed by the model class, attributes and values or query, limit and offset of the lookup. 
+ * Implementations must be thread-safe.
+ * </p>
+ * <p>
+ * A lookup that is not cached calls {@link #begin(Class)} before its search is sent, and passes the token returned 
+ * to {@link #put(Key, Set, long)} with the result. A result is only cached if its type has not been invalidated 
+ * since the search began, so a search that raced a write cannot store what it read before the write. The index is 
+ * updated asynchronously, so a search sent just after a write may still miss it; an implementation may refuse to 
+ * cache results for a type for a settle window after it was invalidated, and if that window is at least the 
+ * index's refresh interval, cached results reflect every write made through the same client. Writes made by other 
+ * clients are never seen until a result expires, so keep time-to-live short where that matters.
+ * </p>
+ * @author Karen Hanson
+ * @see InMemoryIndexResultCache
+ */
+public interface IndexResultCache {
+
+    /**
+     * Get a cached result
+     * @param key lookup key
+     * @return the cached URIs, or {@code null} if there is no cached result for the key
+     */
+    public Set<URI> get(Key key);
+
+    /**
+     * Start a lookup of a type that is to be cached, before its search is sent to the index
+     * @param modelClass the PASS entity class
+     * @return token to pass to {@link #put(Key, Set, long)} with the result of the search
+     */
+    public long begin(Class<? extends PassEntity> modelClass);
+
+    /**
+     * Cache the result of a lookup, unless its type was invalidated since the lookup began
+     * @param key lookup key
+     * @param result URIs matched, may be empty
+     * @param token the value returned by {@link #begin(Class)} before the search was sent
+     */
+    public void put(Key key, Set<URI> result, long token);
+
+    /**
+     * Drop all cached results for lookups of a type, e.g. because an entity of that type was written
+     * @param modelClass the PASS entity class
+     */
+    public void invalidate(Class<? extends PassEntity> modelClass);
+
+    /**
+     * Drop all cached results, and invalidate every type as {@link #invalidate(Class)} does, e.g. because an entity 
+     * of unknown type was written
+     */
+    public void clear();
+
+    /**
+     * Identifies a lookup by model class, attributes and values or structured query, limit and offset. Attribute 
+     * order does not matter, and values are compared by their string form, as they are when the query is built.
+     */
+    public static final class Key {
+
+        private final Class<? extends PassEntity> modelClass;
+
+        private final Map<String, String> attributes;
+
+        private final List<PassQuery.Clause> clauses;
+
+        private final int limit;
+
+        private final int offset;
+
+        private final int hash;
+
+        /**
+         * @param modelClass the PASS entity class
+         * @param attributes attribute names and values, values may be {@code null}
+         * @param limit result limit
+         * @param offset result offset
+         */
+        public Key(Class<? extends PassEntity> modelClass, Map<String, ?> attributes, int limit, int offset) {
+            this.modelClass = modelClass;
+            Map<String, String> normalized = new TreeMap<>();
+            attributes.forEach((attribute, value) -> normalized.put(attribute, value != null ? value.toString() : null));
+            this.attributes = Collections.unmodifiableMap(normalized);
+            this.clauses = Collections.emptyList();
+            this.limit = limit;
+            this.offset = offset;
+            this.hash = Objects.hash(modelClass, this.attributes, this.clauses, limit, offset);
+        }
+
+        /**
+         * @param modelClass the PASS entity class
+         * @param query structured query, which is copied, so later changes to it do not affect the key
+         * @param limit result limit
+         * @param offset result offset
+         */
+        public Key(Class<? extends PassEntity> modelClass, PassQuery query, int limit, int offset) {
+            this.modelClass = modelClass;
+            this.attributes = Collections.emptyMap();
+            this.clauses = Collections.unmodifiableList(new ArrayList<>(query.getClauses()));
+            this.limit = limit;
+            this.offset = offset;
+            this.hash = Objects.hash(modelClass, this.attributes, this.clauses, limit, offset);
+        }
+
+        /**
+         * @return the PASS entity class
+         */
+        public Class<? extends PassEntity> getModelClass() {
+            return modelClass;
+        }
+
+        /**
+         * @return attribute names and values, sorted by attribute name
+         */
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+
+        /**
+         * @return clauses of a structured query, empty for an attribute lookup
+         */
+        public List<PassQuery.Clause> getClauses() {
+            return clauses;
+        }
+
+        /**
+         * @return result limit
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return result offset
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return limit == that.limit && offset == that.offset && modelClass == that.modelClass
+                    && attributes.equals(that.attributes) && clauses.equals(that.clauses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return modelClass.getSimpleName() + (clauses.isEmpty() ? attributes : clauses) + " limit " + limit 
+                    + " offset " + offset;
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+import java.net.URI;
+
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Works out the type of PASS entity a URI refers to from the container it is in, so that requests made with only a
+ * URI can be tagged with a type in {@link org.dataconservancy.pass.client.PassClientMetrics}, and so that deleting by
+ * URI invalidates cached index results of the right type. Matches by comparing regions of the URI string, so 
+ * allocates nothing.
+ * @author Karen Hanson
+ */
+public final class ContainerTypes {
+
+    private static final PassEntityType[] TYPES = PassEntityType.values();
+
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl Fedora base URL, ending in a slash
+     */
+    public ContainerTypes(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Get the type of the entity or container a URI refers to
+     * @param uri URI, may be {@code null}
+     * @return type, or {@code null} if the URI is not in a PASS entity container
+     */
+    public PassEntityType typeOf(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+        String s = uri.toString();
+        if (!s.startsWith(baseUrl)) {
+            return null;
+        }
+        int start = baseUrl.length();
+        for (PassEntityType type : TYPES) {
+            String plural = type.getPlural();
+            int end = start + plural.length();
+            if (s.regionMatches(start, plural, 0, plural.length())
+                    && (s.length() == end || s.charAt(end) == '/')) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+import java.lang.reflect.Constructor;
+
+import java.net.URI;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process cache of PASS entities read from Fedora, keyed by URI.
+ * <p>
+ * Each entry holds the entity along with the ETag it was read with, so that a later read can be revalidated with
+ * {@code If-None-Match}; if Fedora answers {@code 304 Not Modified}, the cached entity is used and neither the
+ * transfer nor the JSON parse is repeated. Entries are never served without revalidation.
+ * </p>
+ * <p>
+ * The cache is bounded both by number of entries and by the total size of the JSON the entries were read from,
+ * evicting the least recently used entries first. An entry that has not been validated within the time-to-live is
+ * dropped on its next lookup. Entities are copied on the way in and the way out using their copy constructors, so
+ * callers are free to modify what they read.
+ * </p>
+ * @author Karen Hanson
+ */
+public class EntityCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCache.class);
+
+    private static final Map<Class<?>, Constructor<?>> COPY_CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final long ttlNanos;
+
+    private final LinkedHashMap<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong revalidations = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a cache using the limits set in {@link FedoraConfig}
+     */
+    public EntityCache() {
+        this(FedoraConfig.getCacheMaxEntries(), FedoraConfig.getCacheMaxBytes(), FedoraConfig.getCacheTtl());
+    }
+
+    /**
+     * Create a cache with the limits provided
+     * @param maxEntries maximum number of entities held
+     * @param maxBytes maximum total size, in bytes, of the JSON the held entities were read from
+     * @param ttlMillis time in milliseconds an entry is kept after it was last validated against Fedora
+     */
+    public EntityCache(int maxEntries, long maxBytes, long ttlMillis) {
+        if (maxEntries < 1 || maxBytes < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Cache limits must be greater than zero");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Look up an entry to revalidate. Counts a miss if there is no usable entry.
+     * @param uri entity URI
+     * @param modelClass class the entity will be read as
+     * @return the entry, or {@code null} if none is held for this URI and class
+     */
+    synchronized Entry get(URI uri, Class<? extends PassEntity> modelClass) {
+        Entry entry = entries.get(uri);
+        if (entry != null && System.nanoTime() - entry.validated > ttlNanos) {
+            remove(uri);
+            entry = null;
+        }
+        if (entry == null || !modelClass.isInstance(entry.entity)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        revalidations.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Record that Fedora confirmed an entry is current, and get a copy of its entity. Counts a hit.
+     * @param uri entity URI
+     * @param entry the entry that was revalidated
+     * @param modelClass class the entity will be read as
+     * @param <T> PASS entity type
+     * @return copy of the cached entity
+     */
+    synchronized <T extends PassEntity> T revalidated(URI uri, Entry entry, Class<T> modelClass) {
+        hits.incrementAndGet();
+        entry.validated = System.nanoTime();
+        return modelClass.cast(copy(entry.entity));
+    }
+
+    /**
+     * Hold a copy of an entity that was just read
+     * @param uri entity URI
+     * @param entity the entity as read
+     * @param etag the ETag header value it was read with
+     * @param size size of the JSON it was read from, in bytes
+     */
+    synchronized void put(URI uri, PassEntity entity, String etag, long size) {
+        remove(uri);
+        if (etag == null || size > maxBytes || copyConstructor(entity.getClass()) == null) {
+            return;
+        }
+        entries.put(uri, new Entry(copy(entity), etag, size));
+        bytes += size;
+
+        Iterator<Map.Entry<URI, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().size;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drop any entry for a URI, e.g. because it was updated or deleted
+     * @param uri entity URI
+     */
+    public synchronized void invalidate(URI uri) {
+        remove(uri);
+    }
+
+    /**
+     * Drop all entries
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return number of entities currently held
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return total size, in bytes, of the JSON the held entities were read from
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return number of reads answered from the cache after Fedora confirmed the entity had not changed
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of reads for which the cache held no usable entry
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of reads that asked Fedora to revalidate a cached entry, whether or not it had changed
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return number of entries evicted to stay within the size limits
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private void remove(URI uri) {
+        Entry removed = entries.remove(uri);
+        if (removed != null) {
+            bytes -= removed.size;
+        }
+    }
+
+    private static PassEntity copy(PassEntity entity) {
+        try {
+            return (PassEntity) copyConstructor(entity.getClass()).newInstance(entity);
+        } catch (Exception e) {
+            throw new RuntimeException("Could not copy cached " + entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Constructor<?> copyConstructor(Class<?> entityClass) {
+        return COPY_CONSTRUCTORS.computeIfAbsent(entityClass, cls -> {
+            try {
+                return cls.getConstructor(cls);
+            } catch (NoSuchMethodException e) {
+                LOG.debug("{} has no copy constructor, it will not be cached", cls.getSimpleName());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A cached entity and the ETag it was read with
+     */
+    static class Entry {
+
+        final PassEntity entity;
+
+        final String etag;
+
+        final long size;
+
+        long validated = System.nanoTime();
+
+        Entry(PassEntity entity, String etag, long size) {
+            this.entity = entity;
+            this.etag = etag;
+            this.size = size;
+        }
+    }
+
+}
@@ -28,8 +28,12 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.dataconservancy.pass.client.PassClientMetrics;
+import org.dataconservancy.pass.client.PassClientMetrics.Backend;
+import org.dataconservancy.pass.client.PassClientMetrics.Operation;
 import org.fcrepo.client.FcrepoClient;
 import org.fcrepo.client.FcrepoClient.FcrepoClientBuilder;
+import org.fcrepo.client.FcrepoOperationFailedException;
 import org.fcrepo.client.FcrepoResponse;
 
 /**
@@ -45,6 +49,12 @@ class FcrepoLister implements Lister {
     FcrepoClient client = new FcrepoClientBuilder().credentials(FedoraConfig.getUserName(), FedoraConfig
             .getPassword()).build();
 
+    /** Receives the timing of each listing, set by {@link FedoraPassCrudClient#metrics(PassClientMetrics)} */
+    volatile PassClientMetrics metrics = PassClientMetrics.NOOP;
+
+    /** Types of the containers under the base URL, for tagging metrics */
+    ContainerTypes containerTypes = new ContainerTypes(FedoraConfig.getBaseUrl());
+
     static final URI PREFER_CONTAINMENT = URI.create("http://www.w3.org/ns/ldp#PreferContainment");
 
     static final Pattern childPattern = Pattern.compile(
@@ -52,11 +62,15 @@ class FcrepoLister implements Lister {
 
     @Override
     public List<URI> getChildren(URI resource) {
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
         try (final FcrepoResponse response = client.get(resource)
                 .accept("application/n-triples")
                 .preferRepresentation(asList(PREFER_CONTAINMENT),
                         emptyList()).perform()) {
 
+            status = response.getStatusCode();
+
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), UTF_8))) {
 
                 final List<URI> children = new ArrayList<>();
@@ -72,7 +86,13 @@ class FcrepoLister implements Lister {
             }
 
         } catch (final Exception e) {
+            if (e instanceof FcrepoOperationFailedException) {
+                status = ((FcrepoOperationFailedException) e).getStatusCode();
+            }
             throw new RuntimeException("Error getting children of " + resource, e);
+        } finally {
+            metrics.record(Backend.FEDORA, Operation.CRAWL, containerTypes.typeOf(resource), status,
+                    System.nanoTime() - start);
         }
     }
 }
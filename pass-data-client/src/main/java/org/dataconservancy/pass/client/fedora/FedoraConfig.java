@@ -37,6 +37,33 @@ public class FedoraConfig {
     private static final String BASEURL_KEY = "pass.fedora.baseurl";
     private static final String DEFAULT_BASE_URL = "http://localhost:8080/fcrepo/rest/";
 
+    private static final String MAX_REQUESTS_KEY = "pass.fedora.http.maxrequests";
+    private static final Integer DEFAULT_MAX_REQUESTS = 64;
+
+    private static final String MAX_REQUESTS_PER_HOST_KEY = "pass.fedora.http.maxrequestsperhost";
+    private static final Integer DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+
+    private static final String BULK_CONCURRENCY_KEY = "pass.fedora.bulk.concurrency";
+    private static final Integer DEFAULT_BULK_CONCURRENCY = 5;
+
+    private static final String CRAWLER_PARALLELISM_KEY = "pass.fedora.crawler.parallelism";
+    private static final Integer DEFAULT_CRAWLER_PARALLELISM = 1;
+
+    private static final String CRAWLER_CONCURRENT_VISITS_KEY = "pass.fedora.crawler.concurrentvisits";
+    private static final String DEFAULT_CRAWLER_CONCURRENT_VISITS = "false";
+
+    private static final String CACHE_ENABLED_KEY = "pass.fedora.cache.enabled";
+    private static final String DEFAULT_CACHE_ENABLED = "false";
+
+    private static final String CACHE_MAX_ENTRIES_KEY = "pass.fedora.cache.maxentries";
+    private static final Integer DEFAULT_CACHE_MAX_ENTRIES = 1000;
+
+    private static final String CACHE_MAX_BYTES_KEY = "pass.fedora.cache.maxbytes";
+    private static final Integer DEFAULT_CACHE_MAX_BYTES = 16 * 1024 * 1024;
+
+    private static final String CACHE_TTL_KEY = "pass.fedora.cache.ttl";
+    private static final Integer DEFAULT_CACHE_TTL = 10 * 60 * 1000;
+
     
     /** 
      * Get the Fedora baseUrl
@@ -71,6 +98,33 @@ public class FedoraConfig {
         return user;
     }
     
+    /**
+     * Maximum number of asynchronous HTTP requests to execute concurrently, defaults to
+     * DEFAULT_MAX_REQUESTS. Requests above this limit are queued in memory until a running call completes.
+     * @return max number of concurrent requests
+     */
+    public static Integer getMaxRequests() {
+        return ConfigUtil.getPositiveInteger(MAX_REQUESTS_KEY, DEFAULT_MAX_REQUESTS);
+    }
+
+    /**
+     * Maximum number of asynchronous HTTP requests to execute concurrently against a single host, defaults to
+     * DEFAULT_MAX_REQUESTS_PER_HOST.
+     * @return max number of concurrent requests per host
+     */
+    public static Integer getMaxRequestsPerHost() {
+        return ConfigUtil.getPositiveInteger(MAX_REQUESTS_PER_HOST_KEY, DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Maximum number of requests a bulk operation will have in flight at once, defaults to
+     * DEFAULT_BULK_CONCURRENCY
+     * @return bulk concurrency
+     */
+    public static Integer getBulkConcurrency() {
+        return ConfigUtil.getPositiveInteger(BULK_CONCURRENCY_KEY, DEFAULT_BULK_CONCURRENCY);
+    }
+
     /** 
      * Get a path for a container, given a PASS type
      * 
@@ -90,4 +144,60 @@ public class FedoraConfig {
         return path;
     }
     
+    /**
+     * Number of containers the repository crawler lists at once, defaults to DEFAULT_CRAWLER_PARALLELISM. A value 
+     * of 1 crawls depth-first on the calling thread.
+     * @return crawler parallelism
+     */
+    public static Integer getCrawlerParallelism() {
+        return ConfigUtil.getPositiveInteger(CRAWLER_PARALLELISM_KEY, DEFAULT_CRAWLER_PARALLELISM);
+    }
+
+    /**
+     * Whether a parallel crawl may call the entity processor from several threads at once, defaults to false
+     * @return true if the processor may be called concurrently
+     */
+    public static boolean getCrawlerConcurrentVisits() {
+        boolean concurrent = Boolean.parseBoolean(ConfigUtil.getSystemProperty(CRAWLER_CONCURRENT_VISITS_KEY, 
+                DEFAULT_CRAWLER_CONCURRENT_VISITS));
+        LOG.debug("Crawler concurrent visits: {}", concurrent);
+        return concurrent;
+    }
+
+    /**
+     * Whether entities read from Fedora should be held in an {@link EntityCache}, defaults to false
+     * @return true if the read cache is enabled
+     */
+    public static boolean getCacheEnabled() {
+        boolean enabled = Boolean.parseBoolean(ConfigUtil.getSystemProperty(CACHE_ENABLED_KEY, DEFAULT_CACHE_ENABLED));
+        LOG.debug("Read cache enabled: {}", enabled);
+        return enabled;
+    }
+
+    /**
+     * Maximum number of entities held in the read cache, defaults to DEFAULT_CACHE_MAX_ENTRIES
+     * @return max cache entries
+     */
+    public static Integer getCacheMaxEntries() {
+        return ConfigUtil.getPositiveInteger(CACHE_MAX_ENTRIES_KEY, DEFAULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * Maximum total size in bytes of the JSON the entities held in the read cache were read from, defaults to
+     * DEFAULT_CACHE_MAX_BYTES
+     * @return max cache bytes
+     */
+    public static Integer getCacheMaxBytes() {
+        return ConfigUtil.getPositiveInteger(CACHE_MAX_BYTES_KEY, DEFAULT_CACHE_MAX_BYTES);
+    }
+
+    /**
+     * Time in milliseconds an entity is held in the read cache after it was last validated, defaults to
+     * DEFAULT_CACHE_TTL
+     * @return cache time-to-live in milliseconds
+     */
+    public static Integer getCacheTtl() {
+        return ConfigUtil.getPositiveInteger(CACHE_TTL_KEY, DEFAULT_CACHE_TTL);
+    }
+
 }
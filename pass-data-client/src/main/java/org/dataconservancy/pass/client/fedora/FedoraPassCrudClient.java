@@ -17,9 +17,11 @@ package org.dataconservancy.pass.client.fedora;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLEncoder;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,12 +29,30 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -40,13 +60,24 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
 
 import org.apache.http.HttpStatus;
 
+import org.dataconservancy.pass.client.BulkResult;
 import org.dataconservancy.pass.client.PassClientDefault;
+import org.dataconservancy.pass.client.PassClientMetrics;
+import org.dataconservancy.pass.client.PassClientMetrics.Backend;
+import org.dataconservancy.pass.client.PassClientMetrics.Operation;
 import org.dataconservancy.pass.client.PassJsonAdapter;
 import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.client.util.DaemonThreadFactory;
 import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
 import org.fcrepo.client.PostBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,7 +100,7 @@ import static org.dataconservancy.pass.client.fedora.RepositoryCrawler.Skip.SKIP
  * records in Fedora based on model and/or URI provided.
  * @author Karen Hanson
  */
-public class FedoraPassCrudClient {
+public class FedoraPassCrudClient implements AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(FedoraPassCrudClient.class);
 
@@ -82,8 +113,18 @@ public class FedoraPassCrudClient {
     private final static String PREFER_LENIENT_VAL = "handling=lenient; received=\"minimal\"";
     private final static String INCOMING_INCLUDETYPE = "http://fedora.info/definitions/v4/repository#InboundReferences";
     private final static String IFMATCH_HEADER = "If-Match";
+    private final static String IFNONEMATCH_HEADER = "If-None-Match";
     private final static String ETAG_HEADER = "ETag";
     private final static String ETAG_WEAK_PREFIX = "W/";
+    private final static String LOCATION_HEADER = "Location";
+    private final static String SLUG_HEADER = "Slug";
+    private final static String DIGEST_HEADER = "Digest";
+    private final static String CONTENT_DISPOSITION_HEADER = "Content-Disposition";
+    private final static String DEFAULT_BINARY_CONTENTTYPE = "application/octet-stream";
+    private final static String GRAPH_KEY = "@graph";
+    private final static String ID_KEY = "@id";
+
+    private static final JsonFactory JSON = new JsonFactory();
     
     /** 
      * The Fedora client tool 
@@ -95,15 +136,26 @@ public class FedoraPassCrudClient {
      */
     private OkHttpClient okHttpClient;
 
+    /**
+     * True if the OkHttp client was created here rather than passed in, and so should be shut down on close
+     */
+    private boolean ownsOkHttpClient = false;
+
     /**
      * A JSON adapter for PASS 
      */
     private PassJsonAdapter adapter;
     
+    /**
+     * Pool the crawler lists containers with, null if crawling on the calling thread
+     */
+    private ForkJoinPool crawlerPool = FedoraConfig.getCrawlerParallelism() > 1 
+            ? new ForkJoinPool(FedoraConfig.getCrawlerParallelism()) : null;
+
     /**
      * Crawls the repository
      */
-    private RepositoryCrawler crawler = new RepositoryCrawler();
+    private RepositoryCrawler crawler = new RepositoryCrawler(crawlerPool, FedoraConfig.getCrawlerConcurrentVisits());
     
     /** 
      * If this is set to true, on update PUT will be used instead of PATCH to perform updates
@@ -112,6 +164,26 @@ public class FedoraPassCrudClient {
      * one time on instantiation. Defaults to false (i.e. PATCH is used)
      */
     private boolean overwriteOnUpdate = false;
+
+    /**
+     * Maximum number of requests a bulk operation will have in flight at once
+     */
+    private int bulkConcurrency = FedoraConfig.getBulkConcurrency();
+
+    /**
+     * Optional cache of entities read, revalidated against Fedora on each read. {@code null} if caching is off.
+     */
+    private volatile EntityCache cache = FedoraConfig.getCacheEnabled() ? new EntityCache() : null;
+
+    /**
+     * Receives the timing of each request made to Fedora
+     */
+    private volatile PassClientMetrics metrics = PassClientMetrics.NOOP;
+
+    /**
+     * Types of the containers under the base URL, for tagging requests made with only a URI in metrics
+     */
+    private final ContainerTypes containerTypes = new ContainerTypes(FedoraConfig.getBaseUrl());
     
     /**
      * Instantiates default implementations of the underlying Fedora client, JSON adapter, and OkHttpClient.
@@ -169,7 +241,15 @@ public class FedoraPassCrudClient {
             });
         }
 
+        // as OkHttp's default executor, but on daemon threads, so a client that is never closed cannot hold up exit
+        Dispatcher dispatcher = new Dispatcher(new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new DaemonThreadFactory("pass-fedora-")));
+        dispatcher.setMaxRequests(FedoraConfig.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(FedoraConfig.getMaxRequestsPerHost());
+        okBuilder.dispatcher(dispatcher);
+
         this.okHttpClient = okBuilder.build();
+        this.ownsOkHttpClient = true;
     }
 
     /**
@@ -203,6 +283,67 @@ public class FedoraPassCrudClient {
         return this;
     }
 
+    /**
+     * Release the threads and pooled connections held by the HTTP client used for asynchronous and bulk requests,
+     * and by the crawler if it is crawling in parallel.
+     * An HTTP client passed in on construction is left open for its owner to close.
+     */
+    @Override
+    public void close() {
+        if (crawlerPool != null) {
+            crawlerPool.shutdown();
+        }
+        if (ownsOkHttpClient) {
+            okHttpClient.dispatcher().executorService().shutdown();
+            okHttpClient.connectionPool().evictAll();
+        }
+    }
+
+    /**
+     * Set the cache used by {@code readResource}, {@code readResourceAsync} and {@code readResources}, replacing any
+     * cache configured by {@code pass.fedora.cache.*}
+     * @param cache the cache, or {@code null} to turn caching off
+     * @return this client
+     */
+    public FedoraPassCrudClient readCache(EntityCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Get the cache used for reads, e.g. to inspect its hit and miss counts
+     * @return the cache, or {@code null} if caching is off
+     */
+    public EntityCache getReadCache() {
+        return cache;
+    }
+
+    /**
+     * Set the metrics each request to Fedora is recorded in, including the listings made while crawling
+     * @param metrics the metrics, or {@code null} to record nothing
+     * @return this client
+     */
+    public FedoraPassCrudClient metrics(PassClientMetrics metrics) {
+        this.metrics = metrics != null ? metrics : PassClientMetrics.NOOP;
+        if (crawler.repo instanceof FcrepoLister) {
+            ((FcrepoLister) crawler.repo).metrics = this.metrics;
+        }
+        return this;
+    }
+
+    /**
+     * Set the maximum number of requests a bulk operation will have in flight at once
+     * @param concurrency maximum number of concurrent requests
+     * @return this client
+     */
+    public FedoraPassCrudClient bulkConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be greater than zero");
+        }
+        this.bulkConcurrency = concurrency;
+        return this;
+    }
+
     /**
      * @see org.dataconservancy.pass.client.PassClient#createResource(PassEntity)
      * 
@@ -249,10 +390,17 @@ public class FedoraPassCrudClient {
      * @param uri uri.
      */
     public void deleteResource(URI uri) {
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
         try (FcrepoResponse response = new DeleteBuilder(uri, client).perform()) {
+            status = response.getStatusCode();
             LOG.info("Resource deletion status for {}: {}", uri, response.getStatusCode());
         } catch (IOException | FcrepoOperationFailedException e) {
+            status = statusOf(e);
             throw new RuntimeException("A problem occurred while attempting to delete a Resource", e);
+        } finally {
+            record(Operation.DELETE, containerTypes.typeOf(uri), status, start);
+            invalidate(uri);
         }
     }
 
@@ -272,27 +420,106 @@ public class FedoraPassCrudClient {
         } catch (URISyntaxException e) {
             throw new RuntimeException("Could not create required \"omit\" type.", e);
         }
-        
-        try (FcrepoResponse response = new GetBuilder(uri, client)
+
+        EntityCache cache = this.cache;
+        EntityCache.Entry cached = cache != null ? cache.get(uri, modelClass) : null;
+
+        GetBuilder get = new GetBuilder(uri, client)
                 .accept(COMPACTED_ACCEPTTYPE)
-                .preferRepresentation(null, omits)
-                .perform()) {
+                .preferRepresentation(null, omits);
+        if (cached != null) {
+            get.ifNoneMatch(cached.etag);
+        }
+
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
+        try (FcrepoResponse response = get.perform()) {
 
+          status = response.getStatusCode();
           LOG.info("Resource read status for {}: {}", uri, response.getStatusCode());
-          T model = adapter.toModel(response.getBody(), modelClass);
-          
-          //remove the etag prefix, not needed for version comparison
+          if (cached != null && response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+              return cache.revalidated(uri, cached, modelClass);
+          }
+
           String etag = response.getHeaderValue(ETAG_HEADER);
-          if (etag!=null && etag.contains(ETAG_WEAK_PREFIX)) {
-              etag = etag.replace(ETAG_WEAK_PREFIX, "");
+          T model;
+          if (cache != null) {
+              CountingSource body = new CountingSource(Okio.source(response.getBody()));
+              model = adapter.toModel(Okio.buffer(body).inputStream(), modelClass);
+              model.setVersionTag(versionTag(etag));
+              cache.put(uri, model, etag, body.count);
+          } else {
+              model = adapter.toModel(response.getBody(), modelClass);
+              model.setVersionTag(versionTag(etag));
           }
-          model.setVersionTag(etag);
           
           return model;
           
         } catch (IOException | FcrepoOperationFailedException e) {
+            status = statusOf(e);
             throw new RuntimeException("A problem occurred while attempting to read a Resource", e);
-        }        
+        } finally {
+            record(Operation.READ, PassClientMetrics.entityType(modelClass), status, start);
+        }
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#readResources(Collection, Class)
+     *
+     * @param uris uris
+     * @param modelClass modelClass
+     * @return bulk result
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<URI, T> readResources(Collection<URI> uris, Class<T> modelClass) {
+        return pipeline(uris, uri -> uri, uri -> readResourceAsync(uri, modelClass));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#readResources(Map)
+     *
+     * @param uriClasses map of uri to model class
+     * @return bulk result
+     */
+    public BulkResult<URI, PassEntity> readResources(Map<URI, Class<? extends PassEntity>> uriClasses) {
+        return pipeline(uriClasses.keySet(), uri -> uri,
+                uri -> readResourceAsync(uri, uriClasses.get(uri)).thenApply(PassEntity.class::cast));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#createResources(List)
+     *
+     * @param modelObjs modelObjs
+     * @return bulk result, keyed by position in modelObjs
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<Integer, URI> createResources(List<T> modelObjs) {
+        List<Integer> positions = new ArrayList<>(modelObjs.size());
+        for (int i = 0; i < modelObjs.size(); i++) {
+            positions.add(i);
+        }
+        return pipeline(positions, i -> i, i -> createResourceAsync(modelObjs.get(i)));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#updateResources(List)
+     *
+     * @param modelObjs modelObjs
+     * @return bulk result, keyed by entity URI
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> BulkResult<URI, Void> updateResources(List<T> modelObjs) {
+        return pipeline(modelObjs, PassEntity::getId, this::updateResourceAsync);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#deleteResources(Collection)
+     *
+     * @param uris uris
+     * @return bulk result, keyed by URI
+     */
+    public BulkResult<URI, Void> deleteResources(Collection<URI> uris) {
+        return pipeline(uris, uri -> uri, this::deleteResourceAsync);
     }
 
     /**
@@ -304,50 +531,71 @@ public class FedoraPassCrudClient {
         List<URI> include = Collections.singletonList(URI.create(INCOMING_INCLUDETYPE));
         List<URI> omits = Collections.singletonList(URI.create(SERVER_MANAGED_OMITTYPE));
 
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
         try (FcrepoResponse response = new GetBuilder(passEntityUri, client)
                 .accept(COMPACTED_ACCEPTTYPE)
                 .preferRepresentation(include, omits)
                 .perform()) {
 
+            status = response.getStatusCode();
             LOG.info("Resource read status: for {}: {}", passEntityUri, response.getStatusCode());
 
-            JsonNode raw = new ObjectMapper().readTree(response.getBody());
-            JsonNode graph = raw.withArray("@graph");
+            return parseIncoming(passEntityUri, response.getBody());
 
-            if (graph == null || graph.size() < 1) {
-                return Collections.emptyMap();
-            }
-
-            Map<String, Collection<URI>> result = new ConcurrentHashMap<>();
-
-            graph.elements().forEachRemaining((node) -> {
-                if (!node.has("@id")) {
-                    return;
-                }
+        } catch (IOException | FcrepoOperationFailedException e) {
+            status = statusOf(e);
+            throw new RuntimeException("A problem occurred while attempting to read a Resource", e);
+        } finally {
+            record(Operation.INCOMING, containerTypes.typeOf(passEntityUri), status, start);
+        }
+    }
 
-                URI incomingLink = URI.create(node.get("@id").asText());
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#getIncoming(URI, String)
+     * @param passEntityUri pass entity URI
+     * @param field predicate
+     * @return incoming URIs
+     */
+    public Collection<URI> getIncoming(URI passEntityUri, String field) {
+        Collection<URI> links = new HashSet<>();
+        processIncoming(passEntityUri, field, links::add);
+        return links;
+    }
 
-                // Filter out any nodes in the graph that refer to the requested PASS entity
-                // Remaining nodes in the graph are incoming links
-                if (passEntityUri.toString().equals(incomingLink.toString())) {
-                    return;
-                }
+    /**
+     * Pass each resource linking to the entity through the predicate to the processor as the inbound references 
+     * response is parsed, so the response is never held in memory.
+     * @see org.dataconservancy.pass.client.PassClient#processIncoming(URI, String, Consumer)
+     * @param passEntityUri pass entity URI
+     * @param field predicate
+     * @param processor processor
+     * @return number of incoming URIs processed
+     */
+    public int processIncoming(URI passEntityUri, String field, Consumer<URI> processor) {
+        if (field == null) {
+            throw new IllegalArgumentException("field cannot be null");
+        }
+        List<URI> include = Collections.singletonList(URI.create(INCOMING_INCLUDETYPE));
+        List<URI> omits = Collections.singletonList(URI.create(SERVER_MANAGED_OMITTYPE));
 
-                node.fieldNames().forEachRemaining(field -> {
-                    if ("@id".equals(field)) {
-                        return;
-                    }
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
+        try (FcrepoResponse response = new GetBuilder(passEntityUri, client)
+                .accept(COMPACTED_ACCEPTTYPE)
+                .preferRepresentation(include, omits)
+                .perform()) {
 
-                    Collection<URI> uris = result.getOrDefault(field, new HashSet<>());
-                    uris.add(incomingLink);
-                    result.putIfAbsent(field, uris);
-                });
-            });
+            status = response.getStatusCode();
+            LOG.info("Resource read status: for {}: {}", passEntityUri, response.getStatusCode());
 
-            return result;
+            return parseIncoming(passEntityUri, field, response.getBody(), processor);
 
         } catch (IOException | FcrepoOperationFailedException e) {
+            status = statusOf(e);
             throw new RuntimeException("A problem occurred while attempting to read a Resource", e);
+        } finally {
+            record(Operation.INCOMING, containerTypes.typeOf(passEntityUri), status, start);
         }
     }
 
@@ -393,11 +641,17 @@ public class FedoraPassCrudClient {
             }
         }
 
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
         try (FcrepoResponse response = builder.perform()) {
+            status = response.getStatusCode();
             return response.getLocation();
         } catch (Exception e) {
+            status = statusOf(e);
             throw new RuntimeException("An problem occurred while POSTing binary content to Resource " +
                     passEntityUri + ": " + e.getMessage(), e);
+        } finally {
+            record(Operation.UPLOAD, containerTypes.typeOf(passEntityUri), status, start);
         }
     }
     
@@ -417,21 +671,249 @@ public class FedoraPassCrudClient {
                     depth(2).or(SKIP_ACLS));
         }
 
-        URI container = null;
+        return crawler.visit(
+                container(modelClass),
+                processor,
+                IGNORE_CONTAINERS,
+                depth(1).or(SKIP_ACLS));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#streamAllEntities(Class)
+     * 
+     * @param modelClass modelClass
+     * @return stream of entity URIs
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> Stream<URI> streamAllEntities(Class<T> modelClass) {
+        if (modelClass == null) {
+            return crawler.stream(
+                    URI.create(FedoraConfig.getBaseUrl()),
+                    IGNORE_CONTAINERS,
+                    depth(2).or(SKIP_ACLS));
+        }
+
+        return crawler.stream(
+                container(modelClass),
+                IGNORE_CONTAINERS,
+                depth(1).or(SKIP_ACLS));
+    }
+
+    private static URI container(Class<? extends PassEntity> modelClass) {
         try {
-            container = new URI(FedoraConfig.getContainer(modelClass.getSimpleName()));
+            return new URI(FedoraConfig.getContainer(modelClass.getSimpleName()));
         } catch (URISyntaxException e) {
             throw new RuntimeException("Container name could not be converted to a URI", e);
         }
+    }
 
-        return crawler.visit(
-                container,
-                processor,
-                IGNORE_CONTAINERS,
-                depth(1).or(SKIP_ACLS));
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#createResource(PassEntity)
+     *
+     * @param modelObj modelObj
+     * @return future URI
+     */
+    public CompletableFuture<URI> createResourceAsync(PassEntity modelObj) {
+        return createInternalAsync(modelObj).thenApply(PassEntity::getId);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#createAndReadResource(PassEntity, Class)
+     *
+     * @param modelObj modelObj
+     * @param modelClass modelClass
+     * @return future PASS entity.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<T> createAndReadResourceAsync(T modelObj, Class<T> modelClass) {
+        return createInternalAsync(modelObj);
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#updateResource(PassEntity)
+     *
+     * @param modelObj modelObj
+     * @return future that completes when the update is done
+     */
+    public CompletableFuture<Void> updateResourceAsync(PassEntity modelObj) {
+        return this.<Void>enqueue(() -> updateRequest(modelObj), Operation.UPDATE, entityType(modelObj), res -> {
+            handleUpdateResponse(modelObj, res);
+            return null;
+        }, e -> updateException(modelObj, e))
+                .whenComplete((v, e) -> invalidate(modelObj.getId()));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#updateAndReadResource(PassEntity, Class)
+     *
+     * @param modelObj modelObj
+     * @param modelClass modelClass
+     * @return future PASS entity.
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<T> updateAndReadResourceAsync(T modelObj, Class<T> modelClass) {
+        return updateResourceAsync(modelObj).thenCompose(v -> readResourceAsync(modelObj.getId(), modelClass));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#deleteResource(URI)
+     *
+     * @param uri uri
+     * @return future that completes when the resource is deleted
+     */
+    public CompletableFuture<Void> deleteResourceAsync(URI uri) {
+        Supplier<Request> request = () -> new Request.Builder()
+                .url(uri.toString())
+                .delete()
+                .build();
+
+        return this.<Void>enqueue(request, Operation.DELETE, containerTypes.typeOf(uri), res -> {
+            handleNon2xx(uri, res);
+            LOG.info("Resource deletion status for {}: {}", uri, res.code());
+            return null;
+        }, e -> new RuntimeException("A problem occurred while attempting to delete a Resource", e))
+                .whenComplete((v, e) -> invalidate(uri));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#readResource(URI, Class)
+     *
+     * @param uri uri
+     * @param modelClass modelClass
+     * @return future PASS entity
+     * @param <T> PASS entity type
+     */
+    public <T extends PassEntity> CompletableFuture<T> readResourceAsync(URI uri, Class<T> modelClass) {
+        EntityCache cache = this.cache;
+        EntityCache.Entry cached = cache != null && uri != null ? cache.get(uri, modelClass) : null;
+
+        Supplier<Request> request = () -> {
+            Request.Builder reqBuilder = new Request.Builder()
+                    .url(uri.toString())
+                    .get()
+                    .addHeader(ACCEPT_HEADER, COMPACTED_ACCEPTTYPE)
+                    .addHeader(PREFER_HEADER, "return=representation; omit=\"" + SERVER_MANAGED_OMITTYPE + "\"");
+            if (cached != null) {
+                reqBuilder.addHeader(IFNONEMATCH_HEADER, cached.etag);
+            }
+            return reqBuilder.build();
+        };
+
+        return enqueue(request, Operation.READ, PassClientMetrics.entityType(modelClass), res -> {
+            LOG.info("Resource read status for {}: {}", uri, res.code());
+            if (cached != null && res.code() == HttpStatus.SC_NOT_MODIFIED) {
+                return cache.revalidated(uri, cached, modelClass);
+            }
+            handleNon2xx(uri, res);
+
+            String etag = res.header(ETAG_HEADER);
+            T model;
+            if (cache != null) {
+                CountingSource body = new CountingSource(res.body().source());
+                model = adapter.toModel(Okio.buffer(body).inputStream(), modelClass);
+                model.setVersionTag(versionTag(etag));
+                cache.put(uri, model, etag, body.count);
+            } else {
+                model = adapter.toModel(res.body().byteStream(), modelClass);
+                model.setVersionTag(versionTag(etag));
+            }
+            return model;
+        }, e -> new RuntimeException("A problem occurred while attempting to read a Resource", e));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#getIncoming(URI)
+     *
+     * @param passEntityUri pass entity URI
+     * @return future map
+     */
+    public CompletableFuture<Map<String, Collection<URI>>> getIncomingAsync(URI passEntityUri) {
+        Supplier<Request> request = () -> new Request.Builder()
+                .url(passEntityUri.toString())
+                .get()
+                .addHeader(ACCEPT_HEADER, COMPACTED_ACCEPTTYPE)
+                .addHeader(PREFER_HEADER, "return=representation; include=\"" + INCOMING_INCLUDETYPE + "\"; omit=\""
+                        + SERVER_MANAGED_OMITTYPE + "\"")
+                .build();
+
+        return enqueue(request, Operation.INCOMING, containerTypes.typeOf(passEntityUri), res -> {
+            handleNon2xx(passEntityUri, res);
+            LOG.info("Resource read status: for {}: {}", passEntityUri, res.code());
+            return parseIncoming(passEntityUri, res.body().byteStream());
+        }, e -> new RuntimeException("A problem occurred while attempting to read a Resource", e));
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.AsyncPassClient#upload(URI, InputStream, Map)
+     *
+     * @param passEntityUri PASS entity
+     * @param content content to upload
+     * @param params parameters
+     * @return future URI of uploaded content
+     */
+    public CompletableFuture<URI> uploadAsync(URI passEntityUri, InputStream content, Map<String, ?> params) {
+        return enqueue(() -> uploadRequest(passEntityUri, content, params), Operation.UPLOAD,
+                containerTypes.typeOf(passEntityUri), res -> {
+            handleNon2xx(passEntityUri, res);
+            return URI.create(res.header(LOCATION_HEADER));
+        }, e -> new RuntimeException("An problem occurred while POSTing binary content to Resource " +
+                passEntityUri + ": " + e.getMessage(), e));
+    }
+
+    private Request uploadRequest(URI passEntityUri, InputStream content, Map<String, ?> params) {
+        String contentType = params.containsKey("content-type")
+                ? (String) params.get("content-type") : DEFAULT_BINARY_CONTENTTYPE;
+
+        Request.Builder reqBuilder = new Request.Builder()
+                .url(passEntityUri.toString())
+                .post(streamingBody(MediaType.parse(contentType), content));
+
+        if (params.containsKey("slug")) {
+            reqBuilder.addHeader(SLUG_HEADER, (String) params.get("slug"));
+        }
+
+        StringJoiner digest = new StringJoiner(", ");
+        for (String alg : new String[] {"sha256", "md5", "sha1"}) {
+            if (params.containsKey(alg)) {
+                digest.add(alg + "=" + params.get(alg));
+            }
+        }
+        if (digest.length() > 0) {
+            reqBuilder.addHeader(DIGEST_HEADER, digest.toString());
+        }
+
+        if (params.containsKey("filename")) {
+            try {
+                reqBuilder.addHeader(CONTENT_DISPOSITION_HEADER, "attachment; filename=\""
+                        + URLEncoder.encode((String) params.get("filename"), "utf-8") + "\"");
+            } catch (UnsupportedEncodingException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        return reqBuilder.build();
     }
 
     private <T extends PassEntity> T createInternal(T modelObj, boolean includeContext) {
+        Request request = createRequest(modelObj);
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
+        try (Response res = okHttpClient.newCall(request).execute()) {
+            status = res.code();
+            return handleCreateResponse(modelObj, res);
+        } catch (Exception e) {
+            throw createException(e);
+        } finally {
+            record(Operation.CREATE, entityType(modelObj), status, start);
+        }
+    }
+
+    private <T extends PassEntity> CompletableFuture<T> createInternalAsync(T modelObj) {
+        return enqueue(() -> createRequest(modelObj), Operation.CREATE, entityType(modelObj),
+                res -> handleCreateResponse(modelObj, res), FedoraPassCrudClient::createException);
+    }
+
+    private <T extends PassEntity> Request createRequest(T modelObj) {
         byte[] json = adapter.toJson(modelObj, true);
         RequestBody body = RequestBody.create(MediaType.parse(JSONLD_CONTENTTYPE), json);
 
@@ -448,20 +930,45 @@ public class FedoraPassCrudClient {
                 .addHeader(ACCEPT_HEADER, COMPACTED_ACCEPTTYPE)
                 .addHeader(PREFER_HEADER, "return=representation; omits=\"" + SERVER_MANAGED_OMITTYPE + "\"");
 
-        try (Response res = okHttpClient.newCall(reqBuilder.build()).execute()) {
-            handleNon2xx(modelObj, res);
+        return reqBuilder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends PassEntity> T handleCreateResponse(T modelObj, Response res) throws IOException {
+        handleNon2xx(modelObj, res);
 
-            PassEntity entity = adapter.toModel(res.body().byteStream(), modelObj.getClass());
-            LOG.info("Creation status and location: {}: {}", res.code(), entity.getId());
+        PassEntity entity = adapter.toModel(res.body().byteStream(), modelObj.getClass());
+        LOG.info("Creation status and location: {}: {}", res.code(), entity.getId());
 
-            return (T) entity;
+        return (T) entity;
+    }
+
+    private static RuntimeException createException(Exception e) {
+        return new RuntimeException("A problem occurred while attempting to create a Resource: " +
+                e.getMessage(), e);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends PassEntity> T updateInternal(T modelObj, boolean includeContext, boolean performRead) {
+        Request request = updateRequest(modelObj);
+        long start = System.nanoTime();
+        int status = PassClientMetrics.NO_STATUS;
+        try (Response res = okHttpClient.newCall(request).execute()) {
+            status = res.code();
+            handleUpdateResponse(modelObj, res);
+        } catch (UpdateConflictException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("A problem occurred while attempting to create a Resource: " +
-                    e.getMessage(), e);
+            throw updateException(modelObj, e);
+        } finally {
+            record(Operation.UPDATE, entityType(modelObj), status, start);
+            invalidate(modelObj.getId());
         }
+
+        return performRead ? readResource(modelObj.getId(), (Class<T>) modelObj.getClass()) : null;
     }
 
-    private <T extends PassEntity> T updateInternal(T modelObj, boolean includeContext, boolean performRead) {
+    private Request updateRequest(PassEntity modelObj) {
         byte[] json = adapter.toJson(modelObj, true);
 
         Request.Builder reqBuilder = new Request.Builder()
@@ -483,30 +990,394 @@ public class FedoraPassCrudClient {
                     modelObj.getClass().getName(), modelObj.getId());
         }
 
-        try (Response res = okHttpClient.newCall(reqBuilder.build()).execute()) {
-            if (res.code() == HttpStatus.SC_PRECONDITION_FAILED) {
-                String msg = format("Failed to update %s - the data may have changed since %s was last retrieved.",
-                        modelObj.getId(), modelObj.getId());
-                throw new UpdateConflictException(msg);
+        return reqBuilder.build();
+    }
+
+    private static void handleUpdateResponse(PassEntity modelObj, Response res) throws IOException {
+        if (res.code() == HttpStatus.SC_PRECONDITION_FAILED) {
+            String msg = format("Failed to update %s - the data may have changed since %s was last retrieved.",
+                    modelObj.getId(), modelObj.getId());
+            throw new UpdateConflictException(msg);
+        }
+        LOG.info("Resource update status for {}: {}", modelObj.getId(), res.code());
+        handleNon2xx(modelObj, res);
+    }
+
+    private static RuntimeException updateException(PassEntity modelObj, Exception e) {
+        String msg = format("A problem occurred while attempting to update Resource %s: %s ",
+                modelObj.getId(), e.getMessage());
+        return new RuntimeException(msg, e);
+    }
+
+    /**
+     * Record the timing of a request to Fedora
+     * @param operation kind of operation
+     * @param type entity type, may be {@code null}
+     * @param status HTTP status, or {@link PassClientMetrics#NO_STATUS}
+     * @param start {@link System#nanoTime()} when the request was sent
+     */
+    private void record(Operation operation, PassEntityType type, int status, long start) {
+        metrics.record(Backend.FEDORA, operation, type, status, System.nanoTime() - start);
+    }
+
+    private static PassEntityType entityType(PassEntity modelObj) {
+        return modelObj != null ? PassClientMetrics.entityType(modelObj.getClass()) : null;
+    }
+
+    /**
+     * Get the HTTP status of a failed request, from the first {@link FcrepoOperationFailedException} in the cause
+     * chain
+     * @param e exception
+     * @return status, or {@link PassClientMetrics#NO_STATUS} if there was no response
+     */
+    private static int statusOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FcrepoOperationFailedException) {
+                return ((FcrepoOperationFailedException) cause).getStatusCode();
             }
-            LOG.info("Resource update status for {}: {}", modelObj.getId(), res.code());
-            handleNon2xx(modelObj, res);
-        } catch (UpdateConflictException e) {
-            throw e;
-        } catch (Exception e) {
-            String msg = format("A problem occurred while attempting to update Resource %s: %s ",
-                    modelObj.getId(), e.getMessage());
-            throw new RuntimeException(msg, e);
         }
+        return PassClientMetrics.NO_STATUS;
+    }
 
-        return performRead ? readResource(modelObj.getId(), (Class<T>) modelObj.getClass()) : null;
+    /**
+     * Drop a resource from the read cache, if there is one, after it has been written
+     * @param uri resource URI
+     */
+    private void invalidate(URI uri) {
+        EntityCache cache = this.cache;
+        if (cache != null && uri != null) {
+            cache.invalidate(uri);
+        }
+    }
+
+    /**
+     * Start an asynchronous operation for each item, with at most {@code bulkConcurrency} operations in flight at
+     * once, and wait for them all to complete.
+     * <p>
+     * The operations share the OkHttp connection pool and dispatcher, so the number actually executing against
+     * Fedora at once is also limited by {@code pass.fedora.http.maxrequestsperhost}. Failure of an individual item
+     * is recorded in the result rather than thrown, results are reported in the order the items were supplied.
+     * </p>
+     * @param items items to process
+     * @param key derives the result key for an item
+     * @param operation starts the operation for an item
+     * @return bulk result
+     * @throws IllegalArgumentException if an item has a {@code null} key, or two items have the same key, as each 
+     *         item must appear in the result exactly once
+     */
+    private <I, K, V> BulkResult<K, V> pipeline(Collection<I> items, Function<I, K> key,
+            Function<I, CompletableFuture<V>> operation) {
+        List<K> keys = new ArrayList<>(items.size());
+        Set<K> distinct = new HashSet<>();
+        for (I item : items) {
+            K itemKey = key.apply(item);
+            if (itemKey == null) {
+                throw new IllegalArgumentException("Each item in a bulk operation must have a URI");
+            }
+            if (!distinct.add(itemKey)) {
+                throw new IllegalArgumentException(itemKey + " appears more than once in a bulk operation");
+            }
+            keys.add(itemKey);
+        }
+
+        BulkResult<K, V> result = new BulkResult<>();
+        Semaphore inFlight = new Semaphore(bulkConcurrency);
+        List<CompletableFuture<V>> futures = new ArrayList<>(items.size());
+
+        try {
+            for (I item : items) {
+                inFlight.acquire();
+                CompletableFuture<V> future;
+                try {
+                    future = operation.apply(item);
+                } catch (RuntimeException e) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                }
+                future.whenComplete((v, e) -> inFlight.release());
+                futures.add(future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Interrupted while waiting for bulk operation to complete", e);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            try {
+                result.addSuccess(keys.get(i), futures.get(i).join());
+            } catch (CompletionException e) {
+                addFailure(result, keys.get(i), e.getCause());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Record the failure of an item in a bulk result, as a conflict if it is an {@link UpdateConflictException}
+     * @param result bulk result
+     * @param key item key
+     * @param cause cause of the failure
+     */
+    private static <K> void addFailure(BulkResult<K, ?> result, K key, Throwable cause) {
+        if (cause instanceof UpdateConflictException) {
+            result.addConflict(key, (UpdateConflictException) cause);
+        } else if (cause instanceof Exception) {
+            result.addFailure(key, (Exception) cause);
+        } else {
+            throw new RuntimeException("A problem occurred while processing " + key, cause);
+        }
+    }
+
+    /**
+     * Enqueue an HTTP request, completing the returned future with the result of the response handler.
+     * <p>
+     * The request is built by the supplier given, so that a failure building it, e.g. because an argument is 
+     * invalid, completes the future exceptionally rather than being thrown to the caller. The handler is run on an
+     * OkHttp dispatcher thread, and the response is always closed once the handler returns.
+     * {@link UpdateConflictException}s are passed through to the future as-is, all other failures are wrapped using
+     * the supplied error function.
+     * </p>
+     * @param request builds the request
+     * @param operation kind of operation, for metrics
+     * @param type entity type, for metrics, may be {@code null}
+     * @param handler converts the response into a result
+     * @param error wraps any exception thrown while performing the request or handling the response
+     * @return future result
+     */
+    private <R> CompletableFuture<R> enqueue(Supplier<Request> request, Operation operation, PassEntityType type,
+            ResponseHandler<R> handler, Function<Exception, RuntimeException> error) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        Request built;
+        try {
+            built = request.get();
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        long start = System.nanoTime();
+
+        okHttpClient.newCall(built).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                record(operation, type, PassClientMetrics.NO_STATUS, start);
+                future.completeExceptionally(error.apply(e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                R result = null;
+                Exception failure = null;
+                try (Response res = response) {
+                    result = handler.handle(res);
+                } catch (Exception e) {
+                    failure = e;
+                }
+
+                // record before completing, so the request is counted by the time anyone waiting sees the result
+                record(operation, type, response.code(), start);
+                if (failure == null) {
+                    future.complete(result);
+                } else if (failure instanceof UpdateConflictException) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.completeExceptionally(error.apply(failure));
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Parse a compacted JSON-LD inbound references response into a map of predicate to incoming URIs
+     * @param passEntityUri the resource the incoming links point to
+     * @param body response body
+     * @return map, may be empty
+     * @throws IOException if the body cannot be parsed
+     */
+    private static Map<String, Collection<URI>> parseIncoming(URI passEntityUri, InputStream body)
+            throws IOException {
+        JsonNode raw = new ObjectMapper().readTree(body);
+        JsonNode graph = raw.withArray("@graph");
+
+        if (graph == null || graph.size() < 1) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Collection<URI>> result = new ConcurrentHashMap<>();
+
+        graph.elements().forEachRemaining((node) -> {
+            if (!node.has("@id")) {
+                return;
+            }
+
+            URI incomingLink = URI.create(node.get("@id").asText());
+
+            // Filter out any nodes in the graph that refer to the requested PASS entity
+            // Remaining nodes in the graph are incoming links
+            if (passEntityUri.toString().equals(incomingLink.toString())) {
+                return;
+            }
+
+            node.fieldNames().forEachRemaining(field -> {
+                if ("@id".equals(field)) {
+                    return;
+                }
+
+                Collection<URI> uris = result.getOrDefault(field, new HashSet<>());
+                uris.add(incomingLink);
+                result.putIfAbsent(field, uris);
+            });
+        });
+
+        return result;
+    }
+
+    /**
+     * Parse a compacted JSON-LD inbound references response token by token, passing the ID of each node in the 
+     * graph that has the predicate to the processor. Only the current node's ID is held, so memory use does not 
+     * grow with the number of incoming links.
+     * @param passEntityUri the resource the incoming links point to
+     * @param field predicate to match
+     * @param body response body
+     * @param processor given each matching incoming URI
+     * @return number of incoming URIs processed
+     * @throws IOException if the body cannot be parsed
+     */
+    private static int parseIncoming(URI passEntityUri, String field, InputStream body, Consumer<URI> processor) 
+            throws IOException {
+        String passEntityId = passEntityUri.toString();
+        int count = 0;
+
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !GRAPH_KEY.equals(name)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                for (JsonToken node = parser.nextToken(); node != null && node != JsonToken.END_ARRAY; 
+                        node = parser.nextToken()) {
+                    if (node != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    String id = null;
+                    boolean linked = false;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String nodeField = parser.getCurrentName();
+                        parser.nextToken();
+                        if (ID_KEY.equals(nodeField)) {
+                            id = parser.getValueAsString();
+                        } else if (field.equals(nodeField)) {
+                            linked = true;
+                        }
+                        parser.skipChildren();
+                    }
+
+                    // Nodes that refer to the requested PASS entity are not incoming links
+                    if (linked && id != null && !passEntityId.equals(id)) {
+                        processor.accept(URI.create(id));
+                        count++;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Remove the weak etag prefix, it is not needed for version comparison
+     * @param etag etag header value, may be null
+     * @return version tag
+     */
+    private static String versionTag(String etag) {
+        if (etag != null && etag.contains(ETAG_WEAK_PREFIX)) {
+            return etag.replace(ETAG_WEAK_PREFIX, "");
+        }
+        return etag;
+    }
+
+    /**
+     * Request body that streams the supplied content, rather than buffering it in memory
+     * @param contentType content type
+     * @param content content
+     * @return request body
+     */
+    private static RequestBody streamingBody(MediaType contentType, InputStream content) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.writeAll(Okio.source(content));
+            }
+        };
     }
 
     private static <T extends PassEntity> void handleNon2xx(T modelObj, Response res) throws IOException {
         if (res.code() < 200 || res.code() > 299) {
             String msg = format("Failed to update %s - unexpected status code %s: %s",
                     modelObj.getId(), res.code(), res.body().string());
-            throw new RuntimeException(msg);
+            throw new RuntimeException(msg, statusException(res));
+        }
+    }
+
+    private static void handleNon2xx(URI uri, Response res) throws IOException {
+        if (res.code() < 200 || res.code() > 299) {
+            String msg = format("Request for %s failed - unexpected status code %s: %s",
+                    uri, res.code(), res.body().string());
+            throw new RuntimeException(msg, statusException(res));
+        }
+    }
+
+    /**
+     * Describe an unexpected response as the Fedora client would, so that callers can find the HTTP status in the
+     * cause of a failure whichever client made the request
+     * @param res response
+     * @return exception carrying the request URI and response status
+     */
+    private static FcrepoOperationFailedException statusException(Response res) {
+        return new FcrepoOperationFailedException(res.request().url().uri(), res.code(), res.message());
+    }
+
+    /**
+     * Converts an HTTP response into a result
+     * @param <R> result type
+     */
+    @FunctionalInterface
+    private interface ResponseHandler<R> {
+        R handle(Response response) throws IOException;
+    }
+
+    /**
+     * Counts the bytes read through it, so the size of a response can be known without buffering it
+     */
+    private static class CountingSource extends ForwardingSource {
+
+        private long count = 0;
+
+        CountingSource(Source delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
         }
     }
 
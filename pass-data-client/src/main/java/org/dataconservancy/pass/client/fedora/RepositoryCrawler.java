@@ -17,12 +17,27 @@
 package org.dataconservancy.pass.client.fedora;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Crawl/walk through a hierarchy of containers in a repository.
@@ -30,6 +45,13 @@ import java.util.regex.Pattern;
  * Given a URI of an LDP container, this class will visit all its children, their childrens children, etc up to a
  * provided depth and invoke given {@link Consumer}. It is designed to handle an arbitrary large number of resources.
  * </p>
+ * <p>
+ * By default the crawl is depth-first on the calling thread. A crawler constructed with a {@link ForkJoinPool}
+ * instead lists sibling containers concurrently on the pool, and the visitor may be invoked either concurrently
+ * from the pool's threads or one resource at a time. Either way, the order in which resources are visited is not
+ * defined in parallel mode. If the visitor throws, the rest of the parallel crawl is abandoned and the exception is
+ * thrown from {@code visit}.
+ * </p>
  *
  * @author apb@jhu.edu
  */
@@ -37,6 +59,35 @@ public class RepositoryCrawler {
 
     Lister repo = new FcrepoLister();
 
+    /** Pool for parallel crawls, null to crawl on the calling thread */
+    private final ForkJoinPool pool;
+
+    /** True if the visitor may be invoked from several threads at once */
+    private final boolean concurrentVisits;
+
+    /** Most tasks forked at once for the children of a container in a parallel crawl */
+    static final int FORK_BATCH = 64;
+
+    /**
+     * Create a crawler that visits resources depth-first on the calling thread.
+     */
+    public RepositoryCrawler() {
+        this(null, false);
+    }
+
+    /**
+     * Create a crawler that lists containers in parallel.
+     *
+     * @param pool Pool used to list containers and visit resources, its parallelism sets how many containers are
+     *        listed at once. If null, resources are visited depth-first on the calling thread.
+     * @param concurrentVisits If true, the visitor is invoked concurrently from the pool's threads and so must be
+     *        thread-safe. If false, the visitor is invoked for one resource at a time.
+     */
+    public RepositoryCrawler(ForkJoinPool pool, boolean concurrentVisits) {
+        this.pool = pool;
+        this.concurrentVisits = concurrentVisits;
+    }
+
     // Does the resource URI have a path that is like /acls/, /.acl, etc?
     static final Pattern ACL_PATTERN = Pattern.compile(".+/\\.*acls*(?=/|$).*");
 
@@ -72,7 +123,63 @@ public class RepositoryCrawler {
      */
     public int visit(final URI resource, final Consumer<URI> visitor, Predicate<State> ignore,
             Predicate<State> skip) {
-        return _visit(resource, visitor, new State(0, null, resource), ignore, skip);
+        final State root = new State(0, null, resource);
+
+        if (pool == null) {
+            return _visit(resource, visitor, root, ignore, skip);
+        }
+
+        final Consumer<URI> parallelVisitor;
+        if (concurrentVisits) {
+            parallelVisitor = visitor;
+        } else {
+            final Object lock = new Object();
+            parallelVisitor = uri -> {
+                synchronized (lock) {
+                    visitor.accept(uri);
+                }
+            };
+        }
+
+        return pool.invoke(new VisitTask(new Crawl(parallelVisitor, ignore, skip), root));
+    }
+
+    /**
+     * Lazily crawl a container and its children.
+     * <p>
+     * Returns the same resources as {@link #visit(URI, Consumer, Predicate, Predicate)} would visit, in the same
+     * depth-first order, but a container's children are only listed once the stream has advanced past the container
+     * itself. Only the listings of containers on the path to the current resource are held in memory, and a stream
+     * that is short-circuited, for example with {@code limit()} or {@code findFirst()}, lists no more containers than
+     * it needs to. The crawl always runs on the thread consuming the stream, regardless of how this crawler was
+     * constructed.
+     * </p>
+     *
+     * @param resource URI of the resource to start from
+     * @param ignore Predicate which, when true, will cause a given resource to be left out of the stream, see
+     *        {@link #visit(URI, Consumer, Predicate, Predicate)}
+     * @param skip Predicate which, when true, tells the crawler not to list a resource's children, see
+     *        {@link #visit(URI, Consumer, Predicate, Predicate)}
+     * @return stream of resource URIs
+     */
+    public Stream<URI> stream(final URI resource, Predicate<State> ignore, Predicate<State> skip) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(resource, ignore, skip),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Lazily crawl a container and its children.
+     * <p>
+     * Iterator equivalent of {@link #stream(URI, Predicate, Predicate)}.
+     * </p>
+     *
+     * @param resource URI of the resource to start from
+     * @param ignore Predicate which, when true, will cause a given resource to be left out of the iteration
+     * @param skip Predicate which, when true, tells the crawler not to list a resource's children
+     * @return iterator of resource URIs
+     */
+    public Iterator<URI> iterator(final URI resource, Predicate<State> ignore, Predicate<State> skip) {
+        return new CrawlIterator(new State(0, null, resource), ignore, skip);
     }
 
     private int _visit(final URI resource, final Consumer<URI> visitor, State state, Predicate<State> ignore,
@@ -111,6 +218,228 @@ public class RepositoryCrawler {
         return count;
     }
 
+    /**
+     * Depth-first iterator that lists a container's children only when it is advanced past the container.
+     */
+    private class CrawlIterator implements Iterator<URI> {
+
+        /** Remaining siblings at each level of the path to the current resource */
+        private final Deque<Iterator<URI>> siblings = new ArrayDeque<>();
+
+        /** States of the resources whose siblings are held in the corresponding level of siblings */
+        private final Deque<State> parents = new ArrayDeque<>();
+
+        private final Predicate<State> ignore;
+
+        private final Predicate<State> terminal;
+
+        /** Resource most recently crawled, whose children are yet to be listed */
+        private State toExpand;
+
+        private State next;
+
+        CrawlIterator(State root, Predicate<State> ignore, Predicate<State> terminal) {
+            this.ignore = ignore;
+            this.terminal = terminal;
+            this.toExpand = null;
+            this.next = root;
+            if (ignore.test(root)) {
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && toExpand != null) {
+                advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public URI next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            toExpand = next;
+            next = null;
+            return toExpand.id;
+        }
+
+        /**
+         * Move on to the next resource that is not ignored, listing children as needed
+         */
+        private void advance() {
+            State current = toExpand != null ? toExpand : next;
+            toExpand = null;
+            next = null;
+
+            while (current != null) {
+                if (!terminal.test(current)) {
+                    final Collection<URI> children = repo.getChildren(current.id);
+                    if (!children.isEmpty()) {
+                        siblings.push(children.iterator());
+                        parents.push(current);
+                    }
+                }
+
+                current = null;
+                while (current == null && !siblings.isEmpty()) {
+                    if (siblings.peek().hasNext()) {
+                        final State parent = parents.peek();
+                        current = new State(parent.depth + 1, parent.id, siblings.peek().next());
+                    } else {
+                        siblings.pop();
+                        parents.pop();
+                    }
+                }
+
+                if (current != null && !ignore.test(current)) {
+                    next = current;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Shared state of a parallel crawl
+     */
+    private static class Crawl {
+
+        final Consumer<URI> visitor;
+
+        final Predicate<State> ignore;
+
+        final Predicate<State> terminal;
+
+        /** Set once any task fails, so that the rest of the crawl stops listing and visiting */
+        final AtomicBoolean aborted = new AtomicBoolean();
+
+        Crawl(Consumer<URI> visitor, Predicate<State> ignore, Predicate<State> terminal) {
+            this.visitor = visitor;
+            this.ignore = ignore;
+            this.terminal = terminal;
+        }
+
+        /**
+         * Stop the crawl after a failure, cancelling forked tasks that will not be joined
+         * @param unjoined tasks forked but not yet joined
+         */
+        void abort(List<? extends ForkJoinTask<?>> unjoined) {
+            aborted.set(true);
+            unjoined.forEach(task -> task.cancel(false));
+        }
+    }
+
+    /**
+     * Visits a resource in the pool, then crawls its children.
+     */
+    private class VisitTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Crawl crawl;
+
+        private final State state;
+
+        VisitTask(Crawl crawl, State state) {
+            this.crawl = crawl;
+            this.state = state;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (crawl.aborted.get()) {
+                return 0;
+            }
+            final Collection<URI> children = crawl.terminal.test(state) ? emptyList() : repo.getChildren(state.id);
+
+            // Fork the children first, so other threads can crawl them while this resource is visited
+            final List<ChildrenTask> tasks = children.isEmpty() ? emptyList() : singletonList(
+                    new ChildrenTask(crawl, state, children instanceof List 
+                            ? (List<URI>) children : new ArrayList<>(children)));
+            tasks.forEach(ChildrenTask::fork);
+
+            int count = 0;
+            try {
+                if (!crawl.ignore.test(state)) {
+                    count++;
+                    crawl.visitor.accept(state.id);
+                }
+                for (final ChildrenTask task : tasks) {
+                    count += task.join();
+                }
+            } catch (final Throwable e) {
+                crawl.abort(tasks);
+                throw e;
+            }
+
+            return count;
+        }
+    }
+
+    /**
+     * Crawls some of the children of a container. More than {@link #FORK_BATCH} children are split in half, and a 
+     * task is forked for each child only once there are no more than that, so a container with a very large number 
+     * of children does not flood the pool with tasks.
+     */
+    private class ChildrenTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Crawl crawl;
+
+        private final State parent;
+
+        private final List<URI> children;
+
+        ChildrenTask(Crawl crawl, State parent, List<URI> children) {
+            this.crawl = crawl;
+            this.parent = parent;
+            this.children = children;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (crawl.aborted.get()) {
+                return 0;
+            }
+
+            if (children.size() > FORK_BATCH) {
+                final int middle = children.size() / 2;
+                final ChildrenTask second = new ChildrenTask(crawl, parent, children.subList(middle, children.size()));
+                second.fork();
+                try {
+                    return new ChildrenTask(crawl, parent, children.subList(0, middle)).compute() + second.join();
+                } catch (final Throwable e) {
+                    crawl.abort(singletonList(second));
+                    throw e;
+                }
+            }
+
+            final List<VisitTask> tasks = new ArrayList<>(children.size());
+            for (final URI child : children) {
+                final VisitTask task = new VisitTask(crawl, new State(parent.depth + 1, parent.id, child));
+                task.fork();
+                tasks.add(task);
+            }
+
+            int count = 0;
+            int i = tasks.size();
+            try {
+                while (i > 0) {
+                    count += tasks.get(--i).join();
+                }
+            } catch (final Throwable e) {
+                crawl.abort(tasks.subList(0, i));
+                throw e;
+            }
+
+            return count;
+        }
+    }
+
     /**
      * Represents repository crawling state.
      *
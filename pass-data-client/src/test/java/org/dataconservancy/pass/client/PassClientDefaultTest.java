@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
+import org.dataconservancy.pass.client.fedora.FedoraPassCrudClient;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.test.fedora.LocalFedoraServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the parts of {@link PassClientDefault} that combine the index and the repository against the local Fedora
+ * stand-in, with the index mocked
+ */
+public class PassClientDefaultTest {
+
+    private static final String BASEURL_KEY = "pass.fedora.baseurl";
+
+    private LocalFedoraServer fedora;
+
+    private ElasticsearchPassClient indexClient;
+
+    private PassClientDefault client;
+
+    @Before
+    public void setUp() {
+        fedora = new LocalFedoraServer().start();
+        System.setProperty(BASEURL_KEY, fedora.getBaseUrl());
+        indexClient = mock(ElasticsearchPassClient.class);
+        client = new PassClientDefault(new FedoraPassCrudClient(), indexClient);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        fedora.close();
+        System.clearProperty(BASEURL_KEY);
+    }
+
+    /* Verified entities are re-read from the repository, and those deleted since they were indexed are dropped */
+    @Test
+    public void testFindAllEntitiesByAttributesVerify() {
+        Grant grant = new Grant();
+        grant.setLocalKey("verify");
+        grant.setAwardNumber("indexed");
+        grant.setId(client.createResource(grant));
+        Grant deleted = new Grant();
+        deleted.setLocalKey("verify");
+        deleted.setId(client.createResource(deleted));
+        client.deleteResource(deleted.getId());
+
+        Grant updated = client.readResource(grant.getId(), Grant.class);
+        updated.setAwardNumber("current");
+        client.updateResource(updated);
+
+        Map<String, Object> attributes = singletonMap("localKey", "verify");
+        when(indexClient.findAllEntitiesByAttributes(eq(Grant.class), eq(attributes), anyInt(), anyInt()))
+            .thenReturn(Arrays.asList(grant, deleted));
+
+        List<Grant> verified = client.findAllEntitiesByAttributes(Grant.class, attributes, 10, 0, true);
+        assertEquals(1, verified.size());
+        assertEquals(grant.getId(), verified.get(0).getId());
+        assertEquals("current", verified.get(0).getAwardNumber());
+        assertNotNull(verified.get(0).getVersionTag());
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.dataconservancy.pass.client.fedora.FedoraConfig;
+import org.dataconservancy.pass.model.Grant;
+import org.junit.Test;
+
+/**
+ * Makes sure a program that uses a {@link PassClient} without closing it still exits when {@code main} returns, as
+ * it did before the client held on to connection pools and their threads
+ */
+public class UnclosedClientExitTest {
+
+    private static final long EXIT_TIMEOUT_SECONDS = 30;
+
+    /* A lookup through an unclosed client does not keep the JVM alive */
+    @Test
+    public void testIndexLookupExits() throws Exception {
+        assertExits("index", "-Dpass.elasticsearch.url=http://localhost:" + closedPort() + "/pass");
+    }
+
+    /* A synchronous bulk read, which runs on the HTTP client's dispatcher, does not keep the JVM alive */
+    @Test
+    public void testBulkReadExits() throws Exception {
+        assertExits("bulk", "-Dpass.fedora.baseurl=http://localhost:" + closedPort() + "/fcrepo/rest/");
+    }
+
+    private static void assertExits(String lookup, String property) throws Exception {
+        Process process = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"),
+                property,
+                UnclosedClient.class.getName(), lookup)
+                .inheritIO()
+                .start();
+
+        boolean exited = process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!exited) {
+            process.destroyForcibly();
+        }
+        assertTrue("JVM did not exit with the client left open", exited);
+        assertEquals(0, process.exitValue());
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Does a lookup against an index, or a bulk read from a repository, that is not there, and returns from 
+     * {@code main} without closing the client
+     */
+    public static class UnclosedClient {
+
+        public static void main(String[] args) {
+            PassClient client = new PassClientDefault();
+            try {
+                if (args[0].equals("index")) {
+                    client.findByAttribute(Grant.class, "localKey", "unclosed");
+                } else {
+                    client.readResources(singletonList(URI.create(FedoraConfig.getBaseUrl() + "grants/1")), 
+                            Grant.class);
+                }
+            } catch (RuntimeException e) {
+                // expected, nothing is listening; the client has still started its threads
+            }
+        }
+
+    }
+
+}
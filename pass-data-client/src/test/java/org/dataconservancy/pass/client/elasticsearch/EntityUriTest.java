@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.search.SearchHit;
+import org.junit.Test;
+
+/**
+ * Tests reading the ID of a record from a search hit without parsing the whole source
+ * @author Karen Hanson
+ */
+public class EntityUriTest {
+
+    private static final String ID = "http://example.org/fcrepo/rest/submissions/a%2Fb";
+
+    /* The ID is found after other fields, nested objects and arrays, including ones holding their own @id */
+    @Test
+    public void testIdAfterOtherFields() throws Exception {
+        String source = "{\"@type\":\"Submission\",\"metadata\":\"{\\\"title\\\":\\\"A \\\\\\\"quoted\\\\\\\" title\\\"}\","
+                + "\"submitter\":{\"@id\":\"http://example.org/users/1\"},"
+                + "\"repositories\":[\"http://example.org/repositories/1\",{\"@id\":\"x\"}],"
+                + "\"@id\":\"" + ID + "\",\"source\":\"pass\"}";
+        assertEquals(URI.create(ID), ElasticsearchPassClient.entityUri(hit(source)));
+    }
+
+    /* The source filtered down to just the ID */
+    @Test
+    public void testIdOnly() throws Exception {
+        assertEquals(URI.create(ID), ElasticsearchPassClient.entityUri(hit("{\"@id\":\"" + ID + "\"}")));
+    }
+
+    /* A record without a top level ID is rejected */
+    @Test(expected = URISyntaxException.class)
+    public void testNoId() throws Exception {
+        ElasticsearchPassClient.entityUri(hit("{\"submitter\":{\"@id\":\"http://example.org/users/1\"}}"));
+    }
+
+    /* A hit without source is rejected */
+    @Test(expected = URISyntaxException.class)
+    public void testNoSource() throws Exception {
+        ElasticsearchPassClient.entityUri(new SearchHit(1));
+    }
+
+    private static SearchHit hit(String source) {
+        return new SearchHit(1).sourceRef(new BytesArray(source));
+    }
+
+}
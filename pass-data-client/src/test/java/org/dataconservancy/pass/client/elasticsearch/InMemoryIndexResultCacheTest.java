@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dataconservancy.pass.client.PassQuery;
+import org.dataconservancy.pass.client.elasticsearch.IndexResultCache.Key;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Journal;
+import org.dataconservancy.pass.model.User;
+import org.junit.Test;
+
+/**
+ * @author Karen Hanson
+ */
+public class InMemoryIndexResultCacheTest {
+
+    private static final URI USER = URI.create("http://example.org/fcrepo/rest/users/1");
+
+    private static final URI GRANT = URI.create("http://example.org/fcrepo/rest/grants/1");
+
+    /* Keys ignore attribute order and compare values by string form */
+    @Test
+    public void testKeyNormalization() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("awardNumber", "abc");
+        first.put("localKey", 123);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("localKey", "123");
+        second.put("awardNumber", "abc");
+
+        assertEquals(new Key(Grant.class, first, 10, 0), new Key(Grant.class, second, 10, 0));
+        assertEquals(new Key(Grant.class, first, 10, 0).hashCode(), new Key(Grant.class, second, 10, 0).hashCode());
+        assertNotEquals(new Key(Grant.class, first, 10, 0), new Key(Grant.class, first, 10, 10));
+        assertNotEquals(new Key(Grant.class, first, 10, 0), new Key(User.class, first, 10, 0));
+    }
+
+    /* Query keys compare clauses by value, are copied from the query, and differ from attribute keys */
+    @Test
+    public void testQueryKeys() {
+        PassQuery query = new PassQuery().term("localKey", 123).notExists("awardStatus");
+        Key key = new Key(Grant.class, query, 10, 0);
+
+        assertEquals(key, new Key(Grant.class, new PassQuery().term("localKey", "123").notExists("awardStatus"), 10, 0));
+        assertEquals(key.hashCode(), new Key(Grant.class, new PassQuery().term("localKey", "123")
+                .notExists("awardStatus"), 10, 0).hashCode());
+        assertNotEquals(key, new Key(Grant.class, new PassQuery().term("localKey", 123).exists("awardStatus"), 10, 0));
+        assertNotEquals(new Key(Grant.class, new PassQuery().term("localKey", 123), 10, 0),
+                new Key(Grant.class, singletonMap("localKey", 123), 10, 0));
+
+        query.exists("startDate");
+        assertEquals(2, key.getClauses().size());
+    }
+
+    /* Results are returned until invalidated, and only the invalidated type is affected */
+    @Test
+    public void testInvalidateType() {
+        InMemoryIndexResultCache cache = new InMemoryIndexResultCache(10, 60000, 0);
+        Key userKey = new Key(User.class, singletonMap("locatorIds", "jhed:abc"), 2, 0);
+        Key grantKey = new Key(Grant.class, singletonMap("localKey", "123"), 2, 0);
+        cache.put(userKey, singleton(USER), cache.begin(User.class));
+        cache.put(grantKey, singleton(GRANT), cache.begin(Grant.class));
+
+        Set<URI> cached = cache.get(userKey);
+        assertEquals(singleton(USER), cached);
+        cached.clear();
+        assertEquals(singleton(USER), cache.get(userKey));
+
+        cache.invalidate(User.class);
+        assertNull(cache.get(userKey));
+        assertEquals(singleton(GRANT), cache.get(grantKey));
+
+        cache.put(userKey, singleton(USER), cache.begin(User.class));
+        assertEquals(singleton(USER), cache.get(userKey));
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /* A lookup that began before its type was invalidated does not cache what it found */
+    @Test
+    public void testLookupRacingInvalidate() {
+        InMemoryIndexResultCache cache = new InMemoryIndexResultCache(10, 60000, 0);
+        Key userKey = new Key(User.class, singletonMap("locatorIds", "jhed:abc"), 2, 0);
+        Key grantKey = new Key(Grant.class, singletonMap("localKey", "123"), 2, 0);
+
+        long userToken = cache.begin(User.class);
+        long grantToken = cache.begin(Grant.class);
+        cache.invalidate(User.class);
+        cache.put(userKey, singleton(USER), userToken);
+        cache.put(grantKey, singleton(GRANT), grantToken);
+
+        assertNull(cache.get(userKey));
+        assertEquals(singleton(GRANT), cache.get(grantKey));
+
+        cache.put(userKey, singleton(USER), cache.begin(User.class));
+        assertEquals(singleton(USER), cache.get(userKey));
+    }
+
+    /* Lookups of a type that begin within the settle window after it was invalidated are not cached */
+    @Test
+    public void testSettleWindow() {
+        AtomicLong now = new AtomicLong();
+        InMemoryIndexResultCache cache = new InMemoryIndexResultCache(10, 60000, 0, 1000, now::get);
+        Key userKey = new Key(User.class, singletonMap("locatorIds", "jhed:abc"), 2, 0);
+        Key grantKey = new Key(Grant.class, singletonMap("localKey", "123"), 2, 0);
+
+        cache.put(userKey, singleton(USER), cache.begin(User.class));
+        assertEquals(singleton(USER), cache.get(userKey));
+
+        cache.invalidate(User.class);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        long unsettled = cache.begin(User.class);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        cache.put(userKey, singleton(USER), unsettled);
+        assertNull(cache.get(userKey));
+
+        cache.put(grantKey, singleton(GRANT), cache.begin(Grant.class));
+        assertEquals(singleton(GRANT), cache.get(grantKey));
+
+        cache.put(userKey, singleton(USER), cache.begin(User.class));
+        assertEquals(singleton(USER), cache.get(userKey));
+    }
+
+    /* Clearing invalidates every type, including lookups already under way and types not yet seen */
+    @Test
+    public void testClear() {
+        AtomicLong now = new AtomicLong();
+        InMemoryIndexResultCache cache = new InMemoryIndexResultCache(10, 60000, 0, 1000, now::get);
+        Key userKey = new Key(User.class, singletonMap("locatorIds", "jhed:abc"), 2, 0);
+        Key grantKey = new Key(Grant.class, singletonMap("localKey", "123"), 2, 0);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        long userToken = cache.begin(User.class);
+        cache.clear();
+        cache.put(userKey, singleton(USER), userToken);
+        assertNull(cache.get(userKey));
+
+        cache.put(grantKey, singleton(GRANT), cache.begin(Grant.class));
+        assertNull(cache.get(grantKey));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        cache.put(userKey, singleton(USER), cache.begin(User.class));
+        cache.put(grantKey, singleton(GRANT), cache.begin(Grant.class));
+        assertEquals(singleton(USER), cache.get(userKey));
+        assertEquals(singleton(GRANT), cache.get(grantKey));
+    }
+
+    /* Results that matched nothing are only cached when a negative time-to-live is set */
+    @Test
+    public void testNegativeCaching() {
+        Key key = new Key(Journal.class, singletonMap("issns", "1234-5678"), 2, 0);
+
+        InMemoryIndexResultCache noNegative = new InMemoryIndexResultCache(10, 60000, 0);
+        noNegative.put(key, emptySet(), noNegative.begin(Journal.class));
+        assertNull(noNegative.get(key));
+
+        AtomicLong now = new AtomicLong();
+        InMemoryIndexResultCache negative = new InMemoryIndexResultCache(10, 60000, 200, 0, now::get);
+        negative.put(key, emptySet(), negative.begin(Journal.class));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertNotNull(negative.get(key));
+        now.incrementAndGet();
+        assertNull(negative.get(key));
+    }
+
+    /* Least recently used results are evicted when the entry limit is reached */
+    @Test
+    public void testEviction() {
+        InMemoryIndexResultCache cache = new InMemoryIndexResultCache(2, 60000, 0);
+        Map<String, Object> attributes = new HashMap<>();
+        Key[] keys = new Key[3];
+        for (int i = 0; i < keys.length; i++) {
+            attributes.put("localKey", i);
+            keys[i] = new Key(Grant.class, attributes, 2, 0);
+        }
+        cache.put(keys[0], singleton(GRANT), cache.begin(Grant.class));
+        cache.put(keys[1], singleton(GRANT), cache.begin(Grant.class));
+        cache.get(keys[0]);
+        cache.put(keys[2], singleton(GRANT), cache.begin(Grant.class));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(keys[0]));
+        assertNull(cache.get(keys[1]));
+        assertNotNull(cache.get(keys[2]));
+    }
+
+}
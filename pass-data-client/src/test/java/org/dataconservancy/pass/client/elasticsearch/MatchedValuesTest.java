@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests attributing the records found by a multi-value lookup to the values requested
+ * @author Karen Hanson
+ */
+public class MatchedValuesTest {
+
+    private static final URI REPOSITORY = URI.create("http://example.org/fcrepo/rest/repositories/1");
+
+    /* Values are compared by string form, and the original requested value is returned */
+    @Test
+    public void testSingleValue() {
+        Map<String, List<Object>> requested = requested(REPOSITORY, 123);
+
+        assertEquals(singletonList(REPOSITORY), ElasticsearchPassClient.matchedValues(REPOSITORY.toString(), requested));
+        assertEquals(singletonList(123), ElasticsearchPassClient.matchedValues("123", requested));
+        assertEquals(emptyList(), ElasticsearchPassClient.matchedValues("456", requested));
+        assertEquals(emptyList(), ElasticsearchPassClient.matchedValues(null, requested));
+    }
+
+    /* A multi-valued attribute matches each requested value it holds */
+    @Test
+    public void testMultiValued() {
+        Map<String, List<Object>> requested = requested("jhed:abc", "employeeid:1", "jhed:xyz");
+
+        assertEquals(asList("jhed:abc", "employeeid:1"), ElasticsearchPassClient.matchedValues(
+                asList("jhed:abc", "hopkinsid:2", "employeeid:1"), requested));
+    }
+
+    /* Case is ignored only when no requested value matches exactly */
+    @Test
+    public void testCase() {
+        Map<String, List<Object>> requested = requested("AB123", "cd456", "CD456");
+
+        assertEquals(singletonList("AB123"), ElasticsearchPassClient.matchedValues("ab123", requested));
+        assertEquals(singletonList("cd456"), ElasticsearchPassClient.matchedValues("cd456", requested));
+        assertEquals(asList("cd456", "CD456"), ElasticsearchPassClient.matchedValues("Cd456", requested));
+    }
+
+    /* Distinct values with the same string form are all matched */
+    @Test
+    public void testSameStringForm() {
+        Map<String, List<Object>> requested = requested(1, "1", REPOSITORY, REPOSITORY.toString());
+
+        assertEquals(asList(1, "1"), ElasticsearchPassClient.matchedValues("1", requested));
+        assertEquals(asList(REPOSITORY, REPOSITORY.toString()), 
+                ElasticsearchPassClient.matchedValues(REPOSITORY.toString(), requested));
+    }
+
+    private static Map<String, List<Object>> requested(Object... values) {
+        Map<String, List<Object>> requested = new LinkedHashMap<>();
+        for (Object value : values) {
+            requested.computeIfAbsent(value.toString(), string -> new ArrayList<>()).add(value);
+        }
+        return requested;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.net.URI;
+
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Journal;
+import org.junit.Test;
+
+/**
+ * @author Karen Hanson
+ */
+public class EntityCacheTest {
+
+    private static final URI GRANT_1 = URI.create("http://example.org/fcrepo/rest/grants/1");
+
+    private static final URI GRANT_2 = URI.create("http://example.org/fcrepo/rest/grants/2");
+
+    private static final URI GRANT_3 = URI.create("http://example.org/fcrepo/rest/grants/3");
+
+    /* Entries are copied in and out, so changes by the caller do not leak into the cache */
+    @Test
+    public void testCopiesOnPutAndRevalidate() {
+        EntityCache cache = new EntityCache(10, 1000, 60000);
+        Grant grant = grant(GRANT_1, "award-1");
+
+        cache.put(GRANT_1, grant, "\"etag-1\"", 100);
+        grant.setAwardNumber("changed-after-put");
+
+        EntityCache.Entry entry = cache.get(GRANT_1, Grant.class);
+        assertNotNull(entry);
+        assertEquals("\"etag-1\"", entry.etag);
+
+        Grant first = cache.revalidated(GRANT_1, entry, Grant.class);
+        assertEquals("award-1", first.getAwardNumber());
+        first.setAwardNumber("changed-after-read");
+
+        Grant second = cache.revalidated(GRANT_1, cache.get(GRANT_1, Grant.class), Grant.class);
+        assertEquals("award-1", second.getAwardNumber());
+        assertNotSame(first, second);
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getRevalidations());
+        assertEquals(0, cache.getMisses());
+    }
+
+    /* Least recently used entries are evicted first when the entry limit is reached */
+    @Test
+    public void testEvictsLeastRecentlyUsedByCount() {
+        EntityCache cache = new EntityCache(2, 1000, 60000);
+        cache.put(GRANT_1, grant(GRANT_1, "1"), "\"1\"", 10);
+        cache.put(GRANT_2, grant(GRANT_2, "2"), "\"2\"", 10);
+        cache.get(GRANT_1, Grant.class);
+        cache.put(GRANT_3, grant(GRANT_3, "3"), "\"3\"", 10);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get(GRANT_1, Grant.class));
+        assertNull(cache.get(GRANT_2, Grant.class));
+        assertNotNull(cache.get(GRANT_3, Grant.class));
+    }
+
+    /* Entries are evicted to stay under the byte limit, and entries larger than the limit are not held */
+    @Test
+    public void testEvictsByBytes() {
+        EntityCache cache = new EntityCache(10, 100, 60000);
+        cache.put(GRANT_1, grant(GRANT_1, "1"), "\"1\"", 60);
+        cache.put(GRANT_2, grant(GRANT_2, "2"), "\"2\"", 60);
+
+        assertEquals(1, cache.size());
+        assertEquals(60, cache.getBytes());
+        assertNull(cache.get(GRANT_1, Grant.class));
+
+        cache.put(GRANT_3, grant(GRANT_3, "3"), "\"3\"", 101);
+        assertNull(cache.get(GRANT_3, Grant.class));
+        assertEquals(60, cache.getBytes());
+    }
+
+    /* Expired entries are dropped on lookup */
+    @Test
+    public void testExpiresAfterTtl() throws Exception {
+        EntityCache cache = new EntityCache(10, 1000, 1);
+        cache.put(GRANT_1, grant(GRANT_1, "1"), "\"1\"", 10);
+        Thread.sleep(5);
+
+        assertNull(cache.get(GRANT_1, Grant.class));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /* Invalidated entries, entries of another class, and entries without an ETag are not returned */
+    @Test
+    public void testMisses() {
+        EntityCache cache = new EntityCache(10, 1000, 60000);
+        cache.put(GRANT_1, grant(GRANT_1, "1"), "\"1\"", 10);
+        cache.put(GRANT_2, grant(GRANT_2, "2"), null, 10);
+
+        assertNull(cache.get(GRANT_1, Journal.class));
+        assertNull(cache.get(GRANT_2, Grant.class));
+
+        cache.invalidate(GRANT_1);
+        assertNull(cache.get(GRANT_1, Grant.class));
+        assertEquals(0, cache.getBytes());
+        assertEquals(3, cache.getMisses());
+        assertEquals(0, cache.getRevalidations());
+    }
+
+    private static Grant grant(URI id, String awardNumber) {
+        Grant grant = new Grant();
+        grant.setId(id);
+        grant.setAwardNumber(awardNumber);
+        return grant;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+import static org.dataconservancy.pass.client.PassClientMetrics.Backend.FEDORA;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+
+import org.dataconservancy.pass.client.InMemoryPassClientMetrics;
+import org.dataconservancy.pass.client.PassClientMetrics.Operation;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.PassEntityType;
+import org.dataconservancy.pass.test.fedora.LocalFedoraServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Ensures requests made by the Fedora client are recorded in its metrics, tagged by operation, type and status
+ * @author Karen Hanson
+ */
+public class FedoraMetricsTest {
+
+    private static final String BASEURL_KEY = "pass.fedora.baseurl";
+
+    private LocalFedoraServer fedora;
+
+    private FedoraPassCrudClient client;
+
+    private InMemoryPassClientMetrics metrics = new InMemoryPassClientMetrics();
+
+    @Before
+    public void setUp() {
+        fedora = new LocalFedoraServer().start();
+        System.setProperty(BASEURL_KEY, fedora.getBaseUrl());
+        client = new FedoraPassCrudClient().metrics(metrics);
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        fedora.close();
+        System.clearProperty(BASEURL_KEY);
+    }
+
+    /* Each synchronous and asynchronous request is counted once, with the status Fedora returned */
+    @Test
+    public void testRequestsRecorded() throws Exception {
+        URI uri = client.createResource(new Grant());
+        Grant grant = client.readResource(uri, Grant.class);
+        client.readResourceAsync(uri, Grant.class).get();
+        client.updateResource(grant);
+        try {
+            client.updateResource(grant);
+            fail("Update with a stale version tag should be refused");
+        } catch (UpdateConflictException e) {
+            //expected
+        }
+        client.getIncoming(uri);
+        assertEquals(1, client.streamAllEntities(Grant.class).count());
+        client.deleteResource(uri);
+
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.CREATE, PassEntityType.GRANT, 201).getCount());
+        assertEquals(2, metrics.getTimer(FEDORA, Operation.READ, PassEntityType.GRANT, 200).getCount());
+        assertEquals(2, metrics.getCount(FEDORA, Operation.UPDATE));
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.UPDATE, PassEntityType.GRANT, 412).getCount());
+        assertEquals(1, metrics.getErrorCount(FEDORA, Operation.UPDATE));
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.INCOMING, PassEntityType.GRANT, 200).getCount());
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.CRAWL, PassEntityType.GRANT, 200).getCount());
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.DELETE, PassEntityType.GRANT, 204).getCount());
+        assertTrue(metrics.getTimer(FEDORA, Operation.CREATE, PassEntityType.GRANT, 201).getMaxNanos() > 0);
+    }
+
+    /* A request that gets no response is recorded without a status */
+    @Test
+    public void testFailureRecorded() {
+        URI uri = URI.create(fedora.getBaseUrl() + "grants/missing");
+        try {
+            client.readResource(uri, Grant.class);
+            fail("Reading a missing resource should fail");
+        } catch (RuntimeException e) {
+            //expected
+        }
+        fedora.close();
+        try {
+            client.deleteResource(uri);
+            fail("Deleting from a stopped server should fail");
+        } catch (RuntimeException e) {
+            //expected
+        }
+
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.READ, PassEntityType.GRANT, 404).getCount());
+        assertEquals(1, metrics.getTimer(FEDORA, Operation.DELETE, PassEntityType.GRANT, 0).getCount());
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dataconservancy.pass.client.BulkResult;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Submission;
+import org.dataconservancy.pass.model.User;
+import org.dataconservancy.pass.test.fedora.LocalFedoraServer;
+import org.fcrepo.client.FcrepoOperationFailedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the Fedora client against the local Fedora stand-in, to make sure the stand-in answers as the client expects
+ * @author Karen Hanson
+ */
+public class LocalFedoraServerTest {
+
+    private static final String BASEURL_KEY = "pass.fedora.baseurl";
+
+    private LocalFedoraServer fedora;
+
+    private FedoraPassCrudClient client;
+
+    @Before
+    public void setUp() {
+        fedora = new LocalFedoraServer().start();
+        System.setProperty(BASEURL_KEY, fedora.getBaseUrl());
+        client = new FedoraPassCrudClient();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        fedora.close();
+        System.clearProperty(BASEURL_KEY);
+    }
+
+    /* Entities can be created, read, patched, replaced and deleted, and stale updates are refused */
+    @Test
+    public void testCrud() {
+        Grant grant = new Grant();
+        grant.setAwardNumber("award-1");
+        URI uri = client.createResource(grant);
+        assertTrue(uri.toString(), uri.toString().startsWith(fedora.getBaseUrl() + "grants/"));
+
+        Grant read = client.readResource(uri, Grant.class);
+        assertEquals("award-1", read.getAwardNumber());
+        assertNotNull(read.getVersionTag());
+
+        read.setAwardNumber("award-2");
+        Grant updated = client.updateAndReadResource(read, Grant.class);
+        assertEquals("award-2", updated.getAwardNumber());
+        assertNotEquals(read.getVersionTag(), updated.getVersionTag());
+
+        try {
+            client.updateResource(read);
+            fail("Update with a stale version tag should be refused");
+        } catch (UpdateConflictException e) {
+            //expected
+        }
+
+        updated.setLocalKey("key-1");
+        client.overwriteOnUpdate(true).updateResource(updated);
+        assertEquals("key-1", client.readResource(uri, Grant.class).getLocalKey());
+
+        client.deleteResource(uri);
+        try {
+            client.readResource(uri, Grant.class);
+            fail("Deleted resource should not be readable");
+        } catch (RuntimeException e) {
+            //expected
+        }
+    }
+
+    /* Inbound references are reported by the field that holds them, and are dropped when the referrer changes */
+    @Test
+    public void testIncoming() {
+        URI grant = client.createResource(new Grant());
+        Submission submission = new Submission();
+        submission.setGrants(singletonList(grant));
+        URI submissionUri = client.createResource(submission);
+
+        Map<String, Collection<URI>> incoming = client.getIncoming(grant);
+        assertEquals(1, incoming.size());
+        assertEquals(singletonList(submissionUri), new ArrayList<>(incoming.get("grants")));
+
+        client.deleteResource(submissionUri);
+        assertTrue(client.getIncoming(grant).isEmpty());
+    }
+
+    /* Bulk reads report missing resources as failures, and revalidate cached resources rather than re-reading them */
+    @Test
+    public void testReadResources() {
+        EntityCache cache = new EntityCache();
+        client.readCache(cache);
+        URI grant1 = client.createResource(new Grant());
+        URI grant2 = client.createResource(new Grant());
+        URI missing = URI.create(fedora.getBaseUrl() + "grants/missing");
+
+        BulkResult<URI, Grant> result = client.readResources(asList(grant1, missing, grant2), Grant.class);
+        assertEquals(2, result.getSuccesses().size());
+        assertNotNull(result.getSuccesses().get(grant1).getVersionTag());
+        assertTrue(result.getFailures().containsKey(missing));
+        assertEquals(0, cache.getRevalidations());
+
+        result = client.readResources(asList(grant1, grant2), Grant.class);
+        assertEquals(2, result.getSuccesses().size());
+        assertEquals(2, cache.getRevalidations());
+    }
+
+    /* Failed bulk reads keep the HTTP status, 404 for a resource never created and 410 for one deleted */
+    @Test
+    public void testReadResourcesFailureStatus() {
+        URI deleted = client.createResource(new Grant());
+        client.deleteResource(deleted);
+        URI missing = URI.create(fedora.getBaseUrl() + "grants/missing");
+
+        BulkResult<URI, Grant> result = client.readResources(asList(missing, deleted), Grant.class);
+        assertEquals(404, status(result.getFailures().get(missing)));
+        assertEquals(410, status(result.getFailures().get(deleted)));
+    }
+
+    /* Bulk operations refuse items without a URI or with the same URI, as each must be reported exactly once */
+    @Test
+    public void testBulkKeys() {
+        URI grant = client.createResource(new Grant());
+        Grant unsaved = new Grant();
+
+        assertBulkRefused(() -> client.readResources(asList(grant, grant), Grant.class));
+        assertBulkRefused(() -> client.readResources(asList(grant, null), Grant.class));
+        assertBulkRefused(() -> client.deleteResources(asList(grant, grant)));
+        assertBulkRefused(() -> client.updateResources(singletonList(unsaved)));
+        Grant read = client.readResource(grant, Grant.class);
+        assertBulkRefused(() -> client.updateResources(asList(read, read)));
+
+        assertNotNull(client.readResource(grant, Grant.class));
+    }
+
+    /* Incoming links can be filtered to one field, and streamed to a consumer */
+    @Test
+    public void testIncomingByField() {
+        URI user = client.createResource(new User());
+        Grant grant = new Grant();
+        grant.setPi(user);
+        URI grantUri = client.createResource(grant);
+        Submission submission = new Submission();
+        submission.setSubmitter(user);
+        URI submissionUri = client.createResource(submission);
+
+        assertEquals(singletonList(grantUri), new ArrayList<>(client.getIncoming(user, "pi")));
+        assertTrue(client.getIncoming(user, "grants").isEmpty());
+
+        List<URI> submitters = new ArrayList<>();
+        assertEquals(1, client.processIncoming(user, "submitter", submitters::add));
+        assertEquals(singletonList(submissionUri), submitters);
+    }
+
+    /* Binaries are attached to entities, and content that does not match its digest is refused */
+    @Test
+    public void testUpload() {
+        URI submission = client.createResource(new Submission());
+        byte[] content = "hello".getBytes(UTF_8);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("filename", "hello.txt");
+        params.put("sha1", "aaf4c61ddcc5e8a2dabede0f3b482cd9aea9434d");
+        URI binary = client.upload(submission, new ByteArrayInputStream(content), params);
+        assertTrue(binary.toString().startsWith(submission.toString() + "/"));
+
+        params.put("sha1", "0000000000000000000000000000000000000000");
+        try {
+            client.upload(submission, new ByteArrayInputStream(content), params);
+            fail("Upload with the wrong digest should be refused");
+        } catch (RuntimeException e) {
+            //expected
+        }
+    }
+
+    /* Containers list their children as n-triples, so the repository can be crawled */
+    @Test
+    public void testCrawl() {
+        Set<URI> created = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(client.createResource(new Grant()));
+        }
+        created.add(client.createResource(new Submission()));
+
+        Set<URI> grants = new HashSet<>();
+        assertEquals(3, client.processAllEntities(grants::add, Grant.class));
+        Set<URI> all = new HashSet<>();
+        assertEquals(4, client.processAllEntities(all::add, null));
+        assertEquals(created, all);
+        assertTrue(all.containsAll(grants));
+    }
+
+    private static int status(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FcrepoOperationFailedException) {
+                return ((FcrepoOperationFailedException) cause).getStatusCode();
+            }
+        }
+        fail("No status in " + failure);
+        return 0;
+    }
+
+    private static void assertBulkRefused(Runnable bulk) {
+        try {
+            bulk.run();
+            fail("Bulk operation should be refused");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+}
@@ -18,6 +18,7 @@ package org.dataconservancy.pass.client.fedora;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
 import static org.dataconservancy.pass.client.fedora.FedoraConfig.getBaseUrl;
 import static org.dataconservancy.pass.client.fedora.RepositoryCrawler.endWithSlash;
 import static org.dataconservancy.pass.client.fedora.RepositoryCrawler.Ignore.IGNORE_CONTAINERS;
@@ -29,8 +30,10 @@ import static org.dataconservancy.pass.client.fedora.RepositoryCrawler.Skip.dept
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,12 +43,19 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dataconservancy.pass.client.fedora.RepositoryCrawler.State;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -107,6 +117,8 @@ public class RepositoryCrawlerTest {
 
     final RepositoryCrawler toTest = new RepositoryCrawler();
 
+    final ForkJoinPool pool = new ForkJoinPool(4);
+
     @Before
     public void wire() {
         toTest.repo = lister;
@@ -125,6 +137,11 @@ public class RepositoryCrawlerTest {
         when(lister.getChildren(eq(l2_submissions_2))).thenReturn(asList(l3_submissions_2));
     }
 
+    @After
+    public void shutdownPool() {
+        pool.shutdownNow();
+    }
+
     // Verify that zero depth just retrieves one resource, and doesn't fetch children.
     @Test
     public void zeroDepthTest() {
@@ -240,6 +257,139 @@ public class RepositoryCrawlerTest {
         assertTrue(visited.containsAll(depth1ExceptAclsAndContainers));
     }
 
+    // Verify that a parallel crawl visits the same resources as a serial one
+    @Test
+    public void parallelSkipAclsWithDepthTest() {
+        final RepositoryCrawler parallel = new RepositoryCrawler(pool, true);
+        parallel.repo = lister;
+        final Set<URI> visited = ConcurrentHashMap.newKeySet();
+
+        final Collection<URI> depth1ExceptAclsAndContainers = union(l2_cows, l2_submissions);
+
+        assertEquals(depth1ExceptAclsAndContainers.size(), parallel.visit(root, visited::add, IGNORE_CONTAINERS,
+                depth(2).or(SKIP_ACLS)));
+        assertEquals(depth1ExceptAclsAndContainers, visited);
+    }
+
+    // Verify that a parallel crawl honours ignore and depth, and calls a non-concurrent visitor one at a time
+    @Test
+    public void parallelSerialVisitsTest() {
+        final RepositoryCrawler parallel = new RepositoryCrawler(pool, false);
+        parallel.repo = lister;
+        final List<URI> visited = new ArrayList<>();
+        final AtomicInteger active = new AtomicInteger();
+
+        final int count = parallel.visit(root, uri -> {
+            assertEquals(1, active.incrementAndGet());
+            visited.add(uri);
+            active.decrementAndGet();
+        }, IGNORE_ROOT, SKIP_NONE);
+
+        final Collection<URI> all = union(l1_all, l2_all, l3_all);
+        assertEquals(all.size(), count);
+        assertEquals(all.size(), visited.size());
+        assertTrue(visited.containsAll(all));
+        verify(lister, times(1)).getChildren(root);
+    }
+
+    // Verify that a parallel crawl visits every child of a container too large to fork a task for each at once
+    @Test
+    public void parallelLargeContainerTest() {
+        final RepositoryCrawler parallel = new RepositoryCrawler(pool, true);
+        parallel.repo = lister;
+        final List<URI> children = new ArrayList<>();
+        for (int i = 0; i < RepositoryCrawler.FORK_BATCH * 20 + 3; i++) {
+            children.add(randomUri(l1_cows_container));
+        }
+        when(lister.getChildren(eq(l1_cows_container))).thenReturn(children);
+        final Set<URI> visited = ConcurrentHashMap.newKeySet();
+
+        assertEquals(children.size(), parallel.visit(l1_cows_container, visited::add, IGNORE_ROOT, depth(1)));
+        assertEquals(new HashSet<>(children), visited);
+    }
+
+    // Verify that a visitor failure is thrown from a parallel crawl, and stops the rest of the crawl
+    @Test
+    public void parallelVisitorFailureTest() {
+        final RepositoryCrawler parallel = new RepositoryCrawler(pool, true);
+        parallel.repo = lister;
+        final List<URI> children = new ArrayList<>();
+        for (int i = 0; i < RepositoryCrawler.FORK_BATCH * 20; i++) {
+            children.add(randomUri(l1_cows_container));
+        }
+        when(lister.getChildren(eq(l1_cows_container))).thenReturn(children);
+        final AtomicInteger visits = new AtomicInteger();
+
+        try {
+            parallel.visit(l1_cows_container, uri -> {
+                visits.incrementAndGet();
+                throw new IllegalStateException("visitor failed");
+            }, IGNORE_ROOT, depth(1));
+            fail("Expected the visitor failure to be thrown");
+        } catch (final IllegalStateException e) {
+            // the pool may rethrow a copy of an exception thrown on another thread, with the original as its cause
+            assertTrue(e.getMessage().endsWith("visitor failed"));
+        }
+
+        pool.awaitQuiescence(10, TimeUnit.SECONDS);
+        assertTrue("Crawl continued after the visitor failed: " + visits.get() + " visits",
+                visits.get() <= RepositoryCrawler.FORK_BATCH);
+    }
+
+    // Verify that a stream yields the same resources, in the same order, as a serial visit
+    @Test
+    public void streamMatchesVisitTest() {
+        final List<URI> visited = new ArrayList<>();
+        toTest.visit(root, visited::add, IGNORE_CONTAINERS, SKIP_ACLS);
+
+        assertEquals(visited, toTest.stream(root, IGNORE_CONTAINERS, SKIP_ACLS).collect(toList()));
+
+        final List<URI> all = new ArrayList<>();
+        toTest.visit(root, all::add, IGNORE_NONE, SKIP_NONE);
+
+        assertEquals(all, toTest.stream(root, IGNORE_NONE, SKIP_NONE).collect(toList()));
+    }
+
+    // Verify that a short-circuited stream only lists the containers it needs to
+    @Test
+    public void streamShortCircuitTest() {
+        final List<URI> first = toTest.stream(root, IGNORE_CONTAINERS, depth(2).or(SKIP_ACLS))
+                .limit(1)
+                .collect(toList());
+
+        assertEquals(1, first.size());
+        assertTrue(l2_submissions.contains(first.get(0)));
+
+        verify(lister, times(1)).getChildren(root);
+        verify(lister, times(1)).getChildren(l1_submissions_container);
+        verify(lister, never()).getChildren(l1_acls_container);
+        verify(lister, never()).getChildren(l1_cows_container);
+        verify(lister, times(2)).getChildren(any());
+    }
+
+    // Verify that an iterator honours ignore and depth, and does not list children of a resource not advanced past
+    @Test
+    public void iteratorTest() {
+        final Iterator<URI> uris = toTest.iterator(l1_submissions_container, IGNORE_ROOT, depth(1));
+
+        assertTrue(uris.hasNext());
+        assertTrue(l2_submissions.contains(uris.next()));
+        verify(lister, times(1)).getChildren(any());
+
+        assertTrue(uris.hasNext());
+        assertTrue(l2_submissions.contains(uris.next()));
+        assertFalse(uris.hasNext());
+
+        try {
+            uris.next();
+            fail("Expected NoSuchElementException");
+        } catch (final NoSuchElementException e) {
+            // expected
+        }
+
+        assertFalse(toTest.iterator(root, IGNORE_ROOT, depth(0)).hasNext());
+    }
+
     private static URI randomUri(URI base) {
         return URI.create(endWithSlash(base.toString() + "/a/b/c/" + UUID.randomUUID().toString()));
     }
@@ -18,12 +18,20 @@ package org.dataconservancy.pass.client.adapter;
 import java.io.IOException;
 import java.io.InputStream;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.TextNode;
-
-import org.apache.commons.io.IOUtils;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 
 import org.dataconservancy.pass.client.PassJsonAdapter;
 import org.dataconservancy.pass.client.util.ConfigUtil;
@@ -33,6 +41,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * JSON Adapter converts a PassEntity object into JSON (with or without context) and back
+ * <p>
+ * Entities are written and read directly to and from bytes by readers and writers that are created once per PASS
+ * entity class and shared, so an adapter is cheap to create and is thread-safe. JSON is written without 
+ * indentation. The {@code @context} is written as requested, and skipped by the parser when reading, without 
+ * changing the entity.
+ * </p>
  * @author Karen Hanson
  */
 public class PassJsonAdapterBasic implements PassJsonAdapter {
@@ -41,7 +55,23 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
     
     private final static String CONTEXT_PROPKEY = "pass.jsonld.context";
     private final static String DEFAULT_CONTEXT = "https://oa-pass.github.io/pass-data-model/src/main/resources/context-3.2.jsonld";
-    
+
+    private final static String ID_FIELDNAME = "@id";
+    private final static String CONTEXT_FIELDNAME = "@context";
+    private final static String FILTER_ID = "passEntity";
+
+    private final static ObjectMapper MAPPER = new ObjectMapper().addMixIn(PassEntity.class, PassEntityMixin.class);
+
+    /**
+     * Readers by PASS entity class
+     */
+    private final static ConcurrentMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    /**
+     * Writers by context written, an empty string for none, then by PASS entity class
+     */
+    private final static ConcurrentMap<String, ConcurrentMap<Class<?>, ObjectWriter>> WRITERS = new ConcurrentHashMap<>();
+
     /**
      * {@inheritDoc}
      */
@@ -49,33 +79,19 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
         if (passObj == null) {
             throw new IllegalArgumentException("passObject cannot be null");
         }
+        String context = "";
         if (includePassContext) {
-            //Assign pass context
             LOG.debug("Converting {} to JSON with context", passObj.getClass().getSimpleName());
-            passObj.setContext(getPassJsonLdContext());                
+            context = getPassJsonLdContext();
         } else {
-            //scrub context if there is one
             LOG.debug("Converting {} to JSON without context", passObj.getClass().getSimpleName());
-            passObj.setContext(null);
         }
 
-        byte [] jsonld = null;        
-        
-        //convert to json
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            ObjectNode jsonObj = (ObjectNode) objectMapper.valueToTree(passObj);
-            
-            // This is because new objects (without an ID) should have the null relative URI
-            if (jsonObj.get("@id") == null) {
-                jsonObj.set("@id", new TextNode(""));
-            }
-            jsonld = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(jsonObj);
+            return writer(passObj.getClass(), context).writeValueAsBytes(passObj);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Could not model convert to JSON", e);
         }
-     
-        return jsonld;
     }
 
     /**
@@ -90,13 +106,8 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
         }
         
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            ObjectNode parsed = (ObjectNode) objectMapper.readTree(json);
-            parsed.remove("@context");
             LOG.debug("JSON converting to model {}", valueType.getSimpleName());
-            
-            return objectMapper.treeToValue(parsed, valueType);
-            
+            return reader(valueType).readValue(json);
         } catch (IOException e) {
             throw new RuntimeException("Could not map JSON to " + valueType.getSimpleName(), e);    
         } 
@@ -106,12 +117,31 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
      * {@inheritDoc}
      */
     public <T extends PassEntity> T toModel(InputStream json, Class<T> valueType) {
+        if (json == null) {
+            throw new IllegalArgumentException("json cannot be null");
+        }
+        if (valueType == null) {
+            throw new IllegalArgumentException("valueType cannot be empty");            
+        }
+
+        // the entity is bound as the stream is parsed, without first reading the whole body into memory
         try {
-            return toModel(IOUtils.toByteArray(json), valueType);
+            LOG.debug("JSON stream converting to model {}", valueType.getSimpleName());
+            return reader(valueType).readValue(json);
         } catch (IOException e) {
             throw new RuntimeException("Could not map JSON to " + valueType.getSimpleName(), e);
         }
     }
+
+    private static ObjectReader reader(Class<?> valueType) {
+        return READERS.computeIfAbsent(valueType, MAPPER::readerFor);
+    }
+
+    private static ObjectWriter writer(Class<?> valueType, String context) {
+        return WRITERS.computeIfAbsent(context, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(valueType, type -> MAPPER.writerFor(type)
+                        .with(new SimpleFilterProvider().addFilter(FILTER_ID, new PassEntityFilter(context))));
+    }
     
     /**
      * Retrieve the context path to add to the JSON for conversion to JSON-LD
@@ -123,4 +153,39 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
         return context;
     }
     
+    /**
+     * Attaches {@link PassEntityFilter} to all PASS entities, and ignores any {@code @context} when reading them
+     */
+    @JsonFilter(FILTER_ID)
+    @JsonIgnoreProperties(value = {CONTEXT_FIELDNAME}, allowGetters = true, ignoreUnknown = true)
+    private abstract static class PassEntityMixin {
+    }
+
+    /**
+     * Writes the given context in place of the entity's own, and an empty {@code @id} for new entities, which 
+     * should have the null relative URI
+     */
+    private static class PassEntityFilter extends SimpleBeanPropertyFilter {
+
+        private final String context;
+
+        PassEntityFilter(String context) {
+            this.context = context;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer) 
+                throws Exception {
+            if (CONTEXT_FIELDNAME.equals(writer.getName())) {
+                if (!context.isEmpty()) {
+                    gen.writeStringField(CONTEXT_FIELDNAME, context);
+                }
+            } else if (ID_FIELDNAME.equals(writer.getName()) && ((PassEntity) pojo).getId() == null) {
+                gen.writeStringField(ID_FIELDNAME, "");
+            } else {
+                writer.serializeAsField(pojo, gen, provider);
+            }
+        }
+    }
+
 }
@@ -15,10 +15,13 @@
  */
 package org.dataconservancy.pass.client.adapter;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import java.net.URI;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,6 +34,8 @@ import org.dataconservancy.pass.model.TestValues;
 import org.json.JSONObject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -67,6 +72,7 @@ public class JsonAdapterTests {
         assertEquals(TestValues.DEPOSIT_ID_1, deposit.getId().toString());
         assertEquals(TestValues.DEPOSIT_STATUS, deposit.getDepositStatus().toString());
         assertEquals(TestValues.DEPOSIT_STATUSREF, deposit.getDepositStatusRef());
+        assertNull(deposit.getContext());
         
     }
 
@@ -144,6 +150,48 @@ public class JsonAdapterTests {
         assertEquals(root.getString("repositoryCopy"),TestValues.REPOSITORYCOPY_ID_1);
     }
         
+    /**
+     * Verify that a new entity is written with an empty ID and the context without either being set on the entity,
+     * and that the JSON is compact
+     * @throws Exception
+     */
+    @Test
+    public void testNewDepositToJson() throws Exception {
+        Deposit deposit = createDeposit();
+        deposit.setId(null);
+        deposit.setContext("http://example.org/other.jsonld");
+
+        PassJsonAdapter adapter = new PassJsonAdapterBasic();
+        String jsonDeposit = new String(adapter.toJson(deposit, true), StandardCharsets.UTF_8);
+
+        JSONObject root = new JSONObject(jsonDeposit);
+        assertEquals("", root.getString("@id"));
+        assertEquals(CONTEXT, root.getString("@context"));
+        assertFalse(jsonDeposit.contains("\n"));
+        assertNull(deposit.getId());
+        assertEquals("http://example.org/other.jsonld", deposit.getContext());
+    }
+
+    /**
+     * Verify that a model object survives conversion to JSON and back, from bytes or a stream, and that the context 
+     * is not read into it
+     * @throws Exception
+     */
+    @Test
+    public void testDepositRoundTrip() throws Exception {
+        Deposit deposit = createDeposit();
+
+        PassJsonAdapter adapter = new PassJsonAdapterBasic();
+        byte[] json = adapter.toJson(deposit, true);
+        Deposit copy = adapter.toModel(json, Deposit.class);
+        Deposit streamedCopy = adapter.toModel(new ByteArrayInputStream(json), Deposit.class);
+
+        assertNull(copy.getContext());
+        assertEquals(deposit, copy);
+        assertNull(streamedCopy.getContext());
+        assertEquals(deposit, streamedCopy);
+    }
+
     private Deposit createDeposit() throws Exception {
         Deposit deposit = new Deposit();
         deposit.setId(new URI(TestValues.DEPOSIT_ID_1));
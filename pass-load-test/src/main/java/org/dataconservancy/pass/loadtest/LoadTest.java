@@ -0,0 +1,312 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.dataconservancy.pass.client.PassClient;
+import org.dataconservancy.pass.client.PassClientFactory;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Submission;
+import org.dataconservancy.pass.test.fedora.LocalFedoraServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a mix of PASS client operations from a number of threads for a fixed time, and reports the throughput and
+ * latency percentiles of each type of operation.
+ * <p>
+ * Before the run, Grants and Submissions that refer to them are created for the operations to read, update, find,
+ * get the incoming links of and upload to. Each thread then picks operations at random according to the weights in
+ * the mix, and runs them one after the other, so the load is closed: latency is measured from the start of each
+ * operation, not from when it would have been scheduled by a fixed arrival rate. Operations in the warmup are not
+ * counted.
+ * </p>
+ * <p>
+ * The target is the Fedora and Elasticsearch configured by the usual {@code pass.fedora.*} and
+ * {@code pass.elasticsearch.*} system properties, or with {@code --local} an in-process
+ * {@link LocalFedoraServer}, which has no index, so cannot serve finds.
+ * </p>
+ * @author Karen Hanson
+ */
+public class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String USAGE = "Usage: java [-Dpass.fedora.baseurl=...] -jar load-test.jar [options]\n"
+            + "  --threads=N          threads running operations (default 4)\n"
+            + "  --duration=SECONDS   time to measure for (default 30)\n"
+            + "  --warmup=SECONDS     time to run before measuring (default 5)\n"
+            + "  --mix=OP=WEIGHT,...  operations to run and their weights, from create, read, update, find,\n"
+            + "                       incoming and upload (default " + LoadTestConfig.DEFAULT_MIX + ")\n"
+            + "  --seed=N             Grants and Submissions to create before the run (default 100)\n"
+            + "  --upload-size=BYTES  size of each upload (default 16384)\n"
+            + "  --local              run against an in-process Fedora stand-in\n"
+            + "  --latency=MILLIS     latency the stand-in adds to each request (default 0)\n"
+            + "  --format=FORMAT      text, csv or json (default text)\n"
+            + "  --output=FILE        write the report to a file rather than standard out";
+
+    private final LoadTestConfig config;
+
+    private final PassClient client;
+
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    private final List<URI> grants = new ArrayList<>();
+
+    private final List<URI> submissions = new ArrayList<>();
+
+    private final String runKey = "load-test-" + System.currentTimeMillis();
+
+    private final byte[] content;
+
+    private volatile boolean running = true;
+
+    /**
+     * Create a load test
+     * @param config settings of the run
+     * @param client client to run operations with
+     */
+    public LoadTest(LoadTestConfig config, PassClient client) {
+        this.config = config;
+        this.client = client;
+        for (Operation operation : config.getMix().keySet()) {
+            latencies.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+        this.content = new byte[config.getUploadSize()];
+        ThreadLocalRandom.current().nextBytes(content);
+    }
+
+    /**
+     * Create the entities operations work on, then run the operations
+     * @return report of the measured operations
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public Report run() throws InterruptedException {
+        seed();
+
+        LOG.info("Running {} for {}s after a {}s warmup, with {} threads",
+                config.getMix(), config.getDurationSeconds(), config.getWarmupSeconds(), config.getThreads());
+        CountDownLatch done = new CountDownLatch(config.getThreads());
+        for (int i = 0; i < config.getThreads(); i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    work();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-test-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        TimeUnit.SECONDS.sleep(config.getWarmupSeconds());
+        Map<Operation, Histogram> discarded = snapshot();
+        long start = System.nanoTime();
+        LOG.debug("Discarded {} warmup operations", discarded.values().stream()
+                .mapToLong(Histogram::getTotalCount).sum());
+
+        TimeUnit.SECONDS.sleep(config.getDurationSeconds());
+        Map<Operation, Histogram> measured = snapshot();
+        long elapsed = System.nanoTime() - start;
+        Map<Operation, Long> failed = new EnumMap<>(Operation.class);
+        errors.forEach((operation, count) -> failed.put(operation, count.sum()));
+
+        running = false;
+        done.await();
+
+        Report report = new Report(settings());
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : measured.entrySet()) {
+            report.add(entry.getKey().getLabel(), entry.getValue(), failed.get(entry.getKey()), elapsed);
+            total.add(entry.getValue());
+            totalErrors += failed.get(entry.getKey());
+        }
+        report.add(Report.TOTAL, total, totalErrors, elapsed);
+        return report;
+    }
+
+    /**
+     * Take the latencies recorded since the last snapshot, and reset the error counts
+     */
+    private Map<Operation, Histogram> snapshot() {
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        latencies.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        errors.values().forEach(LongAdder::reset);
+        return histograms;
+    }
+
+    private void seed() {
+        LOG.info("Creating {} Grants and Submissions", config.getSeedCount());
+        for (int i = 0; i < config.getSeedCount(); i++) {
+            Grant grant = new Grant();
+            grant.setLocalKey(runKey + "-" + i);
+            grant.setAwardNumber("award-" + i);
+            URI grantUri = client.createResource(grant);
+            grants.add(grantUri);
+
+            Submission submission = new Submission();
+            submission.setGrants(Collections.singletonList(grantUri));
+            submissions.add(client.createResource(submission));
+        }
+    }
+
+    private void work() {
+        List<Operation> operations = new ArrayList<>();
+        config.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Operation operation = operations.get(random.nextInt(operations.size()));
+            try {
+                execute(operation, random);
+            } catch (Exception e) {
+                errors.get(operation).increment();
+                LOG.debug("{} failed", operation.getLabel(), e);
+            }
+        }
+    }
+
+    private void execute(Operation operation, ThreadLocalRandom random) {
+        int seed = random.nextInt(grants.size());
+        URI grant = grants.get(seed);
+        long start;
+        switch (operation) {
+            case CREATE:
+                Grant created = new Grant();
+                created.setLocalKey(runKey + "-created");
+                start = System.nanoTime();
+                client.createResource(created);
+                break;
+            case READ:
+                start = System.nanoTime();
+                client.readResource(grant, Grant.class);
+                break;
+            case UPDATE:
+                Grant updated = client.readResource(grant, Grant.class);
+                updated.setAwardNumber("award-" + seed + "-" + random.nextInt());
+                start = System.nanoTime();
+                client.updateResource(updated);
+                break;
+            case FIND:
+                start = System.nanoTime();
+                if (client.findByAttribute(Grant.class, "localKey", runKey + "-" + seed) == null) {
+                    throw new RuntimeException("No Grant found with localKey " + runKey + "-" + seed);
+                }
+                break;
+            case INCOMING:
+                start = System.nanoTime();
+                client.getIncoming(grant);
+                break;
+            case UPLOAD:
+                Map<String, Object> params = Collections.singletonMap("filename", "load-test.bin");
+                start = System.nanoTime();
+                client.upload(submissions.get(seed), new ByteArrayInputStream(content), params);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported operation " + operation);
+        }
+        latencies.get(operation).recordValue(System.nanoTime() - start);
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("threads", config.getThreads());
+        settings.put("durationSeconds", config.getDurationSeconds());
+        settings.put("warmupSeconds", config.getWarmupSeconds());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        config.getMix().forEach((operation, weight) -> mix.put(operation.getLabel(), weight));
+        settings.put("mix", mix);
+        settings.put("seed", config.getSeedCount());
+        settings.put("uploadSize", config.getUploadSize());
+        settings.put("local", config.isLocal());
+        if (config.isLocal()) {
+            settings.put("latencyMillis", config.getLatencyMillis());
+        }
+        return settings;
+    }
+
+    /**
+     * Run a load test
+     * @param args options, see {@code --help}
+     * @throws Exception if the run fails
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            if (args.length > 0 && (args[0].equals("--help") || args[0].equals("-h"))) {
+                System.out.println(USAGE);
+                return;
+            }
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        LocalFedoraServer fedora = null;
+        if (config.isLocal()) {
+            fedora = new LocalFedoraServer().latency(config.getLatencyMillis(), TimeUnit.MILLISECONDS).start();
+            System.setProperty("pass.fedora.baseurl", fedora.getBaseUrl());
+            if (config.getMix().containsKey(Operation.FIND)) {
+                LOG.warn("The local Fedora stand-in has no index, find operations will fail");
+            }
+        }
+
+        Report report;
+        try (PassClient client = PassClientFactory.getPassClient()) {
+            report = new LoadTest(config, client).run();
+        } finally {
+            if (fedora != null) {
+                fedora.close();
+            }
+        }
+
+        if (config.getOutput() != null) {
+            try (OutputStream out = new FileOutputStream(config.getOutput())) {
+                report.write(config.getFormat(), out);
+            }
+        } else {
+            report.write(config.getFormat(), System.out);
+        }
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.loadtest;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for a load test run, usually parsed from command line options of the form {@code --name=value}
+ * @author Karen Hanson
+ */
+public class LoadTestConfig {
+
+    /** Default operation mix, there is no find as the local stand-in has no index */
+    public static final String DEFAULT_MIX = "create=20,read=50,update=15,incoming=10,upload=5";
+
+    /** Output formats */
+    public enum Format { TEXT, CSV, JSON }
+
+    private int threads = 4;
+
+    private int durationSeconds = 30;
+
+    private int warmupSeconds = 5;
+
+    private Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+
+    private int seedCount = 100;
+
+    private int uploadSize = 16384;
+
+    private boolean local = false;
+
+    private long latencyMillis = 0;
+
+    private Format format = Format.TEXT;
+
+    private String output = null;
+
+    /**
+     * Parse command line options
+     * @param args options of the form {@code --name=value}, or {@code --local}
+     * @return configuration
+     * @throws IllegalArgumentException if an option is not recognized or its value is not valid
+     */
+    public static LoadTestConfig parse(String... args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unrecognized argument " + arg);
+            }
+            String[] option = arg.substring(2).split("=", 2);
+            String value = option.length > 1 ? option[1] : null;
+            switch (option[0]) {
+                case "threads":
+                    config.threads(positive(option[0], value));
+                    break;
+                case "duration":
+                    config.durationSeconds(positive(option[0], value));
+                    break;
+                case "warmup":
+                    config.warmupSeconds(Integer.parseInt(required(option[0], value)));
+                    break;
+                case "mix":
+                    config.mix(parseMix(required(option[0], value)));
+                    break;
+                case "seed":
+                    config.seedCount(positive(option[0], value));
+                    break;
+                case "upload-size":
+                    config.uploadSize(positive(option[0], value));
+                    break;
+                case "local":
+                    config.local(value == null || Boolean.parseBoolean(value));
+                    break;
+                case "latency":
+                    config.latencyMillis(Long.parseLong(required(option[0], value)));
+                    break;
+                case "format":
+                    config.format(Format.valueOf(required(option[0], value).toUpperCase()));
+                    break;
+                case "output":
+                    config.output(required(option[0], value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized option " + arg);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Parse an operation mix
+     * @param mix comma separated list of operation label and weight, e.g. {@code read=80,update=20}
+     * @return weight by operation, in operation order
+     * @throws IllegalArgumentException if an operation is not recognized or a weight is not valid
+     */
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=", 2);
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight of " + parts[0] + " cannot be negative");
+            }
+            if (weight > 0) {
+                weights.put(Operation.fromLabel(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must include at least one operation");
+        }
+        return weights;
+    }
+
+    private static String required(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Option --" + name + " needs a value");
+        }
+        return value;
+    }
+
+    private static int positive(String name, String value) {
+        int number = Integer.parseInt(required(name, value));
+        if (number < 1) {
+            throw new IllegalArgumentException("Option --" + name + " must be greater than zero");
+        }
+        return number;
+    }
+
+    /**
+     * @param threads number of threads running operations
+     * @return this configuration
+     */
+    public LoadTestConfig threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param durationSeconds seconds to measure for, after the warmup
+     * @return this configuration
+     */
+    public LoadTestConfig durationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        return this;
+    }
+
+    /**
+     * @param warmupSeconds seconds to run operations for before measuring
+     * @return this configuration
+     */
+    public LoadTestConfig warmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+        return this;
+    }
+
+    /**
+     * @param mix relative weight of each operation
+     * @return this configuration
+     */
+    public LoadTestConfig mix(Map<Operation, Integer> mix) {
+        this.mix = new EnumMap<>(mix);
+        return this;
+    }
+
+    /**
+     * @param seedCount number of Grants, and of Submissions, created before the run for operations to work on
+     * @return this configuration
+     */
+    public LoadTestConfig seedCount(int seedCount) {
+        this.seedCount = seedCount;
+        return this;
+    }
+
+    /**
+     * @param uploadSize bytes in each upload
+     * @return this configuration
+     */
+    public LoadTestConfig uploadSize(int uploadSize) {
+        this.uploadSize = uploadSize;
+        return this;
+    }
+
+    /**
+     * @param local {@code true} to run against a local Fedora stand-in rather than {@code pass.fedora.baseurl}
+     * @return this configuration
+     */
+    public LoadTestConfig local(boolean local) {
+        this.local = local;
+        return this;
+    }
+
+    /**
+     * @param latencyMillis latency the local Fedora stand-in adds to each request
+     * @return this configuration
+     */
+    public LoadTestConfig latencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * @param format report format
+     * @return this configuration
+     */
+    public LoadTestConfig format(Format format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * @param output file to write the report to, or {@code null} for standard out
+     * @return this configuration
+     */
+    public LoadTestConfig output(String output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * @return number of threads running operations
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return seconds to measure for, after the warmup
+     */
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return seconds to run operations for before measuring
+     */
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * @return relative weight of each operation
+     */
+    public Map<Operation, Integer> getMix() {
+        return Collections.unmodifiableMap(mix);
+    }
+
+    /**
+     * @return number of Grants, and of Submissions, created before the run
+     */
+    public int getSeedCount() {
+        return seedCount;
+    }
+
+    /**
+     * @return bytes in each upload
+     */
+    public int getUploadSize() {
+        return uploadSize;
+    }
+
+    /**
+     * @return {@code true} to run against a local Fedora stand-in
+     */
+    public boolean isLocal() {
+        return local;
+    }
+
+    /**
+     * @return latency the local Fedora stand-in adds to each request
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @return report format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @return file to write the report to, or {@code null} for standard out
+     */
+    public String getOutput() {
+        return output;
+    }
+
+}
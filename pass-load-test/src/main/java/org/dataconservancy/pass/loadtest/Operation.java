@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.loadtest;
+
+/**
+ * Types of PASS client operation driven by the load test
+ * @author Karen Hanson
+ */
+public enum Operation {
+
+    /** Create a Grant */
+    CREATE("create"),
+
+    /** Read a Grant */
+    READ("read"),
+
+    /** Update a Grant, the read that precedes the update is not timed */
+    UPDATE("update"),
+
+    /** Find a Grant by its localKey, needs an index */
+    FIND("find"),
+
+    /** Get the incoming links of a Grant */
+    INCOMING("incoming"),
+
+    /** Upload a binary to a Submission */
+    UPLOAD("upload");
+
+    private final String label;
+
+    private Operation(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return name used for the operation in options and reports
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get an operation by its label
+     * @param label label, case insensitive
+     * @return operation
+     * @throws IllegalArgumentException if there is no operation with the label
+     */
+    public static Operation fromLabel(String label) {
+        for (Operation operation : values()) {
+            if (operation.label.equalsIgnoreCase(label.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + label);
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput and latency of each operation in a load test run, and of all operations together
+ * @author Karen Hanson
+ */
+public class Report {
+
+    /** Label of the row summarizing all operations */
+    public static final String TOTAL = "total";
+
+    private static final String[] COLUMNS = {"operation", "count", "errors", "opsPerSecond", "meanMillis",
+        "p50Millis", "p95Millis", "p99Millis", "p999Millis", "maxMillis"};
+
+    private final Map<String, Object> settings = new LinkedHashMap<>();
+
+    private final List<Row> rows = new ArrayList<>();
+
+    /**
+     * Create a report
+     * @param settings settings of the run, included in the JSON report
+     */
+    public Report(Map<String, Object> settings) {
+        this.settings.putAll(settings);
+    }
+
+    /**
+     * Add the results of an operation
+     * @param operation operation label
+     * @param latencies latencies of successful operations, in nanoseconds
+     * @param errors number of failed operations
+     * @param elapsedNanos time over which the operations ran
+     * @return this report
+     */
+    public Report add(String operation, Histogram latencies, long errors, long elapsedNanos) {
+        rows.add(new Row(operation, latencies, errors, elapsedNanos));
+        return this;
+    }
+
+    /**
+     * @return results, one per operation
+     */
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Get the results of an operation
+     * @param operation operation label
+     * @return results, or {@code null} if the operation was not run
+     */
+    public Row getRow(String operation) {
+        return rows.stream().filter(r -> r.operation.equals(operation)).findFirst().orElse(null);
+    }
+
+    /**
+     * Write the report in a format
+     * @param format format
+     * @param out stream to write to
+     * @throws IOException if the report cannot be written
+     */
+    public void write(LoadTestConfig.Format format, OutputStream out) throws IOException {
+        switch (format) {
+            case CSV:
+                writeCsv(new PrintStream(out, true, "UTF-8"));
+                break;
+            case JSON:
+                writeJson(out);
+                break;
+            default:
+                writeText(new PrintStream(out, true, "UTF-8"));
+        }
+    }
+
+    private void writeText(PrintStream out) {
+        out.println(String.format(Locale.ROOT, "%-10s %10s %8s %10s %9s %9s %9s %9s %9s %9s",
+                "operation", "count", "errors", "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "p999 ms",
+                "max ms"));
+        for (Row row : rows) {
+            out.println(String.format(Locale.ROOT, "%-10s %10d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f",
+                    row.operation, row.count, row.errors, row.opsPerSecond, row.meanMillis, row.p50Millis,
+                    row.p95Millis, row.p99Millis, row.p999Millis, row.maxMillis));
+        }
+    }
+
+    private void writeCsv(PrintStream out) {
+        out.println(String.join(",", COLUMNS));
+        for (Row row : rows) {
+            out.println(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    row.operation, row.count, row.errors, row.opsPerSecond, row.meanMillis, row.p50Millis,
+                    row.p95Millis, row.p99Millis, row.p999Millis, row.maxMillis));
+        }
+    }
+
+    private void writeJson(OutputStream out) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("settings", settings);
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (Row row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put(COLUMNS[0], row.operation);
+            values.put(COLUMNS[1], row.count);
+            values.put(COLUMNS[2], row.errors);
+            values.put(COLUMNS[3], row.opsPerSecond);
+            values.put(COLUMNS[4], row.meanMillis);
+            values.put(COLUMNS[5], row.p50Millis);
+            values.put(COLUMNS[6], row.p95Millis);
+            values.put(COLUMNS[7], row.p99Millis);
+            values.put(COLUMNS[8], row.p999Millis);
+            values.put(COLUMNS[9], row.maxMillis);
+            operations.add(values);
+        }
+        json.put("operations", operations);
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+                .writeValue(out, json);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Results of one operation, latencies are in milliseconds
+     */
+    public static class Row {
+        private final String operation;
+        private final long count;
+        private final long errors;
+        private final double opsPerSecond;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double p999Millis;
+        private final double maxMillis;
+
+        Row(String operation, Histogram latencies, long errors, long elapsedNanos) {
+            this.operation = operation;
+            this.count = latencies.getTotalCount();
+            this.errors = errors;
+            this.opsPerSecond = elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0;
+            this.meanMillis = count > 0 ? latencies.getMean() / 1e6 : 0;
+            this.p50Millis = millis(latencies, 50);
+            this.p95Millis = millis(latencies, 95);
+            this.p99Millis = millis(latencies, 99);
+            this.p999Millis = millis(latencies, 99.9);
+            this.maxMillis = count > 0 ? latencies.getMaxValue() / 1e6 : 0;
+        }
+
+        private static double millis(Histogram latencies, double percentile) {
+            return latencies.getTotalCount() > 0 ? latencies.getValueAtPercentile(percentile) / 1e6 : 0;
+        }
+
+        /**
+         * @return operation label
+         */
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return number of successful operations
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return number of failed operations
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return successful operations per second
+         */
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        /**
+         * @return mean latency
+         */
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        /**
+         * @return median latency
+         */
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        /**
+         * @return 95th percentile latency
+         */
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        /**
+         * @return 99th percentile latency
+         */
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        /**
+         * @return 99.9th percentile latency
+         */
+        public double getP999Millis() {
+            return p999Millis;
+        }
+
+        /**
+         * @return maximum latency
+         */
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+
+}
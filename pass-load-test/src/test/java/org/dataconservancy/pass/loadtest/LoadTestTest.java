@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.loadtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.dataconservancy.pass.client.PassClient;
+import org.dataconservancy.pass.client.PassClientFactory;
+import org.dataconservancy.pass.test.fedora.LocalFedoraServer;
+import org.junit.Test;
+
+/**
+ * @author Karen Hanson
+ */
+public class LoadTestTest {
+
+    /* Options are parsed into the configuration, and unknown operations or options are rejected */
+    @Test
+    public void testParse() {
+        LoadTestConfig config = LoadTestConfig.parse("--threads=8", "--mix=read=3,update=1,find=0", "--local",
+                "--format=csv");
+        assertEquals(8, config.getThreads());
+        Map<Operation, Integer> mix = config.getMix();
+        assertEquals(2, mix.size());
+        assertEquals(Integer.valueOf(3), mix.get(Operation.READ));
+        assertEquals(Integer.valueOf(1), mix.get(Operation.UPDATE));
+        assertTrue(config.isLocal());
+        assertEquals(LoadTestConfig.Format.CSV, config.getFormat());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOperation() {
+        LoadTestConfig.parse("--mix=read=1,destroy=1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownOption() {
+        LoadTestConfig.parse("--thread=2");
+    }
+
+    /* A short run against the local stand-in runs each operation without errors, and reports each as JSON */
+    @Test
+    public void testLocalRun() throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse("--threads=2", "--duration=2", "--warmup=0", "--seed=5",
+                "--upload-size=128", "--format=json");
+
+        Report report;
+        try (LocalFedoraServer fedora = new LocalFedoraServer().start()) {
+            System.setProperty("pass.fedora.baseurl", fedora.getBaseUrl());
+            try (PassClient client = PassClientFactory.getPassClient()) {
+                report = new LoadTest(config, client).run();
+            }
+        } finally {
+            System.clearProperty("pass.fedora.baseurl");
+        }
+
+        for (Operation operation : config.getMix().keySet()) {
+            Report.Row row = report.getRow(operation.getLabel());
+            assertTrue(operation + " did not run", row.getCount() > 0);
+            assertEquals(operation + " failed", 0, row.getErrors());
+            assertTrue(row.getP50Millis() <= row.getP999Millis());
+        }
+        assertEquals(config.getMix().size() + 1, report.getRows().size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.write(config.getFormat(), out);
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals(2, json.get("settings").get("threads").asInt());
+        assertEquals(Report.TOTAL, json.get("operations").get(config.getMix().size()).get("operation").asText());
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the outcomes of a batch of submission status recalculations, see 
+ * {@link SubmissionStatusService#recalculateAll(java.util.stream.Stream)}. The counts are updated as the batch 
+ * runs, so can be read for progress before it completes.
+ * @author Karen Hanson
+ */
+public class RecalculationSummary {
+
+    private final LongAdder changed = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder protectedStatus = new LongAdder();
+    private final Map<URI, Exception> failures = new ConcurrentHashMap<>();
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Outcome of recalculating the status of one submission
+     */
+    enum Outcome {
+        /** the status changed and the submission was updated */
+        CHANGED,
+        /** the status was already correct, so the submission was not updated */
+        UNCHANGED,
+        /** the status differed, but was a pre-submission status set by the UI so was not replaced */
+        PROTECTED
+    }
+
+    void add(Outcome outcome) {
+        switch (outcome) {
+            case CHANGED:
+                changed.increment();
+                break;
+            case UNCHANGED:
+                unchanged.increment();
+                break;
+            default:
+                protectedStatus.increment();
+        }
+    }
+
+    void addFailure(URI submissionId, Exception e) {
+        failures.put(submissionId, e);
+    }
+
+    /**
+     * @return number of submissions processed so far, whatever the outcome
+     */
+    public long getProcessed() {
+        return getChanged() + getUnchanged() + getProtected() + getFailed();
+    }
+
+    /**
+     * @return number of submissions whose status changed and was written
+     */
+    public long getChanged() {
+        return changed.sum();
+    }
+
+    /**
+     * @return number of submissions whose status was already correct, so were not written
+     */
+    public long getUnchanged() {
+        return unchanged.sum();
+    }
+
+    /**
+     * @return number of submissions whose pre-submission status set by the UI was left in place
+     */
+    public long getProtected() {
+        return protectedStatus.sum();
+    }
+
+    /**
+     * @return number of submissions that could not be read, calculated or updated
+     */
+    public long getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * @return reason each failed submission failed, keyed by submission URI
+     */
+    public Map<URI, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return time since the batch started, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d submissions processed in %d ms: %d changed, %d unchanged, %d protected, %d failed",
+                getProcessed(), getElapsedMillis(), getChanged(), getUnchanged(), getProtected(), getFailed());
+    }
+
+}
@@ -4,10 +4,22 @@ import java.net.URI;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.dataconservancy.pass.client.RecalculationSummary.Outcome;
 
 import org.dataconservancy.pass.client.util.SubmissionStatusCalculator;
 import org.dataconservancy.pass.model.Deposit;
@@ -29,7 +41,7 @@ import org.slf4j.LoggerFactory;
  * @author Karen Hanson
  *
  */
-public class SubmissionStatusService 
+public class SubmissionStatusService implements AutoCloseable
 {
 
     private static final Logger LOG = LoggerFactory.getLogger(SubmissionStatusService.class);
@@ -37,17 +49,60 @@ public class SubmissionStatusService
     private static final String SUBMISSION_MAP_KEY = "submission";
     private static final String PUBLICATION_MAP_KEY = "publication";
     
+    private static final int DEFAULT_PARALLELISM = 4;
+    
+    private static final int DEFAULT_PROGRESS_INTERVAL = 1000;
+    
     private PassClient client;
 
     /**
-     * Initiate service 
+     * Whether the client was created by this service, and so is closed with it
+     */
+    private final boolean ownsClient;
+
+    /**
+     * Number of submissions recalculated at once by {@code recalculateAll}
+     */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Number of submissions between progress reports from {@code recalculateAll}
+     */
+    private int progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+    /**
+     * How the Deposits, RepositoryCopies and SubmissionEvents related to a Submission are found
+     */
+    private LookupStrategy lookupStrategy = LookupStrategy.INCOMING_LINKS;
+
+    /**
+     * Ways of finding the records a Submission's status is calculated from
+     */
+    public enum LookupStrategy {
+        /** 
+         * Read the incoming links of the Submission and its Publication from the repository, then read each 
+         * linked record. Always up to date, but each incoming links request returns every record that links to 
+         * the entity, so is slow for heavily linked Publications.
+         */
+        INCOMING_LINKS,
+        /** 
+         * Search the index for records whose {@code submission} or {@code publication} field matches, building 
+         * them from the index without reading them from the repository. Needs one request per type for most 
+         * Submissions, but records created or changed since they were last indexed are missed or stale.
+         */
+        INDEX
+    }
+
+    /**
+     * Initiate service with a client of its own, which is closed when the service is closed
      */
     public SubmissionStatusService() { 
         this.client = PassClientFactory.getPassClient();
+        this.ownsClient = true;
     }    
     
     /**
-     * Supports setting a specific client.
+     * Supports setting a specific client. The client is left open when the service is closed.
      * @param client PASS client
      */
     public SubmissionStatusService(PassClient client) {
@@ -55,6 +110,48 @@ public class SubmissionStatusService
             throw new IllegalArgumentException("PassClient cannot be null");
         }
         this.client = client;
+        this.ownsClient = false;
+    }
+
+    /**
+     * Set the number of submissions {@code recalculateAll} works on at once, each with its own requests for the 
+     * submission and its related records in flight. Defaults to 4.
+     * @param parallelism number of submissions to recalculate at once, must be greater than zero
+     * @return this service
+     */
+    public SubmissionStatusService parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be greater than zero");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set how the Deposits, RepositoryCopies and SubmissionEvents a status is calculated from are found. 
+     * Defaults to {@link LookupStrategy#INCOMING_LINKS}.
+     * @param lookupStrategy strategy
+     * @return this service
+     */
+    public SubmissionStatusService lookupStrategy(LookupStrategy lookupStrategy) {
+        if (lookupStrategy == null) {
+            throw new IllegalArgumentException("lookupStrategy cannot be null");
+        }
+        this.lookupStrategy = lookupStrategy;
+        return this;
+    }
+
+    /**
+     * Set how many submissions {@code recalculateAll} processes between progress reports. Defaults to 1000.
+     * @param progressInterval number of submissions between reports, must be greater than zero
+     * @return this service
+     */
+    public SubmissionStatusService progressInterval(int progressInterval) {
+        if (progressInterval < 1) {
+            throw new IllegalArgumentException("progressInterval must be greater than zero");
+        }
+        this.progressInterval = progressInterval;
+        return this;
     }
 
     
@@ -92,20 +189,17 @@ public class SubmissionStatusService
         SubmissionStatus fromStatus = submission.getSubmissionStatus();
         SubmissionStatus toStatus;
         
-        Collection<URI> submissionLinks = retrieveLinks(submissionId, SUBMISSION_MAP_KEY);
-        
         if (!submitted) {
             
-            List<SubmissionEvent> submissionEvents = getConnectedRecords(submissionLinks, PassEntityType.SUBMISSION_EVENT, SubmissionEvent.class);
+            List<SubmissionEvent> submissionEvents = getRelatedRecords(submissionId, SUBMISSION_MAP_KEY, PassEntityType.SUBMISSION_EVENT, SubmissionEvent.class);
             
             toStatus = SubmissionStatusCalculator.calculatePreSubmissionStatus(submissionEvents);            
                         
         } else {
 
-            List<Deposit> deposits = getConnectedRecords(submissionLinks, PassEntityType.DEPOSIT, Deposit.class);            
+            List<Deposit> deposits = getRelatedRecords(submissionId, SUBMISSION_MAP_KEY, PassEntityType.DEPOSIT, Deposit.class);            
 
-            Collection<URI> publicationLinks = retrieveLinks(submission.getPublication(), PUBLICATION_MAP_KEY);
-            List<RepositoryCopy> repositoryCopies = getConnectedRecords(publicationLinks, PassEntityType.REPOSITORY_COPY, RepositoryCopy.class);
+            List<RepositoryCopy> repositoryCopies = getRelatedRecords(submission.getPublication(), PUBLICATION_MAP_KEY, PassEntityType.REPOSITORY_COPY, RepositoryCopy.class);
             
             toStatus = SubmissionStatusCalculator.calculatePostSubmissionStatus(submission.getRepositories(), deposits, repositoryCopies);
             
@@ -168,8 +262,107 @@ public class SubmissionStatusService
      * @return calculated submission status.
      */
     public SubmissionStatus calculateAndUpdateSubmissionStatus(URI submissionId, boolean overrideUIStatus) {
-
         Submission submission = loadSubmission(submissionId);
+        updateSubmissionStatus(submission, overrideUIStatus);
+        return submission.getSubmissionStatus();
+    }
+    
+    
+    /**
+     * Recalculates and updates the status of each {@link Submission} in the stream, as 
+     * {@link #calculateAndUpdateSubmissionStatus(URI)} does, without overriding pre-submission statuses set by the UI.
+     * @see #recalculateAll(Stream, boolean, Consumer)
+     * @param submissionIds Submission URIs
+     * @return summary of the outcomes
+     */
+    public RecalculationSummary recalculateAll(Stream<URI> submissionIds) {
+        return recalculateAll(submissionIds, false, null);
+    }
+    
+    
+    /**
+     * Recalculates and updates the status of each {@link Submission} in the stream, as 
+     * {@link #calculateAndUpdateSubmissionStatus(URI, boolean)} does.
+     * <p>
+     * Up to {@code parallelism} submissions are worked on at once, so their reads and the reads of their related 
+     * records overlap. Only submissions whose status changed are written. The stream is consumed as the work 
+     * proceeds, so may be as long as all submissions in the repository. A submission that cannot be read, 
+     * calculated or updated is recorded in {@link RecalculationSummary#getFailures()} and does not stop the rest.
+     * </p>
+     * <p>
+     * Progress is logged, and passed to {@code progress} if supplied, every {@code progressInterval} submissions. 
+     * The callback is made on a worker thread, and may overlap with other callbacks, so it should be quick and 
+     * thread-safe. An exception thrown by the callback is logged and does not stop the recalculation.
+     * </p>
+     * @param submissionIds Submission URIs
+     * @param overrideUIStatus {@code true} to replace pre-submission statuses set by the UI
+     * @param progress receives the summary so far at each progress interval, may be {@code null}
+     * @return summary of the outcomes
+     */
+    public RecalculationSummary recalculateAll(Stream<URI> submissionIds, boolean overrideUIStatus, 
+                                               Consumer<RecalculationSummary> progress) {
+        if (submissionIds==null) {
+            throw new IllegalArgumentException("submissionIds cannot be null");
+        }
+        RecalculationSummary summary = new RecalculationSummary();
+        AtomicLong completed = new AtomicLong();
+        //keep a few submissions queued beyond those being worked on, without reading ahead through the whole stream
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        
+        try {
+            Iterator<URI> ids = submissionIds.iterator();
+            while (ids.hasNext()) {
+                URI submissionId = ids.next();
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        summary.add(updateSubmissionStatus(loadSubmission(submissionId), overrideUIStatus));
+                    } catch (Exception ex) {
+                        LOG.warn("Failed to recalculate status of Submission {}: {}", submissionId, ex.getMessage());
+                        summary.addFailure(submissionId, ex);
+                    } finally {
+                        inFlight.release();
+                    }
+                    if (completed.incrementAndGet() % progressInterval == 0) {
+                        reportProgress(summary, progress);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while recalculating submission statuses, " + summary, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        LOG.info("Finished recalculating submission statuses. {}", summary);
+        return summary;
+    }
+    
+    
+    private static void reportProgress(RecalculationSummary summary, Consumer<RecalculationSummary> progress) {
+        LOG.info("Recalculating submission statuses. {}", summary);
+        if (progress != null) {
+            try {
+                progress.accept(summary);
+            } catch (RuntimeException ex) {
+                LOG.warn("Progress callback failed while recalculating submission statuses: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+    
+    
+    /**
+     * Calculates the status of the {@link Submission} and updates it if the status changed and the change is
+     * allowed, see {@link #calculateAndUpdateSubmissionStatus(URI, boolean)}
+     * @param submission the submission, its status is set if it is updated
+     * @param overrideUIStatus {@code true} to replace pre-submission statuses set by the UI
+     * @return the outcome
+     */
+    private Outcome updateSubmissionStatus(Submission submission, boolean overrideUIStatus) {
         
         SubmissionStatus fromStatus = submission.getSubmissionStatus();
         SubmissionStatus toStatus = calculateSubmissionStatus(submission);
@@ -182,18 +375,18 @@ public class SubmissionStatusService
             if (!overrideUIStatus && !submission.getSubmitted() && fromStatus!=null) {
                 LOG.info("Status of Submission {} did not change because pre-submission UI statuses are protected. "
                         + "The current status will stay as `{}`", submission.getId(), fromStatus);      
-                return fromStatus;
+                return Outcome.PROTECTED;
             }
             
             submission.setSubmissionStatus(toStatus);
             LOG.info("Updating status of Submission {} from `{}` to `{}`", submission.getId(), fromStatus, toStatus);
             client.updateResource(submission);
+            return Outcome.CHANGED;
             
         } else {
             LOG.debug("Status of Submission {} did not change. The current status is `{}`", submission.getId(), fromStatus);            
+            return Outcome.UNCHANGED;
         }
-        
-        return toStatus;
     }
     
     
@@ -216,6 +409,38 @@ public class SubmissionStatusService
         return submission;
     }
     
+    /**
+     * Find the records of a type that refer to a resource in a field, using the configured lookup strategy
+     * @param uri URI of the resource referred to
+     * @param field field that refers to it
+     * @param entityType type of the records
+     * @param modelClass class of the records
+     * @return list of related records.
+     */
+    private <T extends PassEntity> List<T> getRelatedRecords(URI uri, String field, PassEntityType entityType, Class<T> modelClass) {
+        if (lookupStrategy == LookupStrategy.INDEX) {
+            return findIndexedRecords(uri, field, modelClass);
+        }
+        return getConnectedRecords(retrieveLinks(uri, field), entityType, modelClass);
+    }
+    
+    /**
+     * Find the records of a type whose field matches a URI in the index, built from the index records. Results are
+     * fetched a page at a time in ID order, which is one request unless there are more than a page of matches.
+     * @param uri URI to match
+     * @param field field to match
+     * @param modelClass class of the records
+     * @return list of matching records.
+     */
+    private <T extends PassEntity> List<T> findIndexedRecords(URI uri, String field, Class<T> modelClass) {
+        if (uri==null) {
+            return new ArrayList<T>();
+        }
+        try (Stream<T> records = client.streamAllEntitiesByAttributes(modelClass, Collections.singletonMap(field, uri))) {
+            return records.collect(Collectors.toList());
+        }
+    }
+    
     /**
      * Retrieve incoming links for resource, filtered by a map key.
      * @param uri
@@ -227,16 +452,14 @@ public class SubmissionStatusService
         if (uri==null || mapKey==null) {
             return links;
         }
-        Map<String, Collection<URI>> linksMap = client.getIncoming(uri);
-        if (linksMap.containsKey(mapKey)) {
-            links = linksMap.get(mapKey);
-        }
-        return links;
+        return client.getIncoming(uri, mapKey);
     }
 
     
     /**
-     * Filter links list by entity type required and read in resources from database
+     * Filter links list by entity type required and read in resources from database. The resources are read in 
+     * bulk, and if any of them cannot be read the whole lookup fails, so that a status is never calculated from 
+     * only some of the records.
      * @param links
      * @param entityType
      * @param modelClass
@@ -246,11 +469,34 @@ public class SubmissionStatusService
         if (links==null || entityType==null || modelClass==null) {
             return new ArrayList<T>();
         }
-        return links.stream()
+        List<URI> filteredLinks = links.stream()
             .filter(link -> link.toString().contains(entityType.getPlural()))
-            .map(res -> client.readResource(res, modelClass))
+            .distinct()
             .collect(Collectors.toList());
+        if (filteredLinks.isEmpty()) {
+            return new ArrayList<T>();
+        }
+        BulkResult<URI, T> result = client.readResources(filteredLinks, modelClass);
+        if (result.hasFailures()) {
+            Map<URI, Exception> failures = new LinkedHashMap<>(result.getFailures());
+            failures.putAll(result.getConflicts());
+            String msg = String.format("Failed to read %s %s records: %s", failures.size(), entityType.getName(), 
+                    failures.keySet());
+            RuntimeException ex = new RuntimeException(msg, failures.values().iterator().next());
+            failures.values().stream().skip(1).forEach(ex::addSuppressed);
+            throw ex;
+        }
+        return new ArrayList<T>(result.getSuccesses().values());
     }
-    
-    
+
+    /**
+     * Closes the client if it was created by this service. A client passed in is left for the caller to close.
+     */
+    @Override
+    public void close() {
+        if (ownsClient) {
+            client.close();
+        }
+    }
+
 }
@@ -8,12 +8,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.Deposit.DepositStatus;
+import org.dataconservancy.pass.model.PassEntity;
 import org.dataconservancy.pass.model.RepositoryCopy;
 import org.dataconservancy.pass.model.RepositoryCopy.CopyStatus;
 import org.dataconservancy.pass.model.Submission;
@@ -25,7 +28,10 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -71,17 +77,23 @@ public class SubmissionStatusServiceTest extends SubmissionStatusTestBase {
         
         service = new SubmissionStatusService(client);
         
-        when(client.getIncoming(Mockito.any())).thenReturn(submissionIncoming).thenReturn(publicationsIncoming);;
-        when(client.readResource(Mockito.any(), eq(Deposit.class))).thenReturn(deposit(DepositStatus.ACCEPTED, repo1Id)).thenReturn(deposit(DepositStatus.ACCEPTED, repo2Id));
-        when(client.readResource(Mockito.any(), eq(RepositoryCopy.class))).thenReturn(repoCopy(CopyStatus.ACCEPTED,repo1Id)).thenReturn(repoCopy(CopyStatus.ACCEPTED,repo2Id));
+        when(client.getIncoming(Mockito.any(), eq("submission"))).thenReturn(submissionIncoming.get("submission"));
+        when(client.getIncoming(Mockito.any(), eq("publication"))).thenReturn(publicationsIncoming.get("publication"));
+        when(client.readResources(Mockito.anyCollection(), eq(Deposit.class)))
+            .thenReturn(read(deposit1Id, deposit(DepositStatus.ACCEPTED, repo1Id), 
+                    deposit2Id, deposit(DepositStatus.ACCEPTED, repo2Id)));
+        when(client.readResources(Mockito.anyCollection(), eq(RepositoryCopy.class)))
+            .thenReturn(read(repoCopy1Id, repoCopy(CopyStatus.ACCEPTED,repo1Id), 
+                    repoCopy2Id, repoCopy(CopyStatus.ACCEPTED,repo2Id)));
         
         SubmissionStatus newStatus = service.calculateSubmissionStatus(submission);
         assertEquals(SubmissionStatus.SUBMITTED, newStatus);
 
-        verify(client, Mockito.times(2)).getIncoming(Mockito.any());
-        verify(client, Mockito.times(2)).readResource(Mockito.any(), eq(Deposit.class));
-        verify(client, Mockito.times(2)).readResource(Mockito.any(), eq(RepositoryCopy.class));
-        verify(client, Mockito.times(0)).readResource(Mockito.any(), eq(SubmissionEvent.class));
+        verify(client, Mockito.times(2)).getIncoming(Mockito.any(), Mockito.anyString());
+        verify(client, Mockito.times(1)).readResources(Mockito.anyCollection(), eq(Deposit.class));
+        verify(client, Mockito.times(1)).readResources(Mockito.anyCollection(), eq(RepositoryCopy.class));
+        verify(client, Mockito.never()).readResources(Mockito.anyCollection(), eq(SubmissionEvent.class));
+        verify(client, Mockito.never()).readResource(Mockito.any(), Mockito.any());
         
     }
     
@@ -108,19 +120,170 @@ public class SubmissionStatusServiceTest extends SubmissionStatusTestBase {
         
         service = new SubmissionStatusService(client);
         
-        when(client.getIncoming(Mockito.any())).thenReturn(submissionIncoming);
-        when(client.readResource(Mockito.any(), eq(SubmissionEvent.class)))
-            .thenReturn(submissionEvent(new DateTime(2018, 2, 1, 12, 1, 0, 0), EventType.APPROVAL_REQUESTED))
-            .thenReturn(submissionEvent(new DateTime(2018, 2, 1, 12, 2, 0, 0), EventType.CHANGES_REQUESTED));
+        when(client.getIncoming(Mockito.any(), eq("submission"))).thenReturn(submissionIncoming.get("submission"));
+        when(client.readResources(Mockito.anyCollection(), eq(SubmissionEvent.class)))
+            .thenReturn(read(
+                    subEvent1Id, submissionEvent(new DateTime(2018, 2, 1, 12, 1, 0, 0), EventType.APPROVAL_REQUESTED),
+                    subEvent2Id, submissionEvent(new DateTime(2018, 2, 1, 12, 2, 0, 0), EventType.CHANGES_REQUESTED)));
 
         SubmissionStatus newStatus = service.calculateSubmissionStatus(submission);
         assertEquals(SubmissionStatus.CHANGES_REQUESTED, newStatus);
 
-        verify(client, Mockito.times(1)).getIncoming(Mockito.any());
-        verify(client, Mockito.times(2)).readResource(Mockito.any(), eq(SubmissionEvent.class));
-        verify(client, Mockito.times(0)).readResource(Mockito.any(), eq(Deposit.class));
-        verify(client, Mockito.times(0)).readResource(Mockito.any(), eq(RepositoryCopy.class));
+        verify(client, Mockito.times(1)).getIncoming(Mockito.any(), Mockito.anyString());
+        verify(client, Mockito.times(1)).readResources(Mockito.anyCollection(), eq(SubmissionEvent.class));
+        verify(client, Mockito.never()).readResources(Mockito.anyCollection(), eq(Deposit.class));
+        verify(client, Mockito.never()).readResources(Mockito.anyCollection(), eq(RepositoryCopy.class));
         
     }
         
+
+    /**
+     * Ensures a related record that cannot be read fails the calculation rather than being left out of it
+     * @throws Exception
+     */
+    @Test
+    public void testCalcSubmissionStatusUnreadableRecord() throws Exception {
+        Submission submission = new Submission();
+        submission.setId(new URI("submission:1"));
+        submission.setRepositories(Arrays.asList(repo1Id, repo2Id));
+        submission.setPublication(publicationId);
+        submission.setSubmitted(true);
+
+        service = new SubmissionStatusService(client);
+
+        BulkResult<URI, Deposit> deposits = read(deposit1Id, deposit(DepositStatus.ACCEPTED, repo1Id));
+        deposits.addFailure(deposit2Id, new RuntimeException("unreadable"));
+        when(client.getIncoming(Mockito.any(), eq("submission"))).thenReturn(Arrays.asList(deposit1Id, deposit2Id));
+        when(client.readResources(Mockito.anyCollection(), eq(Deposit.class))).thenReturn(deposits);
+
+        try {
+            service.calculateSubmissionStatus(submission);
+            fail("Expected the unreadable deposit to fail the calculation");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains(deposit2Id.toString()));
+            assertEquals("unreadable", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Ensures the index strategy finds related records with one search per type, without reading incoming links
+     * or the records themselves from the repository
+     * @throws Exception
+     */
+    @Test
+    public void testCalcSubmissionStatusFromIndex() throws Exception {
+        Submission submission = new Submission();
+        submission.setId(new URI("submission:1"));
+        submission.setRepositories(Arrays.asList(repo1Id, repo2Id));
+        submission.setPublication(publicationId);
+        submission.setSubmitted(true);
+
+        service = new SubmissionStatusService(client).lookupStrategy(SubmissionStatusService.LookupStrategy.INDEX);
+
+        when(client.streamAllEntitiesByAttributes(eq(Deposit.class), eq(singletonMap("submission", submission.getId()))))
+            .thenReturn(Stream.of(deposit(DepositStatus.ACCEPTED, repo1Id), deposit(DepositStatus.ACCEPTED, repo2Id)));
+        when(client.streamAllEntitiesByAttributes(eq(RepositoryCopy.class), eq(singletonMap("publication", publicationId))))
+            .thenReturn(Stream.of(repoCopy(CopyStatus.COMPLETE, repo1Id), repoCopy(CopyStatus.COMPLETE, repo2Id)));
+
+        assertEquals(SubmissionStatus.COMPLETE, service.calculateSubmissionStatus(submission));
+
+        verify(client, Mockito.never()).getIncoming(Mockito.any(), Mockito.anyString());
+        verify(client, Mockito.never()).readResource(Mockito.any(), Mockito.any());
+        verify(client, Mockito.times(2)).streamAllEntitiesByAttributes(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Ensures a batch recalculation writes only the submissions whose status changed, and counts each outcome
+     * @throws Exception
+     */
+    @Test
+    public void testRecalculateAll() throws Exception {
+        Submission changed = preSubmission("submission:changed", null);
+        Submission unchanged = preSubmission("submission:unchanged", SubmissionStatus.MANUSCRIPT_REQUIRED);
+        Submission protectedStatus = preSubmission("submission:protected", SubmissionStatus.APPROVAL_REQUESTED);
+        URI failed = new URI("submission:failed");
+
+        service = new SubmissionStatusService(client).parallelism(3).progressInterval(2);
+
+        when(client.getIncoming(Mockito.any(), Mockito.anyString())).thenReturn(new HashSet<URI>());
+        for (Submission submission : Arrays.asList(changed, unchanged, protectedStatus)) {
+            when(client.readResource(submission.getId(), Submission.class)).thenReturn(submission);
+        }
+        when(client.readResource(failed, Submission.class)).thenThrow(new RuntimeException("unreadable"));
+
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        RecalculationSummary summary = service.recalculateAll(
+                Stream.of(changed.getId(), unchanged.getId(), protectedStatus.getId(), failed), false, 
+                s -> progress.add(s.getProcessed()));
+
+        assertEquals(4, summary.getProcessed());
+        assertEquals(1, summary.getChanged());
+        assertEquals(1, summary.getUnchanged());
+        assertEquals(1, summary.getProtected());
+        assertEquals(1, summary.getFailed());
+        assertTrue(summary.getFailures().containsKey(failed));
+        assertEquals(2, progress.size());
+
+        verify(client, Mockito.times(1)).updateResource(Mockito.any());
+        verify(client).updateResource(changed);
+        assertEquals(SubmissionStatus.MANUSCRIPT_REQUIRED, changed.getSubmissionStatus());
+    }
+
+    /**
+     * A progress callback that throws does not stop the recalculation or lose any outcome
+     * @throws Exception
+     */
+    @Test
+    public void testRecalculateAllFailingProgress() throws Exception {
+        Submission first = preSubmission("submission:first", SubmissionStatus.MANUSCRIPT_REQUIRED);
+        Submission second = preSubmission("submission:second", SubmissionStatus.MANUSCRIPT_REQUIRED);
+
+        service = new SubmissionStatusService(client).parallelism(1).progressInterval(1);
+
+        when(client.getIncoming(Mockito.any(), Mockito.anyString())).thenReturn(new HashSet<URI>());
+        for (Submission submission : Arrays.asList(first, second)) {
+            when(client.readResource(submission.getId(), Submission.class)).thenReturn(submission);
+        }
+
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        RecalculationSummary summary = service.recalculateAll(Stream.of(first.getId(), second.getId()), false, 
+                s -> {
+                    progress.add(s.getProcessed());
+                    throw new IllegalStateException("progress failed");
+                });
+
+        assertEquals(2, summary.getProcessed());
+        assertEquals(2, summary.getUnchanged());
+        assertEquals(0, summary.getFailed());
+        assertEquals(2, progress.size());
+    }
+
+    /**
+     * A client passed in to the service belongs to the caller, so is not closed with the service
+     */
+    @Test
+    public void testCloseLeavesSuppliedClientOpen() {
+        try (SubmissionStatusService closing = new SubmissionStatusService(client)) {
+            closing.parallelism(2);
+        }
+        verify(client, Mockito.never()).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends PassEntity> BulkResult<URI, T> read(Object... urisAndEntities) {
+        BulkResult<URI, T> result = new BulkResult<>();
+        for (int i = 0; i < urisAndEntities.length; i += 2) {
+            result.addSuccess((URI) urisAndEntities[i], (T) urisAndEntities[i + 1]);
+        }
+        return result;
+    }
+
+    private Submission preSubmission(String id, SubmissionStatus status) throws Exception {
+        Submission submission = new Submission();
+        submission.setId(new URI(id));
+        submission.setSubmitted(false);
+        submission.setSubmissionStatus(status);
+        return submission;
+    }
+        
 }
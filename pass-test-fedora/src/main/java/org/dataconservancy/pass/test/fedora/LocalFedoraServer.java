@@ -0,0 +1,838 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.test.fedora;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ServerSocketFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import org.dataconservancy.pass.model.PassEntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process stand-in for the subset of the Fedora LDP API used by the PASS client, so that tests and performance
+ * runs can exercise the client without a Fedora instance.
+ * <p>
+ * Resources are held in memory. The server supports POST of JSON-LD to create resources and of binaries to attach
+ * content to them, GET of compacted JSON-LD with {@code Prefer} handling of inbound references, n-triples listing of
+ * containment, PATCH with JSON merge patch, PUT, DELETE with tombstones, and weak ETags checked by {@code If-Match}
+ * and {@code If-None-Match}. A container for each {@link PassEntityType} is created when the server starts. Requests
+ * can be delayed by a fixed latency so that client concurrency behaves the same from run to run. For example:
+ * </p>
+ * <pre>
+ * try (LocalFedoraServer fedora = new LocalFedoraServer().latency(5, TimeUnit.MILLISECONDS).start()) {
+ *     System.setProperty("pass.fedora.baseurl", fedora.getBaseUrl());
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * This is not a general purpose LDP server: RDF other than compacted JSON-LD is not accepted, and SPARQL update,
+ * ACLs, versioning and transactions are not supported.
+ * </p>
+ * @author Karen Hanson
+ */
+public class LocalFedoraServer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalFedoraServer.class);
+
+    /** Path of the repository root, as for a default Fedora deployment */
+    public static final String DEFAULT_PATH = "/fcrepo/rest";
+
+    static final String JSONLD_CONTENTTYPE = "application/ld+json";
+    static final String NTRIPLES_CONTENTTYPE = "application/n-triples";
+    static final String MERGE_PATCH_CONTENTTYPE = "application/merge-patch+json";
+    static final String LDP_CONTAINS = "http://www.w3.org/ns/ldp#contains";
+    static final String PREFER_CONTAINMENT = "http://www.w3.org/ns/ldp#PreferContainment";
+    static final String INBOUND_REFERENCES = "http://fedora.info/definitions/v4/repository#InboundReferences";
+
+    private static final Pattern PREFER_PARAM = Pattern.compile("(include|omit)=\"([^\"]*)\"");
+    private static final Pattern FILENAME = Pattern.compile("filename=\"([^\"]*)\"");
+
+    /** Keeps the log of every request MockWebServer writes at INFO out of long runs */
+    private static final java.util.logging.Logger MOCK_WEB_SERVER_LOG =
+            java.util.logging.Logger.getLogger(MockWebServer.class.getName());
+
+    static {
+        MOCK_WEB_SERVER_LOG.setLevel(Level.WARNING);
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Resources by path, guarded by itself, as are the other maps */
+    private final Map<String, Resource> resources = new HashMap<>();
+
+    /** Paths of deleted resources */
+    private final Set<String> tombstones = new HashSet<>();
+
+    /** Target URI to referring URI to the fields that refer to it */
+    private final Map<String, Map<String, Set<String>>> inbound = new HashMap<>();
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private volatile long latencyNanos = 0;
+
+    private int port = 0;
+
+    private String path = DEFAULT_PATH;
+
+    private MockWebServer server;
+
+    private String origin;
+
+    /**
+     * Set the port to listen on, the default is a free port chosen when the server starts
+     * @param port port number
+     * @return this server
+     */
+    public LocalFedoraServer port(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Set the path of the repository root, the default is {@link #DEFAULT_PATH}
+     * @param path root path
+     * @return this server
+     */
+    public LocalFedoraServer path(String path) {
+        this.path = trimSlash(path.startsWith("/") ? path : "/" + path);
+        return this;
+    }
+
+    /**
+     * Delay each request by a fixed amount before it is handled. May be changed while the server is running.
+     * @param latency latency
+     * @param unit unit of the latency
+     * @return this server
+     */
+    public LocalFedoraServer latency(long latency, TimeUnit unit) {
+        if (latency < 0) {
+            throw new IllegalArgumentException("latency cannot be negative");
+        }
+        this.latencyNanos = unit.toNanos(latency);
+        return this;
+    }
+
+    /**
+     * Start listening on the loopback address
+     * @return this server
+     * @throws RuntimeException if the server cannot be started
+     */
+    public LocalFedoraServer start() {
+        if (server != null) {
+            throw new IllegalStateException("Server has already been started");
+        }
+        MockWebServer mock = new MockWebServer();
+        mock.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // MockWebServer queues every request for inspection, take it back off so long runs do not fill memory
+                mock.takeRequest(0, TimeUnit.NANOSECONDS);
+                return handle(request);
+            }
+        });
+        mock.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server = mock;
+        try {
+            server.start(InetAddress.getLoopbackAddress(), port);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start local Fedora server on port " + port, e);
+        }
+
+        origin = "http://" + server.getHostName() + ":" + server.getPort();
+        clear();
+        LOG.info("Local Fedora server listening at {}", getBaseUrl());
+        return this;
+    }
+
+    /**
+     * Stop the server, discarding its content
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            try {
+                server.shutdown();
+            } catch (IOException e) {
+                LOG.warn("Failed to stop local Fedora server", e);
+            }
+            server = null;
+        }
+    }
+
+    /**
+     * Remove all resources other than the repository root and the PASS entity containers
+     */
+    public void clear() {
+        synchronized (resources) {
+            resources.clear();
+            tombstones.clear();
+            inbound.clear();
+            Resource root = new Resource(path, null);
+            root.json = node(path);
+            resources.put(path, root);
+            for (PassEntityType type : PassEntityType.values()) {
+                Resource container = new Resource(path + "/" + type.getPlural(), root);
+                container.json = node(container.path);
+                root.children.add(container.path);
+                resources.put(container.path, container);
+            }
+        }
+    }
+
+    /**
+     * @return Base URL of the repository, ending in a slash, as expected by {@code pass.fedora.baseurl}
+     */
+    public String getBaseUrl() {
+        if (origin == null) {
+            throw new IllegalStateException("Server has not been started");
+        }
+        return origin + path + "/";
+    }
+
+    /**
+     * @return Number of requests received since the server started
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return Number of resources held, including the repository root and containers
+     */
+    public int size() {
+        synchronized (resources) {
+            return resources.size();
+        }
+    }
+
+    private MockResponse handle(RecordedRequest request) throws InterruptedException {
+        requestCount.incrementAndGet();
+        if (latencyNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(latencyNanos);
+        }
+        try {
+            return dispatch(request).response();
+        } catch (BadRequest e) {
+            return new Reply(e.status).text(e.getMessage()).response();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to handle {}", request.getRequestLine(), e);
+            return new Reply(500).text(String.valueOf(e.getMessage())).response();
+        }
+    }
+
+    private Reply dispatch(RecordedRequest request) throws IOException {
+        String key = trimSlash(request.getRequestUrl().encodedPath());
+        if (!key.equals(path) && !key.startsWith(path + "/")) {
+            return new Reply(404);
+        }
+
+        switch (request.getMethod()) {
+            case "GET":
+                return get(key, request);
+            case "HEAD":
+                return get(key, request).head();
+            case "POST":
+                return post(key, request);
+            case "PUT":
+                return put(key, request);
+            case "PATCH":
+                return patch(key, request);
+            case "DELETE":
+                return delete(key);
+            default:
+                return new Reply(405);
+        }
+    }
+
+    private Reply get(String key, RecordedRequest request) throws IOException {
+        String accept = header(request, "Accept");
+        Map<String, Set<String>> prefer = prefer(header(request, "Prefer"));
+
+        synchronized (resources) {
+            Resource resource = existing(key);
+
+            if (resource.content != null) {
+                Reply reply = new Reply(200).etag(resource.etag).body(resource.content, resource.contentType);
+                if (resource.filename != null) {
+                    reply.header("Content-Disposition", "attachment; filename=\"" + resource.filename + "\"");
+                }
+                return reply;
+            }
+
+            if (etagMatches(header(request, "If-None-Match"), resource.etag)) {
+                return new Reply(304).etag(resource.etag);
+            }
+
+            if (accept != null && accept.contains(NTRIPLES_CONTENTTYPE)) {
+                StringBuilder triples = new StringBuilder();
+                if (!prefer.get("omit").contains(PREFER_CONTAINMENT)) {
+                    for (String child : resource.children) {
+                        triples.append('<').append(uri(key)).append("> <").append(LDP_CONTAINS).append("> <")
+                                .append(uri(child)).append("> .\n");
+                    }
+                }
+                return new Reply(200).etag(resource.etag).body(triples.toString().getBytes(UTF_8),
+                        NTRIPLES_CONTENTTYPE);
+            }
+
+            JsonNode representation = resource.json;
+            if (prefer.get("include").contains(INBOUND_REFERENCES)) {
+                ObjectNode graph = mapper.createObjectNode();
+                ArrayNode nodes = graph.putArray("@graph");
+                nodes.add(resource.json);
+                String target = uri(key);
+                inbound.getOrDefault(target, new HashMap<>()).forEach((source, fields) -> {
+                    ObjectNode node = nodes.addObject().put("@id", source);
+                    fields.forEach(field -> node.put(field, target));
+                });
+                representation = graph;
+            }
+            return new Reply(200).etag(resource.etag).body(mapper.writeValueAsBytes(representation),
+                    JSONLD_CONTENTTYPE);
+        }
+    }
+
+    private Reply post(String key, RecordedRequest request) throws IOException {
+        String contentType = header(request, "Content-Type");
+        String slug = header(request, "Slug");
+        byte[] body = request.getBody().readByteArray();
+
+        if (contentType != null && contentType.startsWith(JSONLD_CONTENTTYPE)) {
+            ObjectNode json = parse(body);
+            boolean representation = String.valueOf(header(request, "Prefer")).contains("return=representation");
+            synchronized (resources) {
+                Resource parent = existing(key);
+                Resource resource = new Resource(childPath(key, slug), parent);
+                replace(resource, json);
+                add(resource);
+                Reply reply = new Reply(201).etag(resource.etag).header("Location", uri(resource.path));
+                return representation
+                        ? reply.body(mapper.writeValueAsBytes(resource.json), JSONLD_CONTENTTYPE)
+                        : reply.text(uri(resource.path));
+            }
+        }
+
+        String digest = header(request, "Digest");
+        if (digest != null) {
+            checkDigest(digest, body);
+        }
+
+        synchronized (resources) {
+            Resource parent = existing(key);
+            Resource binary = new Resource(childPath(key, slug), parent);
+            binary.content = body;
+            binary.contentType = contentType != null ? contentType : "application/octet-stream";
+            binary.filename = filename(header(request, "Content-Disposition"));
+            binary.etag = etag();
+            add(binary);
+            return new Reply(201).etag(binary.etag).header("Location", uri(binary.path)).text(uri(binary.path));
+        }
+    }
+
+    private Reply put(String key, RecordedRequest request) throws IOException {
+        String contentType = header(request, "Content-Type");
+        byte[] body = request.getBody().readByteArray();
+        ObjectNode json = contentType != null && contentType.startsWith(JSONLD_CONTENTTYPE) ? parse(body) : null;
+
+        synchronized (resources) {
+            Resource resource = resources.get(key);
+            if (resource == null) {
+                if (tombstones.contains(key)) {
+                    return new Reply(410);
+                }
+                Resource parent = existing(parentPath(key));
+                resource = new Resource(key, parent);
+                if (json != null) {
+                    replace(resource, json);
+                } else {
+                    binary(resource, body, contentType);
+                }
+                add(resource);
+                return new Reply(201).etag(resource.etag).header("Location", uri(key)).text(uri(key));
+            }
+
+            checkIfMatch(header(request, "If-Match"), resource);
+            if (json != null && resource.content == null) {
+                unindex(resource);
+                replace(resource, json);
+            } else if (json == null && resource.content != null) {
+                binary(resource, body, contentType);
+            } else {
+                throw new BadRequest(415, "Cannot replace a resource with content of type " + contentType);
+            }
+            return new Reply(204).etag(resource.etag);
+        }
+    }
+
+    private Reply patch(String key, RecordedRequest request) throws IOException {
+        String contentType = header(request, "Content-Type");
+        if (contentType == null || !contentType.startsWith(MERGE_PATCH_CONTENTTYPE)) {
+            return new Reply(415).text("Only " + MERGE_PATCH_CONTENTTYPE + " is supported");
+        }
+        JsonNode patch = parse(request.getBody().readByteArray());
+
+        synchronized (resources) {
+            Resource resource = existing(key);
+            if (resource.content != null) {
+                return new Reply(415).text("Binaries cannot be patched");
+            }
+            checkIfMatch(header(request, "If-Match"), resource);
+            unindex(resource);
+            ObjectNode json = resource.json.deepCopy();
+            merge(json, patch);
+            replace(resource, json);
+            return new Reply(204).etag(resource.etag);
+        }
+    }
+
+    private Reply delete(String key) {
+        synchronized (resources) {
+            Resource resource = existing(key);
+            Resource parent = resource.parent;
+            if (parent != null) {
+                parent.children.remove(key);
+                parent.etag = etag();
+            }
+            remove(resource);
+            return new Reply(204);
+        }
+    }
+
+    /**
+     * Look up a resource, must be called holding the lock
+     */
+    private Resource existing(String key) {
+        Resource resource = resources.get(key);
+        if (resource == null) {
+            throw tombstones.contains(key)
+                    ? new BadRequest(410, "Discovered tombstone resource at " + uri(key))
+                    : new BadRequest(404, "Not found: " + uri(key));
+        }
+        return resource;
+    }
+
+    private void add(Resource resource) {
+        resources.put(resource.path, resource);
+        tombstones.remove(resource.path);
+        resource.parent.children.add(resource.path);
+        resource.parent.etag = etag();
+    }
+
+    private void remove(Resource resource) {
+        for (String child : resource.children) {
+            remove(resources.get(child));
+        }
+        unindex(resource);
+        resources.remove(resource.path);
+        tombstones.add(resource.path);
+    }
+
+    private void binary(Resource resource, byte[] content, String contentType) {
+        resource.content = content;
+        resource.contentType = contentType != null ? contentType : "application/octet-stream";
+        resource.etag = etag();
+    }
+
+    /**
+     * Set the JSON of a resource to a client supplied document, server managed fields are set by the server
+     */
+    private void replace(Resource resource, ObjectNode json) {
+        json.remove("@context");
+        json.put("@id", uri(resource.path));
+        resource.json = json;
+        resource.etag = etag();
+        index(resource);
+    }
+
+    private void index(Resource resource) {
+        String source = uri(resource.path);
+        references(resource.json, (field, target) -> inbound
+                .computeIfAbsent(target, k -> new LinkedHashMap<>())
+                .computeIfAbsent(source, k -> new TreeSet<>())
+                .add(field));
+    }
+
+    private void unindex(Resource resource) {
+        if (resource.json == null) {
+            return;
+        }
+        String source = uri(resource.path);
+        references(resource.json, (field, target) -> {
+            Map<String, Set<String>> sources = inbound.get(target);
+            if (sources != null && sources.remove(source) != null && sources.isEmpty()) {
+                inbound.remove(target);
+            }
+        });
+    }
+
+    /**
+     * Call the consumer for each top level field value that is the URI of a resource in this repository
+     */
+    private void references(ObjectNode json, Reference consumer) {
+        String prefix = origin + path + "/";
+        Iterator<Map.Entry<String, JsonNode>> fields = json.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().startsWith("@")) {
+                continue;
+            }
+            List<JsonNode> values = new ArrayList<>();
+            if (field.getValue().isArray()) {
+                field.getValue().forEach(values::add);
+            } else {
+                values.add(field.getValue());
+            }
+            for (JsonNode value : values) {
+                if (value.isTextual() && value.asText().startsWith(prefix)) {
+                    consumer.accept(field.getKey(), value.asText());
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply a JSON merge patch, as described by RFC 7396
+     */
+    private static void merge(ObjectNode target, JsonNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            if ("@id".equals(name) || "@context".equals(name)) {
+                continue;
+            }
+            if (value.isNull()) {
+                target.remove(name);
+            } else if (value.isObject()) {
+                JsonNode existing = target.get(name);
+                ObjectNode merged = existing != null && existing.isObject()
+                        ? (ObjectNode) existing : target.putObject(name);
+                merge(merged, value);
+                target.set(name, merged);
+            } else {
+                target.set(name, value);
+            }
+        }
+    }
+
+    private void checkIfMatch(String ifMatch, Resource resource) {
+        if (ifMatch != null && !etagMatches(ifMatch, resource.etag)) {
+            throw new BadRequest(412, "If-Match " + ifMatch + " does not match " + resource.etag);
+        }
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || strip(tag).equals(strip(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String strip(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Check each digest in a {@code Digest} header, the value may be hex or base64 encoded
+     */
+    private static void checkDigest(String header, byte[] content) {
+        for (String digest : header.split(",")) {
+            String[] parts = digest.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new BadRequest(400, "Malformed digest: " + digest);
+            }
+            String algorithm = parts[0].trim().toLowerCase();
+            byte[] actual;
+            try {
+                actual = MessageDigest.getInstance(
+                        algorithm.equals("sha1") ? "SHA-1" : algorithm.equals("sha256") ? "SHA-256"
+                                : algorithm.toUpperCase()).digest(content);
+            } catch (NoSuchAlgorithmException e) {
+                throw new BadRequest(400, "Unsupported digest algorithm: " + algorithm);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : actual) {
+                hex.append(String.format("%02x", b));
+            }
+            String expected = parts[1].trim();
+            if (!expected.equalsIgnoreCase(hex.toString())
+                    && !expected.equals(Base64.getEncoder().encodeToString(actual))) {
+                throw new BadRequest(409, "Checksum mismatch, computed " + algorithm + " digest " + hex
+                        + " did not match expected value " + expected);
+            }
+        }
+    }
+
+    private static String filename(String contentDisposition) throws UnsupportedEncodingException {
+        if (contentDisposition == null) {
+            return null;
+        }
+        Matcher matcher = FILENAME.matcher(contentDisposition);
+        return matcher.find() ? URLDecoder.decode(matcher.group(1), "utf-8") : null;
+    }
+
+    private static Map<String, Set<String>> prefer(String header) {
+        Map<String, Set<String>> prefer = new HashMap<>();
+        prefer.put("include", new HashSet<>());
+        prefer.put("omit", new HashSet<>());
+        if (header != null) {
+            Matcher matcher = PREFER_PARAM.matcher(header);
+            while (matcher.find()) {
+                for (String uri : matcher.group(2).trim().split("\\s+")) {
+                    prefer.get(matcher.group(1)).add(uri);
+                }
+            }
+        }
+        return prefer;
+    }
+
+    private String childPath(String parent, String slug) {
+        if (slug != null && !slug.isEmpty() && slug.matches("[A-Za-z0-9._~-]+")) {
+            String path = parent + "/" + slug;
+            if (!resources.containsKey(path) && !tombstones.contains(path)) {
+                return path;
+            }
+        }
+        return parent + "/" + UUID.randomUUID();
+    }
+
+    private static String parentPath(String key) {
+        return key.substring(0, key.lastIndexOf('/'));
+    }
+
+    private ObjectNode parse(byte[] body) {
+        try {
+            JsonNode json = mapper.readTree(body);
+            if (json == null || !json.isObject()) {
+                throw new BadRequest(400, "Expected a JSON-LD object");
+            }
+            return (ObjectNode) json;
+        } catch (IOException e) {
+            throw new BadRequest(400, "Could not parse JSON-LD: " + e.getMessage());
+        }
+    }
+
+    private ObjectNode node(String key) {
+        return mapper.createObjectNode().put("@id", uri(key));
+    }
+
+    private String uri(String key) {
+        return origin + key;
+    }
+
+    private String etag() {
+        return "W/\"" + Long.toHexString(versions.incrementAndGet()) + "\"";
+    }
+
+    private static String header(RecordedRequest request, String name) {
+        return request.getHeader(name);
+    }
+
+    private static String trimSlash(String path) {
+        String trimmed = path;
+        while (trimmed.length() > 1 && trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    /**
+     * Run a server until the process is stopped.
+     * @param args optional port, then optional latency in milliseconds
+     */
+    public static void main(String[] args) {
+        LocalFedoraServer server = new LocalFedoraServer()
+                .port(args.length > 0 ? Integer.parseInt(args[0]) : 8080)
+                .latency(args.length > 1 ? Long.parseLong(args[1]) : 0, TimeUnit.MILLISECONDS)
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Local Fedora server listening at " + server.getBaseUrl());
+    }
+
+    /**
+     * A stored resource, an RDF source when {@code json} is set or a binary when {@code content} is set
+     */
+    private static class Resource {
+        final String path;
+        final Resource parent;
+        final Set<String> children = new LinkedHashSet<>();
+        ObjectNode json;
+        byte[] content;
+        String contentType;
+        String filename;
+        String etag;
+
+        Resource(String path, Resource parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Turns off Nagle's algorithm on accepted connections, MockWebServer writes headers and body separately, and
+     * otherwise each response can wait on the client's delayed ACK
+     */
+    private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return createServerSocket(port, 50, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return createServerSocket(port, backlog, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            ServerSocket socket = createServerSocket();
+            try {
+                socket.bind(new InetSocketAddress(address, port), backlog);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            return socket;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reference {
+        void accept(String field, String target);
+    }
+
+    /**
+     * Ends handling of a request with an error status
+     */
+    private static class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        BadRequest(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Response to send
+     */
+    private static class Reply {
+        final int status;
+        final Map<String, String> headers = new LinkedHashMap<>();
+        byte[] body;
+        boolean head = false;
+
+        Reply(int status) {
+            this.status = status;
+        }
+
+        Reply header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        Reply etag(String etag) {
+            return etag != null ? header("ETag", etag) : this;
+        }
+
+        Reply body(byte[] body, String contentType) {
+            this.body = body;
+            return header("Content-Type", contentType);
+        }
+
+        Reply text(String text) {
+            return body(text.getBytes(UTF_8), "text/plain; charset=utf-8");
+        }
+
+        Reply head() {
+            this.head = true;
+            return this;
+        }
+
+        MockResponse response() {
+            MockResponse response = new MockResponse().setResponseCode(status);
+            headers.forEach(response::setHeader);
+            if (!head && body != null && status != 204 && status != 304) {
+                response.setBody(new Buffer().write(body));
+            }
+            return response;
+        }
+    }
+
+}